@@ -0,0 +1,103 @@
+package org.example;
+
+import org.example.renderer.Camera;
+import org.example.renderer.ImageWriter;
+import org.example.renderer.PixelCost;
+import org.example.renderer.SceneDescription;
+
+import java.nio.file.Path;
+
+import static java.lang.System.out;
+
+/**
+ * Batch renderer of scene description files. Each scene is rendered into a
+ * png image named after its file, in the images directory.
+ * <pre>
+ * java org.example.Main [-threads n] [-progress percents] [-virtual] [-bvh] [-stats] [-heatmap time|rays] scene.xml ...
+ * </pre>
+ * The amount of threads is as in {@link org.example.renderer.Camera.Builder#setMultithreading(int)},
+ * by default all the cores except the spare ones are used. With -virtual the
+ * tiles are rendered by virtual threads, that many at a time. With -bvh the
+ * geometries are indexed by a bounding volume hierarchy, whose build statistics
+ * are printed before the render. With -stats the statistics of the traced rays
+ * are printed after each render, with -heatmap a false colour image of the
+ * pixel costs is written next to each image.
+ */
+public final class Main {
+
+   /**
+    * Don't let anyone instantiate this class.
+    */
+   private Main() {
+   }
+
+   /**
+    * Renders the scene files given in the command line
+    * @param args options and scene files
+    */
+   public static void main(String[] args) {
+      int threads = -2;
+      double progress = 0;
+      boolean stats = false;
+      boolean virtual = false;
+      boolean bvh = false;
+      PixelCost heatmap = null;
+      int first = 0;
+      try {
+         for (; first < args.length && args[first].startsWith("-"); first++) {
+            switch (args[first]) {
+               case "-stats" -> stats = true;
+               case "-virtual" -> virtual = true;
+               case "-bvh" -> bvh = true;
+               case "-threads" -> threads = Integer.parseInt(value(args, ++first));
+               case "-progress" -> progress = Double.parseDouble(value(args, ++first));
+               case "-heatmap" -> heatmap = PixelCost.valueOf(value(args, ++first).toUpperCase());
+               default -> usage();
+            }
+         }
+      } catch (IllegalArgumentException e) {
+         usage();
+      }
+      if (first == args.length) usage();
+
+      for (int i = first; i < args.length; i++) {
+         Path path = Path.of(args[i]);
+         String name = path.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+         long start = System.currentTimeMillis();
+         SceneDescription description = SceneDescription.load(path);
+         if (bvh) out.println(name + ": " + description.getScene().geometries.buildBvh().getStats());
+         Camera camera = description.getCameraBuilder()
+                 .setImageWriter(new ImageWriter(name, description.getNx(), description.getNy()))
+                 .setMultithreading(threads)
+                 .setVirtualThreads(virtual)
+                 .setDebugPrint(progress)
+                 .setRenderStats(stats)
+                 .setPixelCost(heatmap)
+                 .build()
+                 .renderImage()
+                 .writeToImage();
+         out.println(name + ": " + (System.currentTimeMillis() - start) + " ms");
+         if (stats) out.println(camera.getRenderStats());
+         if (heatmap != null) camera.writeHeatmap();
+      }
+   }
+
+   /**
+    * Gets the value of an option
+    * @param args  options and scene files
+    * @param index index of the value
+    * @return the value
+    */
+   private static String value(String[] args, int index) {
+      if (index == args.length) usage();
+      return args[index];
+   }
+
+   /**
+    * Prints the command line syntax and exits
+    */
+   private static void usage() {
+      System.err.println("Usage: Main [-threads n] [-progress percents] [-virtual] [-bvh] [-stats] [-heatmap time|rays] scene.xml ...");
+      System.exit(1);
+   }
+}
@@ -0,0 +1,50 @@
+package org.example.geometries;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of building an acceleration structure over geometries, recorded
+ * when a flight recording enables {@code org.example.AccelerationBuild}
+ */
+@Name("org.example.AccelerationBuild")
+@Label("Acceleration Build")
+@Category("Ray Tracer")
+@Description("Building an acceleration structure over the geometries of a scene")
+@StackTrace(false)
+final class AccelerationBuildEvent extends Event {
+    @Label("Structure")
+    String structure;
+    @Label("Geometries")
+    int geometries;
+    @Label("Nodes")
+    @Description("Cells of a grid or nodes of a hierarchy")
+    int nodes;
+
+    /**
+     * Constructor of the event of a structure
+     *
+     * @param structure the name of the structure
+     */
+    AccelerationBuildEvent(String structure) {
+        this.structure = structure;
+    }
+
+    /**
+     * Ends the event and commits it with the size of the structure if the recording wants it
+     *
+     * @param geometries the amount of indexed geometries
+     * @param nodes      the amount of cells or nodes
+     */
+    void commit(int geometries, int nodes) {
+        end();
+        if (!shouldCommit()) return;
+        this.geometries = geometries;
+        this.nodes = nodes;
+        commit();
+    }
+}
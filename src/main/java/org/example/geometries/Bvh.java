@@ -0,0 +1,372 @@
+package org.example.geometries;
+
+import org.example.primitives.BoundingBox;
+import org.example.primitives.Ray;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bvh class is a collection of geometries indexed by a bounding volume
+ * hierarchy, built by {@link BvhBuilder}. A ray descends only into the nodes
+ * whose boxes it hits, and the closest intersection is searched in the nearer
+ * child first so the farther one is skipped once an intersection in front of
+ * it is found. Infinite geometries are kept aside and tested by every ray,
+ * optionally only within a clip box.
+ * <p>
+ * The nodes are stored flat in depth first order, so the first child of an
+ * interior node follows it and a traversal walks the arrays mostly forward:
+ * <pre>
+ * bounds:  double[6] minimal and maximal corner of each node
+ * offsets: int[2] of each node, for a leaf its first geometry and the amount
+ *          of its geometries, for an interior node the index of its second
+ *          child and -1 - the split axis
+ * </pre>
+ */
+public class Bvh extends Intersectable {
+    private static final long serialVersionUID = 1L;
+
+    private final double[] bounds;
+    private final int[] offsets;
+    private final Intersectable[] geometries;
+    private final UnboundedGeometries unbounded;
+    private final double traversalCost;
+    private final BvhStats stats;
+    /**
+     * Smallest subtree, in nodes, refit by a parallel task
+     */
+    private static final int PARALLEL_THRESHOLD = 2048;
+    /**
+     * Size of the traversal stack, the depth of the deepest leaf
+     */
+    private final int stackSize;
+
+    /**
+     * Constructor of a built hierarchy
+     *
+     * @param bounds        the bounds of the nodes, empty without finite geometries
+     * @param offsets       the child and geometry offsets of the nodes
+     * @param geometries    the finite geometries in the order of the leaves
+     * @param unbounded     the infinite geometries
+     * @param traversalCost the cost of visiting a node relative to testing a geometry
+     * @param stats         the statistics of the build
+     */
+    Bvh(double[] bounds, int[] offsets, Intersectable[] geometries, Intersectable[] unbounded, double traversalCost,
+        BvhStats stats) {
+        this.bounds = bounds;
+        this.offsets = offsets;
+        this.geometries = geometries;
+        this.unbounded = new UnboundedGeometries(unbounded);
+        this.traversalCost = traversalCost;
+        this.stats = stats;
+        this.stackSize = Math.max(1, stats.getDepth());
+    }
+
+    /**
+     * Returns the statistics of the build of the hierarchy.
+     *
+     * @return the build time and the quality of the tree
+     */
+    public BvhStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the geometries of the hierarchy, the infinite ones last.
+     *
+     * @return an unmodifiable list of the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        List<Intersectable> all = new ArrayList<>(Arrays.asList(geometries));
+        all.addAll(Arrays.asList(unbounded.getGeometries()));
+        return Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Clips the infinite geometries by the finite extent of the scene: a ray
+     * missing the box does not test them, and their intersections outside of it
+     * are ignored, such as a floor plane beyond the walls of a room. Geometries
+     * seen through the box, such as a horizon, must not be clipped.
+     *
+     * @param clipBox the extent of the scene, null not to clip the infinite geometries
+     * @return this hierarchy
+     */
+    public Bvh setClipBox(BoundingBox clipBox) {
+        unbounded.setClipBox(clipBox);
+        return this;
+    }
+
+    /**
+     * Returns the box clipping the infinite geometries.
+     *
+     * @return the box, null if the infinite geometries are not clipped
+     */
+    public BoundingBox getClipBox() {
+        return unbounded.getClipBox();
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (bounds.length == 0 || unbounded.getGeometries().length > 0) return null;
+        return new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+    }
+
+    @Override
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> result = new ArrayList<>();
+        IntersectionCounter counters = IntersectionCounter.current();
+        unbounded.collect(ray, maxDistance, result, counters);
+        traverse(ray, maxDistance, result, counters);
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        IntersectionCounter counters = IntersectionCounter.current();
+        GeoPoint closest = unbounded.closest(ray, maxDistance, counters);
+        if (closest != null) maxDistance = closest.point.distance(ray.getHead());
+        GeoPoint inTree = traverse(ray, maxDistance, null, counters);
+        return inTree != null ? inTree : closest;
+    }
+
+    /**
+     * Refits the boxes of the nodes to the current boxes of the geometries,
+     * keeping the tree. Large subtrees are refit in parallel. The hierarchy must
+     * not be searched during the refit.
+     *
+     * @return the SAH cost of the refit tree, to compare with the cost of the build
+     */
+    public double refit() {
+        if (bounds.length == 0) return 0;
+        ForkJoinPool.commonPool().invoke(new RefitTask(0, offsets.length / 2));
+        return sahCost();
+    }
+
+    /**
+     * Calculates the SAH cost of the tree with its current boxes
+     *
+     * @return the expected cost of a ray hitting the root box
+     */
+    public double sahCost() {
+        if (bounds.length == 0) return 0;
+        double cost = 0;
+        for (int node = 0; node < offsets.length / 2; node++) {
+            int kind = offsets[2 * node + 1];
+            cost += BvhBuilder.surfaceArea(bounds, 6 * node) * (kind >= 0 ? kind : traversalCost);
+        }
+        return cost / Math.max(BvhBuilder.surfaceArea(bounds, 0), Double.MIN_NORMAL);
+    }
+
+    /**
+     * Task refitting a subtree, the nodes from its root up to the end of its range
+     */
+    private final class RefitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int node;
+        private final int end;
+
+        /**
+         * Constructor of the task of a subtree
+         *
+         * @param node the root of the subtree
+         * @param end  the index after the last node of the subtree
+         */
+        private RefitTask(int node, int end) {
+            this.node = node;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            int offset = offsets[2 * node], kind = offsets[2 * node + 1];
+            int b = 6 * node;
+            if (kind >= 0) {
+                Arrays.fill(bounds, b, b + 3, Double.POSITIVE_INFINITY);
+                Arrays.fill(bounds, b + 3, b + 6, Double.NEGATIVE_INFINITY);
+                for (int i = offset; i < offset + kind; i++) {
+                    BoundingBox box = geometries[i].getBoundingBox();
+                    for (int axis = 0; axis < 3; axis++) {
+                        bounds[b + axis] = Math.min(bounds[b + axis], box.min(axis));
+                        bounds[b + axis + 3] = Math.max(bounds[b + axis + 3], box.max(axis));
+                    }
+                }
+                return;
+            }
+            RefitTask left = new RefitTask(node + 1, offset);
+            RefitTask right = new RefitTask(offset, end);
+            if (end - node > PARALLEL_THRESHOLD) {
+                left.fork();
+                right.compute();
+                left.join();
+            } else {
+                left.compute();
+                right.compute();
+            }
+            int l = 6 * (node + 1), r = 6 * offset;
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[b + axis] = Math.min(bounds[l + axis], bounds[r + axis]);
+                bounds[b + axis + 3] = Math.max(bounds[l + axis + 3], bounds[r + axis + 3]);
+            }
+        }
+    }
+
+    /**
+     * Walks the nodes hit by a ray with a fixed stack of the far children.
+     * The child on the side the ray comes from along the split axis is visited
+     * first. Collecting all the intersections visits every hit node, finding
+     * the closest one skips the nodes entered behind the closest intersection
+     * found so far.
+     *
+     * @param ray           the ray
+     * @param maxDistance   the maximum distance from the ray head
+     * @param intersections list collecting all the intersections, null to find the closest one
+     * @param counters      the intersection counter of the thread, null when not collecting
+     * @return the closest intersection closer than the maximum distance, null if
+     * there is none or all the intersections are collected
+     */
+    private GeoPoint traverse(Ray ray, double maxDistance, List<GeoPoint> intersections,
+                              IntersectionCounter counters) {
+        if (bounds.length == 0) return null;
+        double[] origin = {ray.getHead().getX(), ray.getHead().getY(), ray.getHead().getZ()};
+        double[] inverse = {1 / ray.getDirection().getX(), 1 / ray.getDirection().getY(),
+                1 / ray.getDirection().getZ()};
+
+        int[] stack = new int[stackSize];
+        int top = 0;
+        int node = 0;
+        GeoPoint closest = null;
+        double limit = maxDistance;
+        while (true) {
+            if (enter(node, origin, inverse, limit)) {
+                int offset = offsets[2 * node], kind = offsets[2 * node + 1];
+                if (kind >= 0) {
+                    for (int i = offset; i < offset + kind; i++) {
+                        Intersectable tested = geometries[i];
+                        if (counters != null && tested instanceof Geometry) counters.intersectionTest(tested);
+                        if (intersections != null) {
+                            List<GeoPoint> found = tested.findGeoIntersectionsHelper(ray, maxDistance);
+                            if (found != null) intersections.addAll(found);
+                        } else {
+                            GeoPoint found = tested.findClosestGeoIntersectionHelper(ray, limit);
+                            if (found != null) {
+                                double distance = found.point.distance(ray.getHead());
+                                if (distance < limit) {
+                                    closest = found;
+                                    limit = distance;
+                                }
+                            }
+                        }
+                    }
+                } else if (inverse[-1 - kind] < 0) {
+                    stack[top++] = node + 1;
+                    node = offset;
+                    continue;
+                } else {
+                    stack[top++] = offset;
+                    ++node;
+                    continue;
+                }
+            }
+            if (top == 0) return closest;
+            node = stack[--top];
+        }
+    }
+
+    /**
+     * Checks whether a ray enters the box of a node
+     *
+     * @param node        the node
+     * @param origin      the ray head
+     * @param inverse     the inverse of the ray direction
+     * @param maxDistance the maximum distance from the ray head
+     * @return true if the ray enters the box within the distance
+     */
+    private boolean enter(int node, double[] origin, double[] inverse, double maxDistance) {
+        int b = 6 * node;
+        double near = 0, far = maxDistance;
+        for (int axis = 0; axis < 3; axis++) {
+            double t1 = (bounds[b + axis] - origin[axis]) * inverse[axis];
+            double t2 = (bounds[b + axis + 3] - origin[axis]) * inverse[axis];
+            // a ray parallel to the slab gives NaN or infinities, NaN is ignored by the comparisons
+            if (t1 > t2) {
+                double t = t1;
+                t1 = t2;
+                t2 = t;
+            }
+            if (t1 > near) near = t1;
+            if (t2 < far) far = t2;
+            if (near > far) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the hierarchy for a scene snapshot
+     *
+     * @param out   the acceleration section
+     * @param index the index of a geometry in the snapshot
+     * @throws IOException if the section fails
+     */
+    public void write(DataOutput out, ToIntFunction<Intersectable> index) throws IOException {
+        out.writeInt(offsets.length / 2);
+        for (double bound : bounds) out.writeDouble(bound);
+        for (int offset : offsets) out.writeInt(offset);
+        out.writeInt(geometries.length);
+        for (Intersectable geometry : geometries) out.writeInt(index.applyAsInt(geometry));
+        out.writeInt(unbounded.getGeometries().length);
+        for (Intersectable geometry : unbounded.getGeometries()) out.writeInt(index.applyAsInt(geometry));
+        BoundingBox clipBox = unbounded.getClipBox();
+        out.writeBoolean(clipBox != null);
+        if (clipBox != null)
+            for (int axis = 0; axis < 3; axis++) {
+                out.writeDouble(clipBox.min(axis));
+                out.writeDouble(clipBox.max(axis));
+            }
+        out.writeDouble(traversalCost);
+        out.writeDouble(stats.getBuildMillis());
+        out.writeInt(stats.getNodes());
+        out.writeInt(stats.getLeaves());
+        out.writeInt(stats.getDepth());
+        out.writeDouble(stats.getSahCost());
+        out.writeInt(stats.getMinLeafSize());
+        out.writeInt(stats.getMaxLeafSize());
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #write(DataOutput, ToIntFunction)}
+     *
+     * @param in         the acceleration section
+     * @param geometries the geometries of the snapshot
+     * @return the hierarchy over the geometries
+     */
+    public static Bvh read(ByteBuffer in, List<Intersectable> geometries) {
+        int nodes = in.getInt();
+        double[] bounds = new double[6 * nodes];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = in.getDouble();
+        int[] offsets = new int[2 * nodes];
+        for (int i = 0; i < offsets.length; i++) offsets[i] = in.getInt();
+        Intersectable[] bounded = new Intersectable[in.getInt()];
+        for (int i = 0; i < bounded.length; i++) bounded[i] = geometries.get(in.getInt());
+        Intersectable[] unbounded = new Intersectable[in.getInt()];
+        for (int i = 0; i < unbounded.length; i++) unbounded[i] = geometries.get(in.getInt());
+        BoundingBox clipBox = null;
+        if (in.get() != 0) {
+            double[] clip = new double[6];
+            for (int i = 0; i < clip.length; i++) clip[i] = in.getDouble();
+            clipBox = new BoundingBox(clip[0], clip[2], clip[4], clip[1], clip[3], clip[5]);
+        }
+        double traversalCost = in.getDouble();
+        BvhStats stats = new BvhStats(in.getDouble(), bounded.length, in.getInt(), in.getInt(), in.getInt(),
+                in.getDouble(), in.getInt(), in.getInt());
+        return new Bvh(bounds, offsets, bounded, unbounded, traversalCost, stats).setClipBox(clipBox);
+    }
+}
@@ -0,0 +1,424 @@
+package org.example.geometries;
+
+import org.example.primitives.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builder of bounding volume hierarchies by the surface area heuristic (SAH).
+ * The geometries of a node are binned by the centroids of their boxes along
+ * each axis and the node is split at the bin border of the cheapest expected
+ * ray cost, or made a leaf when no split is cheaper. The geometries are
+ * partitioned in place in an array of their indices, and the two halves of
+ * a large node are built in parallel on a fork-join pool.
+ */
+public final class BvhBuilder {
+    /**
+     * Smallest node built by a parallel task, smaller nodes are built by the task of their parent
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private int bins = 16;
+    private int maxLeafSize = 4;
+    private double traversalCost = 0.125;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Node of the tree while it is built, flattened into the arrays of the
+     * {@link Bvh} when complete: either a leaf holding a range of the
+     * geometries, or an interior node with two children split along an axis
+     */
+    private static final class Node {
+        /**
+         * Minimal and maximal corner of the bounds
+         */
+        private final double[] box;
+        private final Node left;
+        private final Node right;
+        private final int first;
+        private final int count;
+        private final int axis;
+
+        private Node(double[] box, Node left, Node right, int first, int count, int axis) {
+            this.box = box;
+            this.left = left;
+            this.right = right;
+            this.first = first;
+            this.count = count;
+            this.axis = axis;
+        }
+
+        /**
+         * Creates a leaf
+         *
+         * @param box   the bounds of the geometries
+         * @param first the index of the first geometry
+         * @param count the amount of geometries
+         * @return the leaf
+         */
+        private static Node leaf(double[] box, int first, int count) {
+            return new Node(box, null, null, first, count, -1);
+        }
+
+        /**
+         * Creates an interior node
+         *
+         * @param box   the bounds of the children
+         * @param axis  the split axis
+         * @param left  the child of the lower centroids
+         * @param right the child of the higher centroids
+         * @return the node
+         */
+        private static Node interior(double[] box, int axis, Node left, Node right) {
+            return new Node(box, left, right, 0, 0, axis);
+        }
+
+        /**
+         * Checks whether the node is a leaf
+         *
+         * @return true for a leaf
+         */
+        private boolean isLeaf() {
+            return left == null;
+        }
+    }
+
+    /**
+     * Sets the amount of bins of the centroids along an axis
+     *
+     * @param bins the amount of bins, 16 by default
+     * @return this builder
+     * @throws IllegalArgumentException if there are less than 2 bins
+     */
+    public BvhBuilder setBins(int bins) {
+        if (bins < 2) throw new IllegalArgumentException("There must be at least 2 bins");
+        this.bins = bins;
+        return this;
+    }
+
+    /**
+     * Sets the largest leaf made when splitting would not reduce the SAH cost.
+     * Larger nodes are always split unless all their centroids coincide.
+     *
+     * @param maxLeafSize the amount of geometries, 4 by default
+     * @return this builder
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public BvhBuilder setMaxLeafSize(int maxLeafSize) {
+        if (maxLeafSize < 1) throw new IllegalArgumentException("Leaf size must be positive");
+        this.maxLeafSize = maxLeafSize;
+        return this;
+    }
+
+    /**
+     * Sets the cost of visiting a node relative to testing a geometry
+     *
+     * @param traversalCost the cost, 0.125 by default
+     * @return this builder
+     * @throws IllegalArgumentException if the cost is negative
+     */
+    public BvhBuilder setTraversalCost(double traversalCost) {
+        if (traversalCost < 0) throw new IllegalArgumentException("Traversal cost must not be negative");
+        this.traversalCost = traversalCost;
+        return this;
+    }
+
+    /**
+     * Sets the pool building the nodes in parallel
+     *
+     * @param pool the pool, the common pool by default
+     * @return this builder
+     */
+    public BvhBuilder setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Builds a hierarchy over geometries. Infinite geometries are kept aside
+     * and tested by every ray.
+     *
+     * @param geometries the geometries
+     * @return the hierarchy with the statistics of its build
+     */
+    public Bvh build(Intersectable... geometries) {
+        long start = System.nanoTime();
+        AccelerationBuildEvent event = new AccelerationBuildEvent("Bvh");
+        event.begin();
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unbounded = new ArrayList<>();
+        List<BoundingBox> boxList = new ArrayList<>();
+        for (Intersectable geometry : geometries) {
+            if (geometry.isBounded()) {
+                bounded.add(geometry);
+                boxList.add(geometry.getBoundingBox());
+            } else {
+                unbounded.add(geometry);
+            }
+        }
+
+        int count = bounded.size();
+        double[] boxes = new double[6 * count];
+        double[] centroids = new double[3 * count];
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            BoundingBox box = boxList.get(i);
+            for (int axis = 0; axis < 3; axis++) {
+                boxes[6 * i + axis] = box.min(axis);
+                boxes[6 * i + axis + 3] = box.max(axis);
+                centroids[3 * i + axis] = (box.min(axis) + box.max(axis)) / 2;
+            }
+            indices[i] = i;
+        }
+        Node root = count == 0 ? null : pool.invoke(new BuildTask(boxes, centroids, indices, 0, count));
+
+        Intersectable[] ordered = new Intersectable[count];
+        for (int i = 0; i < count; i++)
+            ordered[i] = bounded.get(indices[i]);
+        BvhStats stats = stats(root, count, (System.nanoTime() - start) / 1e6);
+        double[] bounds = new double[6 * stats.getNodes()];
+        int[] offsets = new int[2 * stats.getNodes()];
+        if (root != null) flatten(root, bounds, offsets, 0);
+        event.commit(count, stats.getNodes());
+        return new Bvh(bounds, offsets, ordered, unbounded.toArray(new Intersectable[0]), traversalCost, stats);
+    }
+
+    /**
+     * Stores a subtree in depth first order, the first child right after its parent
+     *
+     * @param node    the root of the subtree
+     * @param bounds  the bounds of the flat nodes
+     * @param offsets the child and geometry offsets of the flat nodes
+     * @param index   the flat index of the root of the subtree
+     * @return the flat index after the subtree
+     */
+    private static int flatten(Node node, double[] bounds, int[] offsets, int index) {
+        System.arraycopy(node.box, 0, bounds, 6 * index, 6);
+        if (node.isLeaf()) {
+            offsets[2 * index] = node.first;
+            offsets[2 * index + 1] = node.count;
+            return index + 1;
+        }
+        int second = flatten(node.left, bounds, offsets, index + 1);
+        offsets[2 * index] = second;
+        offsets[2 * index + 1] = -1 - node.axis;
+        return flatten(node.right, bounds, offsets, second);
+    }
+
+    /**
+     * Task building the node of a range of the index array
+     */
+    private final class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] boxes;
+        private final double[] centroids;
+        private final int[] indices;
+        private final int start;
+        private final int end;
+
+        /**
+         * Constructor of the task of a range
+         *
+         * @param boxes     the boxes of the geometries, minimal and maximal corner of each
+         * @param centroids the centroids of the boxes
+         * @param indices   the geometry indices, partitioned in place
+         * @param start     the first index of the range
+         * @param end       the index after the range
+         */
+        private BuildTask(double[] boxes, double[] centroids, int[] indices, int start, int end) {
+            this.boxes = boxes;
+            this.centroids = centroids;
+            this.indices = indices;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Node compute() {
+            int count = end - start;
+            double[] box = emptyBox();
+            double[] centroidBox = emptyBox();
+            for (int i = start; i < end; i++) {
+                int geometry = indices[i];
+                for (int axis = 0; axis < 3; axis++) {
+                    box[axis] = Math.min(box[axis], boxes[6 * geometry + axis]);
+                    box[axis + 3] = Math.max(box[axis + 3], boxes[6 * geometry + axis + 3]);
+                    double centroid = centroids[3 * geometry + axis];
+                    centroidBox[axis] = Math.min(centroidBox[axis], centroid);
+                    centroidBox[axis + 3] = Math.max(centroidBox[axis + 3], centroid);
+                }
+            }
+            if (count == 1) return Node.leaf(box, start, count);
+
+            // the cheapest split over the bins of all the axes
+            double area = Math.max(surfaceArea(box, 0), Double.MIN_NORMAL);
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestAxis = -1, bestBin = 0;
+            int[] binCounts = new int[bins];
+            double[] binBoxes = new double[6 * bins];
+            int[] rightCounts = new int[bins];
+            double[] rightAreas = new double[bins];
+            for (int axis = 0; axis < 3; axis++) {
+                double low = centroidBox[axis], extent = centroidBox[axis + 3] - low;
+                if (extent <= 0) continue;
+                Arrays.fill(binCounts, 0);
+                for (int b = 0; b < bins; b++) {
+                    Arrays.fill(binBoxes, 6 * b, 6 * b + 3, Double.POSITIVE_INFINITY);
+                    Arrays.fill(binBoxes, 6 * b + 3, 6 * b + 6, Double.NEGATIVE_INFINITY);
+                }
+                for (int i = start; i < end; i++) {
+                    int geometry = indices[i];
+                    int b = bin(centroids[3 * geometry + axis], low, extent);
+                    ++binCounts[b];
+                    for (int k = 0; k < 3; k++) {
+                        binBoxes[6 * b + k] = Math.min(binBoxes[6 * b + k], boxes[6 * geometry + k]);
+                        binBoxes[6 * b + k + 3] = Math.max(binBoxes[6 * b + k + 3], boxes[6 * geometry + k + 3]);
+                    }
+                }
+                // sweep from the right for the areas of the right sides, then from the left for the costs
+                double[] sweep = emptyBox();
+                int sweepCount = 0;
+                for (int b = bins - 1; b > 0; b--) {
+                    grow(sweep, binBoxes, 6 * b);
+                    sweepCount += binCounts[b];
+                    rightCounts[b] = sweepCount;
+                    rightAreas[b] = sweepCount == 0 ? 0 : surfaceArea(sweep, 0);
+                }
+                sweep = emptyBox();
+                sweepCount = 0;
+                for (int b = 0; b < bins - 1; b++) {
+                    grow(sweep, binBoxes, 6 * b);
+                    sweepCount += binCounts[b];
+                    int right = rightCounts[b + 1];
+                    if (sweepCount == 0 || right == 0) continue;
+                    double cost = traversalCost
+                            + (surfaceArea(sweep, 0) * sweepCount + rightAreas[b + 1] * right) / area;
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = b;
+                    }
+                }
+            }
+            if (bestAxis < 0 || bestCost >= count && count <= maxLeafSize)
+                return Node.leaf(box, start, count);
+
+            // partition in place: the geometries of the bins up to the best one first
+            double low = centroidBox[bestAxis], extent = centroidBox[bestAxis + 3] - low;
+            int middle = start;
+            for (int i = start; i < end; i++) {
+                int geometry = indices[i];
+                if (bin(centroids[3 * geometry + bestAxis], low, extent) <= bestBin) {
+                    indices[i] = indices[middle];
+                    indices[middle++] = geometry;
+                }
+            }
+
+            BuildTask leftTask = new BuildTask(boxes, centroids, indices, start, middle);
+            BuildTask rightTask = new BuildTask(boxes, centroids, indices, middle, end);
+            Node left, right;
+            if (count > PARALLEL_THRESHOLD) {
+                leftTask.fork();
+                right = rightTask.compute();
+                left = leftTask.join();
+            } else {
+                left = leftTask.compute();
+                right = rightTask.compute();
+            }
+            return Node.interior(box, bestAxis, left, right);
+        }
+
+        /**
+         * Finds the bin of a centroid
+         *
+         * @param centroid the centroid coordinate
+         * @param low      the lowest centroid coordinate of the node
+         * @param extent   the extent of the centroids of the node
+         * @return the bin index
+         */
+        private int bin(double centroid, double low, double extent) {
+            return Math.min(bins - 1, (int) ((centroid - low) * bins / extent));
+        }
+    }
+
+    /**
+     * Creates a box containing nothing, ready to grow
+     *
+     * @return the minimal corner at positive infinity and the maximal at negative infinity
+     */
+    private static double[] emptyBox() {
+        double inf = Double.POSITIVE_INFINITY;
+        return new double[]{inf, inf, inf, -inf, -inf, -inf};
+    }
+
+    /**
+     * Grows a box to contain another box
+     *
+     * @param box    the grown box
+     * @param boxes  array holding the other box
+     * @param offset the offset of the other box in its array
+     */
+    private static void grow(double[] box, double[] boxes, int offset) {
+        for (int axis = 0; axis < 3; axis++) {
+            box[axis] = Math.min(box[axis], boxes[offset + axis]);
+            box[axis + 3] = Math.max(box[axis + 3], boxes[offset + axis + 3]);
+        }
+    }
+
+    /**
+     * Calculates the surface area of a box
+     *
+     * @param boxes  array holding the box
+     * @param offset the offset of the box in its array
+     * @return the surface area
+     */
+    static double surfaceArea(double[] boxes, int offset) {
+        double dx = boxes[offset + 3] - boxes[offset];
+        double dy = boxes[offset + 4] - boxes[offset + 1];
+        double dz = boxes[offset + 5] - boxes[offset + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Measures a built tree
+     *
+     * @param root        the root, null for an empty tree
+     * @param geometries  the amount of geometries
+     * @param buildMillis the build time
+     * @return the statistics
+     */
+    private BvhStats stats(Node root, int geometries, double buildMillis) {
+        if (root == null) return new BvhStats(buildMillis, 0, 0, 0, 0, 0, 0, 0);
+        // nodes, leaves, depth, min leaf, max leaf
+        int[] counts = {0, 0, 0, Integer.MAX_VALUE, 0};
+        double rootArea = Math.max(surfaceArea(root.box, 0), Double.MIN_NORMAL);
+        double cost = measure(root, 0, counts) / rootArea;
+        return new BvhStats(buildMillis, geometries, counts[0], counts[1], counts[2], cost, counts[3], counts[4]);
+    }
+
+    /**
+     * Measures a subtree
+     *
+     * @param node   the root of the subtree
+     * @param depth  the depth of the node
+     * @param counts the nodes, leaves, depth, min and max leaf size, updated
+     * @return the SAH cost of the subtree times the surface area of the root
+     */
+    private double measure(Node node, int depth, int[] counts) {
+        ++counts[0];
+        counts[2] = Math.max(counts[2], depth);
+        double area = surfaceArea(node.box, 0);
+        if (node.isLeaf()) {
+            ++counts[1];
+            counts[3] = Math.min(counts[3], node.count);
+            counts[4] = Math.max(counts[4], node.count);
+            return area * node.count;
+        }
+        return area * traversalCost + measure(node.left, depth + 1, counts) + measure(node.right, depth + 1, counts);
+    }
+}
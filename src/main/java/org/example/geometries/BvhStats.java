@@ -0,0 +1,135 @@
+package org.example.geometries;
+
+import java.io.Serializable;
+
+/**
+ * Statistics of a bounding volume hierarchy build: the build time and the
+ * quality of the tree. The SAH cost is the expected cost of a random ray
+ * hitting the root box, counting a geometry test as 1 and a node visit as the
+ * traversal cost of the builder; a flat list of n geometries costs n.
+ */
+public final class BvhStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final double buildMillis;
+    private final int geometries;
+    private final int nodes;
+    private final int leaves;
+    private final int depth;
+    private final double sahCost;
+    private final int minLeafSize;
+    private final int maxLeafSize;
+
+    /**
+     * Constructor of the statistics of a built tree
+     *
+     * @param buildMillis the build time in milliseconds
+     * @param geometries  the amount of bounded geometries in the tree
+     * @param nodes       the amount of nodes, leaves included
+     * @param leaves      the amount of leaves
+     * @param depth       the depth of the deepest leaf, 0 for a single leaf
+     * @param sahCost     the SAH cost of the tree
+     * @param minLeafSize the amount of geometries of the smallest leaf
+     * @param maxLeafSize the amount of geometries of the largest leaf
+     */
+    BvhStats(double buildMillis, int geometries, int nodes, int leaves, int depth, double sahCost,
+             int minLeafSize, int maxLeafSize) {
+        this.buildMillis = buildMillis;
+        this.geometries = geometries;
+        this.nodes = nodes;
+        this.leaves = leaves;
+        this.depth = depth;
+        this.sahCost = sahCost;
+        this.minLeafSize = minLeafSize;
+        this.maxLeafSize = maxLeafSize;
+    }
+
+    /**
+     * Getter of the build time
+     *
+     * @return the build time in milliseconds
+     */
+    public double getBuildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Getter of the amount of bounded geometries in the tree
+     *
+     * @return the amount of geometries
+     */
+    public int getGeometries() {
+        return geometries;
+    }
+
+    /**
+     * Getter of the amount of nodes
+     *
+     * @return the amount of interior nodes and leaves
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Getter of the amount of leaves
+     *
+     * @return the amount of leaves
+     */
+    public int getLeaves() {
+        return leaves;
+    }
+
+    /**
+     * Getter of the depth of the tree
+     *
+     * @return the depth of the deepest leaf, 0 for a single leaf
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Getter of the SAH cost of the tree
+     *
+     * @return the expected cost of a ray hitting the root box
+     */
+    public double getSahCost() {
+        return sahCost;
+    }
+
+    /**
+     * Getter of the size of the smallest leaf
+     *
+     * @return the amount of geometries of the smallest leaf
+     */
+    public int getMinLeafSize() {
+        return minLeafSize;
+    }
+
+    /**
+     * Getter of the size of the largest leaf
+     *
+     * @return the amount of geometries of the largest leaf
+     */
+    public int getMaxLeafSize() {
+        return maxLeafSize;
+    }
+
+    /**
+     * Getter of the average size of the leaves
+     *
+     * @return the average amount of geometries of a leaf
+     */
+    public double getAverageLeafSize() {
+        return leaves == 0 ? 0 : (double) geometries / leaves;
+    }
+
+    @Override
+    public String toString() {
+        return "build: " + String.format("%.3f", buildMillis) + " ms, geometries: " + geometries
+                + ", nodes: " + nodes + ", leaves: " + leaves + ", depth: " + depth
+                + ", SAH cost: " + String.format("%.3f", sahCost)
+                + ", leaf size: " + minLeafSize + "/" + String.format("%.2f", getAverageLeafSize()) + "/" + maxLeafSize;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.geometries;
 
+import org.example.primitives.BoundingBox;
 import org.example.primitives.Point;
 import org.example.primitives.Ray;
 import org.example.primitives.Vector;
@@ -12,11 +13,12 @@ import static org.example.primitives.Util.isZero;
  * Represents a cylinder in three-dimensional space, defined by its height, axis, and radius.
  */
 public class Cylinder extends Tube {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The height of the cylinder.
      */
     private final double height;
-    private final Plane bottomCap, topCap;
 
     /**
      * Constructs a cylinder with the given height, axis, and radius.
@@ -28,8 +30,36 @@ public class Cylinder extends Tube {
     public Cylinder(Ray axis, double height, double radius) {
         super(axis, radius);
         this.height = height;
-        this.bottomCap = new Plane(axis.getHead(), axis.getDirection().scale(-1));
-        this.topCap = new Plane(axis.getHead(height), axis.getDirection());
+    }
+
+    /**
+     * Returns the height of the cylinder.
+     *
+     * @return The height.
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the box of the cylinder: the box of its axis segment, widened along
+     * each axis by the extent of the cap disks in that axis.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        Vector direction = axis.getDirection();
+        Point bottom = axis.getHead();
+        Point top = axis.getHead(height);
+        double[] d = {direction.getX(), direction.getY(), direction.getZ()};
+        double[] b = {bottom.getX(), bottom.getY(), bottom.getZ()};
+        double[] t = {top.getX(), top.getY(), top.getZ()};
+        double[] min = new double[3], max = new double[3];
+        for (int i = 0; i < 3; i++) {
+            double extent = radius * Math.sqrt(Math.max(0, 1 - d[i] * d[i]));
+            min[i] = Math.min(b[i], t[i]) - extent;
+            max[i] = Math.max(b[i], t[i]) + extent;
+        }
+        return new BoundingBox(min[0], min[1], min[2], max[0], max[1], max[2]);
     }
 
     /**
@@ -68,92 +98,12 @@ public class Cylinder extends Tube {
 
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        Point point1 = axis.getHead();
-        Point point2 = axis.getHead(height);
-        List<GeoPoint> result = null;
-        /* Find the tube's intersections */
-        List<GeoPoint> tubePoints = super.findGeoIntersectionsHelper(ray, maxDistance);
-        GeoPoint geoPoint1;
-        GeoPoint geoPoint2;
-        boolean q0Intersects;
-        boolean q1Intersects;
-
-        if (tubePoints != null) {
-            if (tubePoints.size() == 2) {
-                /* Checks if the intersection points are on the cylinder */
-                geoPoint1 = tubePoints.get(0);
-                geoPoint2 = tubePoints.get(1);
-                q0Intersects = isBetweenCaps(geoPoint1.point);
-                q1Intersects = isBetweenCaps(geoPoint2.point);
-
-                if (q0Intersects && q1Intersects) {
-                    return tubePoints;
-                }
-
-                if (q0Intersects) {
-                    result = new java.util.LinkedList<>();
-                    result.add(geoPoint1);
-                } else if (q1Intersects) {
-                    result = new java.util.LinkedList<>();
-                    result.add(geoPoint2);
-                }
-            }
-
-            if (tubePoints.size() == 1) {
-                /* Checks if the intersection point is on the cylinder */
-                GeoPoint q = tubePoints.getFirst();
-                if (isBetweenCaps(q.point)) {
-                    result = new java.util.LinkedList<>();
-                    result.add(q);
-                }
-            }
-        }
-        /* Finds the bottom cap's intersections */
-
-        List<GeoPoint> cap0Point = bottomCap.findGeoIntersectionsHelper(ray, maxDistance);
-        if (cap0Point != null) {
-            // Checks if the intersection point is on the cap */
-            geoPoint1 = cap0Point.getFirst();
-            if (geoPoint1.point.distanceSquared(point1) < radius * radius) {
-                if (result == null) {
-                    result = new java.util.LinkedList<>();
-                }
-                result.add(geoPoint1);
-                if (result.size() == 2) {
-                    return result;
-                }
-            }
-        }
-        /* Finds the top cap's intersections */
-        List<GeoPoint> cap1Point = topCap.findGeoIntersectionsHelper(ray, maxDistance);
-        if (cap1Point != null) {
-            /* Checks if the intersection point is on the cap */
-            geoPoint1 = cap1Point.getFirst();
-            if (geoPoint1.point.distanceSquared(point2) < radius * radius) {
-                if (result == null) {
-                    return List.of(geoPoint1);
-                }
-
-                result.add(geoPoint1);
-            }
-        }
-
-        return result;
+        return intersect(ray, maxDistance, 0, height, false);
     }
-    /**
-     * Helper function that checks if a points is between the two caps.
-     * @param p The point that will be checked.
-     * @return True if it is between the caps. Otherwise, false.
-     */
-    private boolean isBetweenCaps(Point p) {
-        Vector vector = axis.getDirection();
-        Point point1 = axis.getHead();
-        Point point2 = axis.getHead(height);
-        /* Checks against zero vector... */
-        if (p.equals(point1) || p.equals(point2)) {
-            return false;
-        }
-        return vector.dotProduct(p.subtract(point1)) > 0 &&
-               vector.dotProduct(p.subtract(point2)) < 0;
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = intersect(ray, maxDistance, 0, height, true);
+        return intersections == null ? null : intersections.getFirst();
     }
 }
@@ -1,11 +1,13 @@
 package org.example.geometries;
 
 import org.example.geometries.Intersectable;
+import org.example.primitives.BoundingBox;
 import org.example.primitives.Point;
 import org.example.primitives.Ray;
 import java.util.stream.Collectors;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -13,7 +15,19 @@ import java.util.List;
  * Geometries class represents a collection of geometries in 3D Cartesian coordinate system
  */
 public class Geometries extends Intersectable {
-    private final List<Intersectable> Geometry = new LinkedList<>();
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Growth of the SAH cost of a refit hierarchy over the cost of its build
+     * which makes {@link #refitBvh()} build it again
+     */
+    private static final double MAX_SAH_DEGRADATION = 1.5;
+
+    private final LinkedList<Intersectable> Geometry = new LinkedList<>();
+    /**
+     * Hierarchy over the geometries, null until built and after a change of the collection
+     */
+    private Bvh bvh = null;
 
     /**
      * Default constructor that creates an empty collection of geometries.
@@ -37,7 +51,61 @@ public class Geometries extends Intersectable {
      */
     public void add(Intersectable... geometries) {
         Geometry.addAll(List.of(geometries));
+        bvh = null;
+    }
 
+    /**
+     * Builds a bounding volume hierarchy over the geometries, searched instead
+     * of the list until the collection changes.
+     *
+     * @return the hierarchy
+     */
+    public Bvh buildBvh() {
+        bvh = new BvhBuilder().build(Geometry.toArray(new Intersectable[0]));
+        return bvh;
+    }
+
+    /**
+     * Updates the hierarchy over the geometries after they moved, such as for
+     * the next frame of an animation. The hierarchy is refit, or built again
+     * once refitting made it too loose.
+     *
+     * @return the hierarchy
+     */
+    public Bvh refitBvh() {
+        if (bvh == null || bvh.refit() > bvh.getStats().getSahCost() * MAX_SAH_DEGRADATION)
+            return buildBvh();
+        return bvh;
+    }
+
+    /**
+     * Returns the hierarchy over the geometries.
+     *
+     * @return the hierarchy, null if it wasn't built or the collection changed since
+     */
+    public Bvh getBvh() {
+        return bvh;
+    }
+
+    /**
+     * Sets a prebuilt hierarchy over the geometries, such as one loaded with a snapshot.
+     *
+     * @param bvh the hierarchy, null to search the list
+     * @throws IllegalArgumentException if the hierarchy is over other geometries
+     */
+    public void setBvh(Bvh bvh) {
+        if (bvh != null && bvh.getGeometries().size() != Geometry.size())
+            throw new IllegalArgumentException("The hierarchy must be over the geometries of the collection");
+        this.bvh = bvh;
+    }
+
+    /**
+     * Returns the geometries of the collection.
+     *
+     * @return an unmodifiable view of the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        return Collections.unmodifiableList(Geometry);
     }
 
     /**
@@ -74,8 +142,11 @@ public class Geometries extends Intersectable {
    //}
    @Override
    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+       if (bvh != null) return bvh.findGeoIntersectionsHelper(ray, maxDistance);
        List<GeoPoint> geoIntersections = new ArrayList<>();
+       IntersectionCounter counters = IntersectionCounter.current();
        for (Intersectable intersectable : Geometry) {
+           if (counters != null && intersectable instanceof Geometry) counters.intersectionTest(intersectable);
            List<GeoPoint> intersections = intersectable.findGeoIntersectionsHelper(ray, maxDistance);
            if (intersections != null) {
                geoIntersections.addAll(intersections);
@@ -84,4 +155,39 @@ public class Geometries extends Intersectable {
        return geoIntersections.isEmpty() ? null : geoIntersections;
    }
 
+   @Override
+   protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+       if (bvh != null) return bvh.findClosestGeoIntersectionHelper(ray, maxDistance);
+       GeoPoint closest = null;
+       IntersectionCounter counters = IntersectionCounter.current();
+       for (Intersectable intersectable : Geometry) {
+           if (counters != null && intersectable instanceof Geometry) counters.intersectionTest(intersectable);
+           GeoPoint intersection = intersectable.findClosestGeoIntersectionHelper(ray, maxDistance);
+           if (intersection != null) {
+               double distance = intersection.point.distance(ray.getHead());
+               if (distance < maxDistance) { // not all the geometries respect the distance exactly
+                   closest = intersection;
+                   maxDistance = distance;
+               }
+           }
+       }
+       return closest;
+   }
+
+   /**
+    * Returns the union of the boxes of the geometries.
+    *
+    * @return the box, null if the collection is empty or has an infinite geometry
+    */
+   @Override
+   public BoundingBox getBoundingBox() {
+       BoundingBox box = null;
+       for (Intersectable intersectable : Geometry) {
+           BoundingBox geometryBox = intersectable.getBoundingBox();
+           if (geometryBox == null) return null;
+           box = box == null ? geometryBox : box.union(geometryBox);
+       }
+       return box;
+   }
+
 }
@@ -7,6 +7,8 @@ import java.util.List;
  * Defines a method for obtaining the normal vector to the surface at a given point.
  */
 public abstract class Geometry extends Intersectable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Returns the normal vector to the surface of the geometry at the given point.
      *
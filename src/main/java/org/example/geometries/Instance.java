@@ -0,0 +1,175 @@
+package org.example.geometries;
+
+import org.example.primitives.BoundingBox;
+import org.example.primitives.Color;
+import org.example.primitives.Material;
+import org.example.primitives.Point;
+import org.example.primitives.Ray;
+import org.example.primitives.Transform;
+import org.example.primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instance class places a shared object in the scene by an affine
+ * transformation, so an object repeated many times is stored once. The object
+ * is usually a {@link Bvh} over its own geometries, and a hierarchy over the
+ * instances above it makes a two level structure. A ray is transformed into
+ * the object space, and the intersections found there are transformed back.
+ * The geometry of an intersection is a view of the object geometry answering
+ * normals in the scene space. The transformation of an instance may change
+ * between the frames of an animation, the hierarchies above it are then
+ * refit by {@link Bvh#refit()}. Snapshots and scene files store the shared
+ * object once and each instance by its object and its matrix.
+ */
+public class Instance extends Intersectable {
+    private static final long serialVersionUID = 1L;
+
+    private final Intersectable object;
+    /**
+     * Transformation from the object space to the scene space
+     */
+    private Transform transform;
+    /**
+     * Transformation from the scene space to the object space
+     */
+    private Transform inverse;
+
+    /**
+     * Constructor of an instance of an object
+     *
+     * @param object    the shared object
+     * @param transform the transformation from the object space to the scene space
+     */
+    public Instance(Intersectable object, Transform transform) {
+        this.object = object;
+        this.transform = transform;
+        this.inverse = transform.inverse();
+    }
+
+    /**
+     * Getter of the shared object
+     *
+     * @return the object
+     */
+    public Intersectable getObject() {
+        return object;
+    }
+
+    /**
+     * Getter of the transformation of the instance
+     *
+     * @return the transformation from the object space to the scene space
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Moves the instance, such as for the next frame of an animation. The
+     * instance must not be searched while it moves.
+     *
+     * @param transform the transformation from the object space to the scene space
+     * @return this instance
+     */
+    public Instance setTransform(Transform transform) {
+        this.inverse = transform.inverse();
+        this.transform = transform;
+        return this;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = object.getBoundingBox();
+        return box == null ? null : transform.apply(box);
+    }
+
+    @Override
+    public boolean isBounded() {
+        return object.isBounded();
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        // the object space distances are the scene space ones times the length of the transformed direction
+        Vector direction = inverse.applyVector(ray.getDirection());
+        Ray local = new Ray(inverse.apply(ray.getHead()), direction);
+        List<GeoPoint> intersections = object.findGeoIntersectionsHelper(local, maxDistance * direction.length());
+        if (intersections == null) return null;
+        List<GeoPoint> result = new ArrayList<>(intersections.size());
+        for (GeoPoint intersection : intersections)
+            result.add(toScene(intersection));
+        return result;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Vector direction = inverse.applyVector(ray.getDirection());
+        Ray local = new Ray(inverse.apply(ray.getHead()), direction);
+        GeoPoint closest = object.findClosestGeoIntersectionHelper(local, maxDistance * direction.length());
+        return closest == null ? null : toScene(closest);
+    }
+
+    /**
+     * Transforms an intersection of the object to the scene space
+     *
+     * @param intersection the intersection in the object space
+     * @return the intersection in the scene space
+     */
+    private GeoPoint toScene(GeoPoint intersection) {
+        return new GeoPoint(new InstancedGeometry(intersection.geometry, transform, inverse),
+                transform.apply(intersection.point));
+    }
+
+    /**
+     * A geometry of the object seen through an instance: the material and the
+     * emission are those of the geometry, the normals are in the scene space
+     */
+    private static final class InstancedGeometry extends Geometry {
+        private static final long serialVersionUID = 1L;
+
+        private final Geometry geometry;
+        private final Transform transform;
+        private final Transform inverse;
+
+        /**
+         * Constructor of the view of a geometry
+         *
+         * @param geometry  the geometry of the object
+         * @param transform the transformation of the instance when the geometry was hit
+         * @param inverse   the inverse of the transformation
+         */
+        private InstancedGeometry(Geometry geometry, Transform transform, Transform inverse) {
+            this.geometry = geometry;
+            this.transform = transform;
+            this.inverse = inverse;
+        }
+
+        @Override
+        public Color getEmission() {
+            return geometry.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return geometry.getMaterial();
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            return transform.applyNormal(geometry.getNormal(inverse.apply(point)));
+        }
+
+        @Override
+        public BoundingBox getBoundingBox() {
+            BoundingBox box = geometry.getBoundingBox();
+            return box == null ? null : transform.apply(box);
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            return new Instance(geometry, transform).findGeoIntersectionsHelper(ray, maxDistance);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package org.example.geometries;
 
+import org.example.primitives.BoundingBox;
 import org.example.primitives.Point;
 import org.example.primitives.Ray;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * Intersectable interface is the basic interface for all geometries that can be intersected by a ray
  */
-public abstract class Intersectable {
+public abstract class Intersectable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * findIntersections function returns a list of intersection points of a ray with the geometry
      *
@@ -49,6 +53,49 @@ public abstract class Intersectable {
      */
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double distance);
 
+    /**
+     * findClosestGeoIntersection function returns the closest intersection point of a ray with the geometry
+     *
+     * @param ray the ray that intersects the geometry
+     * @return the closest intersection point, null if there is none
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersectionHelper(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * findClosestGeoIntersectionHelper function returns the closest intersection point of a ray with
+     * the geometry. Containers override it to skip the geometries behind a closer intersection.
+     *
+     * @param ray         the ray that intersects the geometry
+     * @param maxDistance the maximum distance from the ray head to the intersection point
+     * @return the closest intersection point, null if there is none
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        return intersections == null ? null : ray.findClosestGeoPoint(intersections);
+    }
+
+    /**
+     * getBoundingBox function returns the axis aligned box containing the geometry
+     *
+     * @return the bounding box, null if the geometry is infinite
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
+    /**
+     * isBounded function tells whether the geometry is finite. Acceleration
+     * structures index the finite geometries by their boxes and keep the
+     * infinite ones, such as planes and tubes, aside.
+     *
+     * @return true if the geometry has a bounding box
+     */
+    public boolean isBounded() {
+        return getBoundingBox() != null;
+    }
+
 
     /**
      * GeoPoint class is a helper class that holds a geometry and a point
@@ -0,0 +1,39 @@
+package org.example.geometries;
+
+/**
+ * Counter of the intersection tests of geometries. A render collecting
+ * statistics binds the counter of each of its threads to that thread while it
+ * traces, so the geometries count into the render that tests them and
+ * concurrent renders don't mix their counts.
+ */
+public abstract class IntersectionCounter {
+    private static final ThreadLocal<IntersectionCounter> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Counts an intersection test of a geometry
+     *
+     * @param geometry the tested geometry
+     */
+    public abstract void intersectionTest(Intersectable geometry);
+
+    /**
+     * Gets the counter bound to the current thread
+     *
+     * @return the counter, null when the thread doesn't collect statistics
+     */
+    public static IntersectionCounter current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds a counter to the current thread
+     *
+     * @param counter the counter, null to stop counting
+     * @return the counter bound before, to be bound back when done
+     */
+    public static IntersectionCounter bind(IntersectionCounter counter) {
+        IntersectionCounter previous = CURRENT.get();
+        CURRENT.set(counter);
+        return previous;
+    }
+}
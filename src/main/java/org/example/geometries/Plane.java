@@ -15,6 +15,8 @@ import static org.example.primitives.Util.isZero;
  * Implements the Geometry interface to provide a method for obtaining the normal vector to the plane at a given point.
  */
 public class Plane extends Geometry {
+    private static final long serialVersionUID = 1L;
+
     /**
      * A point on the plane.
      */
@@ -53,7 +55,8 @@ public class Plane extends Geometry {
     @Override
     public List<Point> findIntersections(Ray ray) {
         //if the ray starts at the plane
-        if (ray.getHead().equals(q)) {
+        Vector qp = q.subtractOrNull(ray.getHead());
+        if (qp == null) {
             return null;
         }
 
@@ -68,7 +71,7 @@ public class Plane extends Geometry {
             return null;
         }
 
-        double t1 = alignZero(normal.dotProduct(q.subtract(ray.getHead())) / t);
+        double t1 = alignZero(normal.dotProduct(qp) / t);
         //if the ray is in the opposite direction of the normal
         if (isZero(t1) || t1 < 0) {
             return null;
@@ -85,12 +88,8 @@ public class Plane extends Geometry {
         Vector dir = ray.getDirection();
         Point p0 = ray.getHead();
 
-        /* Ray on the plane */
-        if (q.equals(p0)) {
-            return null;
-        }
-
-        double nqp = normal.dotProduct(q.subtract(p0));
+        /* Ray on the plane, the head may be the reference point */
+        double nqp = normal.dotProduct(q, p0);
         /* Ray on the plane */
         if (isZero(nqp)) {
             return null;
@@ -116,6 +115,15 @@ public class Plane extends Geometry {
         }
         return null;
     }
+    /**
+     * Returns the point on the plane.
+     *
+     * @return The point on the plane.
+     */
+    public Point getPoint() {
+        return q;
+    }
+
     /**
      * Returns the normal vector to the plane.
      *
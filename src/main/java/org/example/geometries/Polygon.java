@@ -1,14 +1,16 @@
 package org.example.geometries;
 
 
+import org.example.primitives.BoundingBox;
 import org.example.primitives.Point;
 import org.example.primitives.Ray;
 import org.example.primitives.Vector;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
 
+import static org.example.primitives.Util.alignZero;
 import static org.example.primitives.Util.isZero;
 
 /**
@@ -18,10 +20,12 @@ import static org.example.primitives.Util.isZero;
  * @author Dan
  */
 public class Polygon extends Geometry {
+    private static final long serialVersionUID = 1L;
+
     /**
      * List of polygon's vertices
      */
-    protected final List<Point> vertices;
+    protected final ArrayList<Point> vertices;
     /**
      * Associated plane in which the polygon lays
      */
@@ -30,6 +34,17 @@ public class Polygon extends Geometry {
      * The size of the polygon - the amount of the vertices in the polygon
      */
     private final int size;
+    /**
+     * The unit normal of the plane and its offset, the dot product of the normal
+     * with any point of the plane
+     */
+    private final double nx, ny, nz, offset;
+    /**
+     * The planes through the edges orthogonal to the polygon, 4 values per edge:
+     * the unit normal pointing into the polygon and its offset. A point of the
+     * plane is inside the polygon when it is in front of all the edge planes.
+     */
+    private final double[] edges;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -56,16 +71,31 @@ public class Polygon extends Geometry {
     public Polygon(Point... vertices) {
         if (vertices.length < 3)
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
-        this.vertices = List.of(vertices);
+        this.vertices = new ArrayList<>(List.of(vertices));
         size = vertices.length;
 
         // Generate the plane according to the first three vertices and associate the
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
+        Vector n = plane.getNormal();
+        nx = n.getX();
+        ny = n.getY();
+        nz = n.getZ();
+        offset = nx * vertices[0].getX() + ny * vertices[0].getY() + nz * vertices[0].getZ();
+        // the first three vertices turn counterclockwise around the normal, so the
+        // normal crossed with an edge points into the convex polygon
+        edges = new double[4 * size];
+        for (int i = 0; i < size; ++i) {
+            Point from = vertices[i == 0 ? size - 1 : i - 1];
+            Vector inward = n.crossProduct(vertices[i].subtract(from)).normalize();
+            edges[4 * i] = inward.getX();
+            edges[4 * i + 1] = inward.getY();
+            edges[4 * i + 2] = inward.getZ();
+            edges[4 * i + 3] = inward.getX() * from.getX() + inward.getY() * from.getY() + inward.getZ() * from.getZ();
+        }
         if (size == 3) return; // no need for more tests for a Triangle
 
-        Vector n = plane.getNormal();
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector edge1 = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -91,77 +121,44 @@ public class Polygon extends Geometry {
         }
     }
 
-    @Override
-    public Vector getNormal(Point point) {
-        return plane.getNormal();
+    /**
+     * Returns the vertices of the polygon in their edge path order.
+     *
+     * @return The list of the vertices.
+     */
+    public List<Point> getVertices() {
+        return Collections.unmodifiableList(vertices);
     }
 
-    public List<Point> findIntersections(Ray ray) {
-        List<Point> intersections = plane.findIntersections(ray);
-        //if there are no intersections with the plane, there are no intersections with the polygon
-        if (intersections == null) {
-            return null;
-        }
-
-        Point checkPoint = intersections.get(0);
-        List<Vector> result = new ArrayList<>();
-        Point last = vertices.get(size - 1);
-        //we will use the method of ni=(pi-pi-1)x(pi-1-Pinter) to check if the point is inside the polygon
-        try {
-            for (Point p : vertices) {//we will add all of the vectors to the list
-                result.add(p.subtract(last).crossProduct(last.subtract(checkPoint)));
-                last = p;
-            }
-            Vector lastVec = result.getLast();
-            for (Vector v : result) {//we will check if the vectors are in the same direction
-                if (v.dotProduct(lastVec) <= 0) {
-                    return null;
-                }
-                lastVec = v;
-            }
-        }
-        //if the point is on the edge of the polygon
-        catch (IllegalArgumentException e) {
-            return null;
-        }
-        return intersections;
+    @Override
+    public BoundingBox getBoundingBox() {
+        return BoundingBox.of(vertices.toArray(new Point[0]));
+    }
 
+    @Override
+    public Vector getNormal(Point point) {
+        return plane.getNormal();
     }
-    //@Override
-    //protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray)
-    //{
-    //    return List.of();
-    //}
 
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double distance){
-        List<GeoPoint> intersections=plane.findGeoIntersections(ray, distance);
-        //if there are no intersections with the plane, there are no intersections with the polygon
-        if(intersections==null){
-            return null;
-        }
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double distance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double hx = head.getX(), hy = head.getY(), hz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
 
-        GeoPoint checkPoint=intersections.get(0);
-        List<Vector> result=new LinkedList<>();
-        Point last=vertices.get(size-1);
-        //we will use the method of ni=(pi-pi-1)x(pi-1-Pinter) to check if the point is inside the polygon
-        try{
-            for(Point p:vertices){//we will add all of the vectors to the list
-                result.add(p.subtract(last).crossProduct(last.subtract(checkPoint.point)));
-                last=p;
-            }
-            Vector lastVec=result.getLast();
-            for(Vector v:result){//we will check if the vectors are in the same direction
-                if(v.dotProduct(lastVec)<=0){
-                    return null;
-                }
-                lastVec=v;
-            }
-        }
-        //if the point is on the edge of the polygon
-        catch (IllegalArgumentException e){
-            return null;
-        }
-        return List.of(new GeoPoint(this,checkPoint.point));
+        // the ray must cross the plane of the polygon in front of its head and within the distance
+        double nv = nx * dx + ny * dy + nz * dz;
+        if (isZero(nv)) return null;
+        double nqp = offset - (nx * hx + ny * hy + nz * hz);
+        if (isZero(nqp)) return null;
+        double t = nqp / nv;
+        if (t < 0 || t > distance) return null;
+
+        // the point must be strictly inside every edge, a point on an edge misses
+        double px = hx + t * dx, py = hy + t * dy, pz = hz + t * dz;
+        for (int i = 0; i < edges.length; i += 4)
+            if (alignZero(edges[i] * px + edges[i + 1] * py + edges[i + 2] * pz - edges[i + 3]) <= 0) return null;
+        return List.of(new GeoPoint(this, ray.getHead(t)));
     }
 }
@@ -7,6 +7,8 @@ package org.example.geometries;
  * Implements the Geometry interface to provide a method for obtaining the normal vector.
  */
 public abstract class RadialGeometry extends Geometry {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The radius of the radial geometry.
      */
@@ -21,4 +23,13 @@ public abstract class RadialGeometry extends Geometry {
         this.radius = radius;
     }
 
+    /**
+     * Returns the radius of the radial geometry.
+     *
+     * @return The radius.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.example.geometries;
 
+import org.example.primitives.BoundingBox;
 import org.example.primitives.Point;
 import org.example.primitives.Ray;
 import org.example.primitives.Vector;
@@ -13,6 +14,8 @@ import static org.example.primitives.Util.alignZero;
  * Extends the RadialGeometry abstract class to inherit the radius attribute.
  */
 public class Sphere extends RadialGeometry {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The center point of the sphere.
      */
@@ -29,6 +32,21 @@ public class Sphere extends RadialGeometry {
         this.center = center;
     }
 
+    /**
+     * Returns the center point of the sphere.
+     *
+     * @return The center point.
+     */
+    public Point getCenter() {
+        return center;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
     /**
      * Returns the normal vector to the surface of the sphere at the given point.
      * For a sphere, this method always returns null since the normal is not well-defined.
@@ -42,17 +60,17 @@ public class Sphere extends RadialGeometry {
     }
 
     public List<Point> findIntersections(Ray ray) {
+        //check if there is intersection between them
+        Vector v = center.subtractOrNull(ray.getHead());
         // if the ray starts at the center of the sphere
-        if (ray.getHead().equals(center)) {
+        if (v == null) {
             return List.of(ray.getPoint(radius));
         }
-        //check if there is intersection between them
-        Vector v = center.subtract(ray.getHead());
 
         double tm = alignZero(ray.getDirection().dotProduct(v));
 
-        //check if the ray is tangent to the sphere
-        double d = alignZero(Math.sqrt(v.lengthSquared() - tm * tm));
+        //check if the ray is tangent to the sphere, a ray through the center may round below zero
+        double d = alignZero(Math.sqrt(Math.max(0, v.lengthSquared() - tm * tm)));
         if (d >= radius) return null;
         double th = alignZero(Math.sqrt(radius * radius - d * d));
         double t1 = alignZero(tm - th);
@@ -72,17 +90,17 @@ public class Sphere extends RadialGeometry {
 
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        //check if there is intersection between them
+        Vector v = center.subtractOrNull(ray.getHead());
         // if the ray starts at the center of the sphere
-        if (ray.getHead().equals(center)) {
+        if (v == null) {
             return alignZero(this.radius - maxDistance) > 0 ? null : List.of(new GeoPoint(this, ray.getPoint(this.radius)));
         }
-        //check if there is intersection between them
-        Vector v = center.subtract(ray.getHead());
 
         double tm = alignZero(ray.getDirection().dotProduct(v));
 
-        //check if the ray is tangent to the sphere
-        double d = alignZero(Math.sqrt(v.lengthSquared() - tm * tm));
+        //check if the ray is tangent to the sphere, a ray through the center may round below zero
+        double d = alignZero(Math.sqrt(Math.max(0, v.lengthSquared() - tm * tm)));
         if (d >= radius) return null;
         double th = alignZero(Math.sqrt(radius * radius - d * d));
         double t1 = alignZero(tm - th);
@@ -103,8 +121,6 @@ public class Sphere extends RadialGeometry {
                 return List.of(new GeoPoint(this, ray.getPoint(t1)), new GeoPoint(this, ray.getPoint(t2)));
             } else if (alignZero(maxDistance - t1) > 0) {
                 return List.of(new GeoPoint(this, ray.getPoint(t1)));
-            } else {
-                return List.of(new GeoPoint(this, ray.getPoint(t2)));
             }
         }
 
@@ -9,10 +9,16 @@ import static org.example.primitives.Util.*;
  * Extends the RadialGeometry abstract class to inherit the radius attribute.
  */
    public class Tube extends RadialGeometry {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The axis ray of the tube.
      */
     protected final Ray axis;
+    /**
+     * The head and the unit direction of the axis, for the intersection arithmetic.
+     */
+    private final double ax, ay, az, vx, vy, vz;
 
     /**
      * Constructs a tube with the given axis ray and radius.
@@ -23,6 +29,23 @@ import static org.example.primitives.Util.*;
     public Tube(Ray axis, double radius) {
         super(radius);
         this.axis = axis;
+        Point head = axis.getHead();
+        Vector direction = axis.getDirection();
+        ax = head.getX();
+        ay = head.getY();
+        az = head.getZ();
+        vx = direction.getX();
+        vy = direction.getY();
+        vz = direction.getZ();
+    }
+
+    /**
+     * Returns the axis ray of the tube.
+     *
+     * @return The axis ray.
+     */
+    public Ray getAxis() {
+        return axis;
     }
 
     /**
@@ -84,88 +107,79 @@ import static org.example.primitives.Util.*;
      */
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        Vector rayDirection = ray.getDirection();
-        Vector v0 = axis.getDirection();
-        double temp1DotTemp2 = 0;
-        double squaredTemp2 = 0;
-        Vector temp1 = rayDirection;
-        double vv0 = rayDirection.dotProduct(v0);
-
-        if (!isZero(vv0)) {
-            Vector v0vv0 = v0.scale(vv0);
-            if (rayDirection.equals(v0vv0)) {
-                return null;
-            }
-            temp1 = rayDirection.subtract(v0vv0);
-        }
-        /* Calculating temp2 = dp - v0 * (dp,v0) where dp = p0 - p */
-
-        if (!ray.getHead().equals(axis.getHead())) {
-            Vector dp = ray.getHead().subtract(axis.getHead());
-            Vector temp2 = dp;
-            double dpv0 = dp.dotProduct(v0);
-            if (isZero(dpv0)) {
-                temp1DotTemp2 = temp1.dotProduct(temp2);
-                squaredTemp2 = temp2.lengthSquared();
-            } else {
-                Vector v0dpv0 = v0.scale(dpv0);
-                if (!dp.equals(v0dpv0)) {
-                    temp2 = dp.subtract(v0dpv0);
-                    temp1DotTemp2 = temp1.dotProduct(temp2);
-                    squaredTemp2 = temp2.lengthSquared();
-                }
-            }
-        }
+        return intersect(ray, maxDistance, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false);
+    }
 
-        /* ------Getting the quadratic equation: at^2 +bt + c = 0-------- */
-        double a = temp1.lengthSquared();
-        double b = 2 * temp1DotTemp2;
-        double c = alignZero(squaredTemp2 - radius * radius);
-        double squaredDelta = alignZero(b * b - 4 * a * c);
-        if (squaredDelta <= 0) {
-            return null;
-        }
-        double delta = Math.sqrt(squaredDelta);
-        double t1 = alignZero((-b + delta) / (2 * a));
-        double t2 = alignZero((-b - delta) / (2 * a));
-        double distance1;
-        double distance2;
-        Point point1;
-        Point point2;
-        if (t1 > 0 && t2 > 0) {
-            point1 = ray.getHead(t1);
-            distance1 = ray.getHead().distance(point1);
-            point2 = ray.getHead(t2);
-            distance2 = ray.getHead().distance(point2);
-
-            if (distance1 <= maxDistance && distance2 <= maxDistance) {
-                return List.of(new GeoPoint(this, point1), new GeoPoint(this, point2));
-            } else if (distance1 <= maxDistance) {
-                return List.of(new GeoPoint(this, point1));
-            } else if (distance2 <= maxDistance) {
-                return List.of(new GeoPoint(this, point2));
-            } else {
-                return null;
-            }
-        }
-        if (t1 > 0) {
-            point1 = ray.getHead(t1);
-            distance1 = ray.getHead().distance(point1);
-            if (distance1 <= maxDistance) {
-                return List.of(new GeoPoint(this, point1));
-            }
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections =
+                intersect(ray, maxDistance, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true);
+        return intersections == null ? null : intersections.getFirst();
+    }
+
+    /**
+     * Intersects a ray with the solid tube clipped between two axial coordinates,
+     * in primitive arithmetic: the quadratic of the tube gives the part of the ray
+     * line inside the tube, the axial coordinate along the ray clips it between
+     * the caps, and the ends of the remaining part are the intersections. A miss
+     * allocates nothing.
+     *
+     * @param ray         The ray to intersect with the tube.
+     * @param maxDistance The maximum distance to look for intersections.
+     * @param bottom      The axial coordinate of the bottom cap, may be negative infinity.
+     * @param top         The axial coordinate of the top cap, may be positive infinity.
+     * @param nearest     True to find only the closest intersection.
+     * @return The intersection points ordered by distance, or null if there are none.
+     */
+    protected List<GeoPoint> intersect(Ray ray, double maxDistance, double bottom, double top, boolean nearest) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        double ox = head.getX() - ax, oy = head.getY() - ay, oz = head.getZ() - az;
+        // the axial coordinates of the ray head and its direction, and their parts orthogonal to the axis
+        double dv = dx * vx + dy * vy + dz * vz;
+        double ov = ox * vx + oy * vy + oz * vz;
+        double px = dx - vx * dv, py = dy - vy * dv, pz = dz - vz * dv;
+        double qx = ox - vx * ov, qy = oy - vy * ov, qz = oz - vz * ov;
+
+        /* ------The quadratic equation: at^2 +bt + c = 0-------- */
+        double a = px * px + py * py + pz * pz;
+        double b = 2 * (px * qx + py * qy + pz * qz);
+        double c = qx * qx + qy * qy + qz * qz - radius * radius;
+        double enter, exit;
+        if (isZero(a)) {
+            // the ray is parallel to the axis, inside the tube along all its line or outside
+            if (alignZero(c) >= 0) return null;
+            enter = Double.NEGATIVE_INFINITY;
+            exit = Double.POSITIVE_INFINITY;
+        } else {
+            double squaredDelta = alignZero(b * b - 4 * a * c);
+            if (squaredDelta <= 0) return null;
+            double delta = Math.sqrt(squaredDelta);
+            enter = (-b - delta) / (2 * a);
+            exit = (-b + delta) / (2 * a);
         }
-        if (t2 > 0) {
-            point2 = ray.getHead(t2);
-            distance2 = ray.getHead().distance(point2);
-            if (distance2 <= maxDistance) {
-                return List.of(new GeoPoint(this, point2));
-            }
+
+        /* Clipping between the caps by the axial coordinate ov + t * dv */
+        if (isZero(dv)) {
+            if (alignZero(ov - bottom) <= 0 || alignZero(top - ov) <= 0) return null;
+        } else {
+            double tBottom = (bottom - ov) / dv, tTop = (top - ov) / dv;
+            enter = Math.max(enter, Math.min(tBottom, tTop));
+            exit = Math.min(exit, Math.max(tBottom, tTop));
         }
+        if (alignZero(exit - enter) <= 0) return null;
+
+        // an infinite end, along the axis of an open tube, is no intersection
+        boolean enters = alignZero(enter) > 0 && enter <= maxDistance && Double.isFinite(enter);
+        boolean exits = alignZero(exit) > 0 && exit <= maxDistance && Double.isFinite(exit);
+        if (enters && exits && !nearest)
+            return List.of(new GeoPoint(this, ray.getPoint(enter)), new GeoPoint(this, ray.getPoint(exit)));
+        if (enters) return List.of(new GeoPoint(this, ray.getPoint(enter)));
+        if (exits) return List.of(new GeoPoint(this, ray.getPoint(exit)));
         return null;
     }
 
-
    // @Override
    // public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
    //     return findGeoIntersectionsHelper(ray, Double.POSITIVE_INFINITY);
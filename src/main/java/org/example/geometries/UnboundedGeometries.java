@@ -0,0 +1,153 @@
+package org.example.geometries;
+
+import org.example.geometries.Intersectable.GeoPoint;
+import org.example.primitives.BoundingBox;
+import org.example.primitives.Ray;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The infinite geometries of an acceleration structure, such as planes and
+ * tubes, which no box holds and every ray tests. An optional clip box, the
+ * finite extent of the scene, limits them: a ray missing the box tests none
+ * of them, and their intersections outside the box are dropped.
+ */
+final class UnboundedGeometries implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Relative widening of the clipped part of a ray, so a plane lying on a face
+     * of the clip box is not lost to rounding
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    private final Intersectable[] geometries;
+    private BoundingBox clipBox = null;
+
+    /**
+     * Constructor of the infinite geometries of a structure
+     *
+     * @param geometries the infinite geometries
+     */
+    UnboundedGeometries(Intersectable[] geometries) {
+        this.geometries = geometries;
+    }
+
+    /**
+     * Getter of the infinite geometries
+     *
+     * @return the geometries, not to be changed
+     */
+    Intersectable[] getGeometries() {
+        return geometries;
+    }
+
+    /**
+     * Getter of the clip box
+     *
+     * @return the box, null if the geometries are not clipped
+     */
+    BoundingBox getClipBox() {
+        return clipBox;
+    }
+
+    /**
+     * Setter of the clip box
+     *
+     * @param clipBox the box, null not to clip the geometries
+     */
+    void setClipBox(BoundingBox clipBox) {
+        this.clipBox = clipBox;
+    }
+
+    /**
+     * Collects the intersections of a ray with the geometries
+     *
+     * @param ray           the ray
+     * @param maxDistance   the maximum distance from the ray head
+     * @param intersections list collecting the intersections
+     * @param counters      the intersection counter of the thread, null when not collecting
+     */
+    void collect(Ray ray, double maxDistance, List<GeoPoint> intersections, IntersectionCounter counters) {
+        if (geometries.length == 0) return;
+        double[] span = span(ray, maxDistance);
+        if (span == null) return;
+        for (Intersectable geometry : geometries) {
+            if (counters != null && geometry instanceof Geometry) counters.intersectionTest(geometry);
+            List<GeoPoint> found = geometry.findGeoIntersectionsHelper(ray, span[1]);
+            if (found == null) continue;
+            for (GeoPoint intersection : found)
+                if (clipBox == null || inside(ray, intersection, span)) intersections.add(intersection);
+        }
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the geometries
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @param counters    the intersection counter of the thread, null when not collecting
+     * @return the closest intersection closer than the maximum distance, null if there is none
+     */
+    GeoPoint closest(Ray ray, double maxDistance, IntersectionCounter counters) {
+        if (geometries.length == 0) return null;
+        double[] span = span(ray, maxDistance);
+        if (span == null) return null;
+        GeoPoint closest = null;
+        double limit = span[1];
+        for (Intersectable geometry : geometries) {
+            if (counters != null && geometry instanceof Geometry) counters.intersectionTest(geometry);
+            if (clipBox == null) {
+                GeoPoint intersection = geometry.findClosestGeoIntersectionHelper(ray, limit);
+                if (intersection == null) continue;
+                double distance = intersection.point.distance(ray.getHead());
+                if (distance < limit) {
+                    closest = intersection;
+                    limit = distance;
+                }
+                continue;
+            }
+            // the closest intersection may be before the box, so all of them are checked
+            List<GeoPoint> found = geometry.findGeoIntersectionsHelper(ray, limit);
+            if (found == null) continue;
+            for (GeoPoint intersection : found) {
+                double distance = intersection.point.distance(ray.getHead());
+                if (distance < limit && distance >= span[0]) {
+                    closest = intersection;
+                    limit = distance;
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the part of a ray the geometries are intersected in
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @return the distances the part starts and ends at, null if the ray misses the clip box
+     */
+    private double[] span(Ray ray, double maxDistance) {
+        if (clipBox == null) return new double[]{0, maxDistance};
+        double[] span = clipBox.clip(ray, maxDistance);
+        if (span == null) return null;
+        span[0] -= span[0] * TOLERANCE;
+        span[1] = Math.min(maxDistance, span[1] + span[1] * TOLERANCE);
+        return span;
+    }
+
+    /**
+     * Checks whether an intersection is in the clipped part of a ray
+     *
+     * @param ray          the ray
+     * @param intersection the intersection
+     * @param span         the clipped part of the ray
+     * @return true if the intersection is between the ends of the part
+     */
+    private static boolean inside(Ray ray, GeoPoint intersection, double[] span) {
+        double distance = intersection.point.distance(ray.getHead());
+        return distance >= span[0] && distance <= span[1];
+    }
+}
@@ -0,0 +1,379 @@
+package org.example.geometries;
+
+import org.example.primitives.BoundingBox;
+import org.example.primitives.Point;
+import org.example.primitives.Ray;
+import org.example.primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * UniformGrid class is a collection of geometries indexed by a uniform grid of
+ * cells over their bounds, an alternative to {@link Geometries} for scenes of
+ * many similar sized geometries. A ray visits only the cells it passes, walked
+ * in order by 3D-DDA, and tests only the geometries overlapping them. A geometry
+ * spanning several cells is referenced by each of them and is tested once per
+ * ray thanks to a small mailbox of the ray. The resolution is chosen from the amount
+ * of geometries and the shape of their bounds, and the grid is built in linear
+ * time. Infinite geometries are kept aside and tested by every ray,
+ * optionally only within a clip box.
+ */
+public class UniformGrid extends Intersectable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Average amount of geometries per cell the resolution aims for, inverted
+     */
+    private static final double DENSITY = 3;
+    /**
+     * Maximal amount of cells along an axis
+     */
+    private static final int MAX_RESOLUTION = 256;
+
+    private final Intersectable[] geometries;
+    private final UnboundedGeometries unbounded;
+    private final BoundingBox bounds;
+    private final int[] resolution = new int[3];
+    private final double[] min = new double[3];
+    private final double[] cellSize = new double[3];
+    /**
+     * Start of the geometry references of each cell in {@link #references}, with
+     * an extra entry for the end of the last cell
+     */
+    private final int[] cellStart;
+    /**
+     * Indices of the geometries in {@link #geometries} referenced by the cells, cell by cell
+     */
+    private final int[] references;
+
+    /**
+     * Marks of the geometries already tested by a ray: an open addressing set of
+     * their indices, sized by the geometries the ray tests rather than by the
+     * geometries of the grid
+     */
+    private static final class Mailbox {
+        /**
+         * Initial amount of slots, a power of two
+         */
+        private static final int INITIAL_SIZE = 16;
+        /**
+         * Indices of the marked geometries plus one, 0 for a free slot
+         */
+        private int[] slots = new int[INITIAL_SIZE];
+        private int size = 0;
+
+        /**
+         * Marks a geometry as tested by the ray
+         *
+         * @param index the index of the geometry
+         * @return true if the geometry was not tested by the ray yet
+         */
+        private boolean mark(int index) {
+            int key = index + 1;
+            int mask = slots.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (slots[slot] == key) return false;
+                if (slots[slot] == 0) {
+                    slots[slot] = key;
+                    if (2 * ++size > slots.length) grow();
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Doubles the slots, keeping the set at most half full
+         */
+        private void grow() {
+            int[] old = slots;
+            slots = new int[2 * old.length];
+            int mask = slots.length - 1;
+            for (int key : old) {
+                if (key == 0) continue;
+                int slot = hash(key) & mask;
+                while (slots[slot] != 0) slot = (slot + 1) & mask;
+                slots[slot] = key;
+            }
+        }
+
+        /**
+         * Spreads the bits of a key over the low bits of the slot index
+         *
+         * @param key the key
+         * @return the hash of the key
+         */
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Constructor that builds the grid over one or more geometries.
+     *
+     * @param geometries the geometries of the grid
+     */
+    public UniformGrid(Intersectable... geometries) {
+        AccelerationBuildEvent event = new AccelerationBuildEvent("UniformGrid");
+        event.begin();
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> infinite = new ArrayList<>();
+        List<BoundingBox> boxes = new ArrayList<>();
+        BoundingBox union = null;
+        for (Intersectable geometry : geometries) {
+            if (!geometry.isBounded()) {
+                infinite.add(geometry);
+                continue;
+            }
+            BoundingBox box = geometry.getBoundingBox();
+            bounded.add(geometry);
+            boxes.add(box);
+            union = union == null ? box : union.union(box);
+        }
+        this.geometries = bounded.toArray(new Intersectable[0]);
+        this.unbounded = new UnboundedGeometries(infinite.toArray(new Intersectable[0]));
+        this.bounds = union;
+        if (union == null) {
+            cellStart = new int[]{0, 0};
+            references = new int[0];
+            event.commit(0, 0);
+            return;
+        }
+
+        // the resolution keeps the cells about cubic with DENSITY geometries per cell on the average,
+        // a flat extent is padded so the cells never get a zero size
+        double[] extent = new double[3];
+        double maxExtent = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            extent[axis] = union.max(axis) - union.min(axis);
+            maxExtent = Math.max(maxExtent, extent[axis]);
+        }
+        double padding = maxExtent == 0 ? 1 : maxExtent * 1e-3;
+        double volume = 1;
+        for (int axis = 0; axis < 3; axis++) {
+            extent[axis] = Math.max(extent[axis], padding);
+            volume *= extent[axis];
+        }
+        double cellsPerUnit = Math.cbrt(DENSITY * this.geometries.length / volume);
+        int cells = 1;
+        for (int axis = 0; axis < 3; axis++) {
+            resolution[axis] = (int) Math.max(1, Math.min(MAX_RESOLUTION, Math.round(extent[axis] * cellsPerUnit)));
+            cells *= resolution[axis];
+            min[axis] = union.min(axis) - (extent[axis] - (union.max(axis) - union.min(axis))) / 2;
+            cellSize[axis] = extent[axis] / resolution[axis];
+        }
+
+        // counting sort of the references by cell: count, prefix sum, fill
+        cellStart = new int[cells + 1];
+        int[][] ranges = new int[this.geometries.length][];
+        for (int i = 0; i < this.geometries.length; i++) {
+            ranges[i] = cellRange(boxes.get(i));
+            forEachCell(ranges[i], cell -> ++cellStart[cell + 1]);
+        }
+        for (int cell = 0; cell < cells; cell++)
+            cellStart[cell + 1] += cellStart[cell];
+        references = new int[cellStart[cells]];
+        int[] next = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < this.geometries.length; i++) {
+            final int geometry = i;
+            forEachCell(ranges[i], cell -> references[next[cell]++] = geometry);
+        }
+        event.commit(this.geometries.length, cells);
+    }
+
+    /**
+     * Returns the geometries of the grid, the infinite ones last.
+     *
+     * @return an unmodifiable list of the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        List<Intersectable> all = new ArrayList<>(Arrays.asList(geometries));
+        all.addAll(Arrays.asList(unbounded.getGeometries()));
+        return Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Returns the amount of cells along each axis.
+     *
+     * @return the X, Y and Z resolution, zeros for a grid without finite geometries
+     */
+    public int[] getResolution() {
+        return resolution.clone();
+    }
+
+    /**
+     * Clips the infinite geometries by the finite extent of the scene: a ray
+     * missing the box does not test them, and their intersections outside of it
+     * are ignored, such as a floor plane beyond the walls of a room. Geometries
+     * seen through the box, such as a horizon, must not be clipped.
+     *
+     * @param clipBox the extent of the scene, null not to clip the infinite geometries
+     * @return this grid
+     */
+    public UniformGrid setClipBox(BoundingBox clipBox) {
+        unbounded.setClipBox(clipBox);
+        return this;
+    }
+
+    /**
+     * Returns the box clipping the infinite geometries.
+     *
+     * @return the box, null if the infinite geometries are not clipped
+     */
+    public BoundingBox getClipBox() {
+        return unbounded.getClipBox();
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return unbounded.getGeometries().length == 0 ? bounds : null;
+    }
+
+    @Override
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> result = new ArrayList<>();
+        IntersectionCounter counters = IntersectionCounter.current();
+        unbounded.collect(ray, maxDistance, result, counters);
+        walk(ray, maxDistance, result, counters);
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        IntersectionCounter counters = IntersectionCounter.current();
+        GeoPoint closest = unbounded.closest(ray, maxDistance, counters);
+        if (closest != null) maxDistance = closest.point.distance(ray.getHead());
+        GeoPoint inGrid = walk(ray, maxDistance, null, counters);
+        return inGrid != null ? inGrid : closest;
+    }
+
+    /**
+     * Walks the cells along a ray by 3D-DDA, testing each geometry of the passed
+     * cells once. Collecting all the intersections walks up to the maximum
+     * distance, finding the closest one stops at the first cell that ends behind
+     * the closest intersection found so far.
+     *
+     * @param ray           the ray
+     * @param maxDistance   the maximum distance from the ray head
+     * @param intersections list collecting all the intersections, null to find the closest one
+     * @param counters      the intersection counter of the thread, null when not collecting
+     * @return the closest intersection closer than the maximum distance, null if
+     * there is none or all the intersections are collected
+     */
+    private GeoPoint walk(Ray ray, double maxDistance, List<GeoPoint> intersections, IntersectionCounter counters) {
+        if (bounds == null) return null;
+        double[] span = bounds.clip(ray, maxDistance);
+        if (span == null) return null;
+        double enter = span[0], exit = span[1];
+
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double[] origin = {head.getX(), head.getY(), head.getZ()};
+        double[] dir = {direction.getX(), direction.getY(), direction.getZ()};
+        int[] cell = new int[3], step = new int[3], out = new int[3];
+        double[] next = new double[3], delta = new double[3];
+        for (int axis = 0; axis < 3; axis++) {
+            double position = origin[axis] + dir[axis] * enter - min[axis];
+            cell[axis] = Math.max(0, Math.min(resolution[axis] - 1, (int) Math.floor(position / cellSize[axis])));
+            if (dir[axis] > 0) {
+                step[axis] = 1;
+                out[axis] = resolution[axis];
+                next[axis] = enter + ((cell[axis] + 1) * cellSize[axis] - position) / dir[axis];
+                delta[axis] = cellSize[axis] / dir[axis];
+            } else if (dir[axis] < 0) {
+                step[axis] = -1;
+                out[axis] = -1;
+                next[axis] = enter + (cell[axis] * cellSize[axis] - position) / dir[axis];
+                delta[axis] = -cellSize[axis] / dir[axis];
+            } else {
+                out[axis] = -1;
+                next[axis] = Double.POSITIVE_INFINITY;
+                delta[axis] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        Mailbox mailbox = new Mailbox();
+        GeoPoint closest = null;
+        double limit = maxDistance;
+        while (true) {
+            int index = (cell[2] * resolution[1] + cell[1]) * resolution[0] + cell[0];
+            for (int i = cellStart[index]; i < cellStart[index + 1]; i++) {
+                int geometry = references[i];
+                if (!mailbox.mark(geometry)) continue;
+                Intersectable tested = geometries[geometry];
+                if (counters != null && tested instanceof Geometry) counters.intersectionTest(tested);
+                if (intersections != null) {
+                    List<GeoPoint> found = tested.findGeoIntersectionsHelper(ray, maxDistance);
+                    if (found != null) intersections.addAll(found);
+                } else {
+                    GeoPoint found = tested.findClosestGeoIntersectionHelper(ray, limit);
+                    if (found != null) {
+                        double distance = found.point.distance(head);
+                        if (distance < limit) {
+                            closest = found;
+                            limit = distance;
+                        }
+                    }
+                }
+            }
+
+            int axis = next[0] < next[1] ? (next[0] < next[2] ? 0 : 2) : (next[1] < next[2] ? 1 : 2);
+            if (closest != null && limit <= next[axis]) return closest;
+            if (next[axis] > exit) return closest;
+            cell[axis] += step[axis];
+            if (cell[axis] == out[axis]) return closest;
+            next[axis] += delta[axis];
+        }
+    }
+
+    /**
+     * Finds the cells overlapped by a box
+     *
+     * @param box the box
+     * @return the first and last cell along X, Y and Z
+     */
+    private int[] cellRange(BoundingBox box) {
+        int[] range = new int[6];
+        for (int axis = 0; axis < 3; axis++) {
+            range[axis] = cellIndex(box.min(axis), axis);
+            range[axis + 3] = cellIndex(box.max(axis), axis);
+        }
+        return range;
+    }
+
+    /**
+     * Finds the cell of a coordinate along an axis
+     *
+     * @param coordinate the coordinate
+     * @param axis       the axis
+     * @return the index of the cell, clamped into the grid
+     */
+    private int cellIndex(double coordinate, int axis) {
+        int index = (int) Math.floor((coordinate - min[axis]) / cellSize[axis]);
+        return Math.max(0, Math.min(resolution[axis] - 1, index));
+    }
+
+    /**
+     * A receiver of cell indices
+     */
+    @FunctionalInterface
+    private interface CellAction {
+        void accept(int cell);
+    }
+
+    /**
+     * Performs an action on every cell of a range
+     *
+     * @param range  the first and last cell along X, Y and Z
+     * @param action the action
+     */
+    private void forEachCell(int[] range, CellAction action) {
+        for (int z = range[2]; z <= range[5]; z++)
+            for (int y = range[1]; y <= range[4]; y++)
+                for (int x = range[0]; x <= range[3]; x++)
+                    action.accept((z * resolution[1] + y) * resolution[0] + x);
+    }
+}
@@ -9,6 +9,8 @@ import org.example.primitives.Double3;
  * based on the original intensity and an attenuation coefficient.
  */
 public class AmbientLight extends Light {
+    private static final long serialVersionUID = 1L;
+
     /**
      * A static final instance representing no ambient light (intensity is black, attenuation is zero).
      */
@@ -0,0 +1,152 @@
+package org.example.lighting;
+
+import org.example.primitives.Color;
+import org.example.primitives.Point;
+import org.example.primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.primitives.Util.isZero;
+
+/**
+ * The AreaLight class represents a light source with a surface. The light
+ * attenuates like a point light from its center, while shadows are computed by
+ * a grid of shadow rays towards sample points spread over the light surface.
+ * The grid is ordered row by row so it may be adaptively subdivided starting
+ * from its corners.
+ */
+public abstract class AreaLight extends PointLight {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * First unit direction on the light surface
+     */
+    protected final Vector u;
+    /**
+     * Second unit direction on the light surface, orthogonal to u
+     */
+    protected final Vector v;
+
+    private int gridSize = 8;
+    private int adaptiveDepth = 3;
+    private transient List<Point> samplePoints; // built on first use, also after deserialization
+
+    /**
+     * Constructor for AreaLight class.
+     *
+     * @param intensity The intensity of the light.
+     * @param center    The center of the light surface.
+     * @param u         First direction on the light surface.
+     * @param v         Second direction on the light surface.
+     * @throws IllegalArgumentException if the directions are not orthogonal.
+     */
+    protected AreaLight(Color intensity, Point center, Vector u, Vector v) {
+        super(intensity, center);
+        if (!isZero(u.dotProduct(v))) {
+            throw new IllegalArgumentException("Area light directions must be orthogonal");
+        }
+        this.u = u.normalize();
+        this.v = v.normalize();
+    }
+
+    /**
+     * Maps a point of the square [-1,1]x[-1,1] onto the light surface
+     *
+     * @param x The first coordinate in the square.
+     * @param y The second coordinate in the square.
+     * @return The matching point on the light surface.
+     */
+    protected abstract Point samplePoint(double x, double y);
+
+    // ***************** Setters (builder pattern) ********************** //
+
+    /**
+     * Sets the number of shadow ray samples per side of the sample grid.
+     *
+     * @param gridSize The number of samples per side.
+     * @return This AreaLight object.
+     */
+    public AreaLight setGridSize(int gridSize) {
+        if (gridSize < 1) {
+            throw new IllegalArgumentException("Grid size must be positive");
+        }
+        this.gridSize = gridSize;
+        this.samplePoints = null;
+        return this;
+    }
+
+    /**
+     * Sets the adaptive subdivision depth of the sample grid. Depth 1 means all
+     * the samples are always traced.
+     *
+     * @param adaptiveDepth The maximal subdivision depth.
+     * @return This AreaLight object.
+     */
+    public AreaLight setAdaptiveDepth(int adaptiveDepth) {
+        if (adaptiveDepth < 1) {
+            throw new IllegalArgumentException("Adaptive depth must be positive");
+        }
+        this.adaptiveDepth = adaptiveDepth;
+        return this;
+    }
+
+    // ***************** Getters ********************** //
+
+    /**
+     * Gets the first unit direction on the light surface.
+     *
+     * @return The u direction.
+     */
+    public Vector getU() {
+        return u;
+    }
+
+    /**
+     * Gets the second unit direction on the light surface.
+     *
+     * @return The v direction.
+     */
+    public Vector getV() {
+        return v;
+    }
+
+    /**
+     * Gets the number of samples per side of the sample grid.
+     *
+     * @return The grid size.
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Gets the adaptive subdivision depth of the sample grid.
+     *
+     * @return The adaptive depth.
+     */
+    public int getAdaptiveDepth() {
+        return adaptiveDepth;
+    }
+
+    /**
+     * Gets the sample points of the light surface, gridSize x gridSize points
+     * ordered row by row.
+     *
+     * @return The list of the sample points.
+     */
+    public List<Point> getSamplePoints() {
+        List<Point> points = samplePoints;
+        if (points == null) {
+            points = new ArrayList<>(gridSize * gridSize);
+            for (int row = 0; row < gridSize; ++row) {
+                double y = -1 + (2 * row + 1) / (double) gridSize;
+                for (int column = 0; column < gridSize; ++column) {
+                    points.add(samplePoint(-1 + (2 * column + 1) / (double) gridSize, y));
+                }
+            }
+            samplePoints = points = List.copyOf(points);
+        }
+        return points;
+    }
+}
@@ -9,6 +9,7 @@ import org.example.primitives.Vector;
  */
 public class DirectionalLight extends Light implements LightSource
 {
+    private static final long serialVersionUID = 1L;
 
     private Vector direction;
 
@@ -29,6 +30,15 @@ public class DirectionalLight extends Light implements LightSource
      * @param p the point at which to calculate the intensity
      * @return the intensity of the light
      */
+    /**
+     * Getter of the light direction
+     *
+     * @return the unit direction of the light
+     */
+    public Vector getDirection() {
+        return direction;
+    }
+
     @Override
     public Color getIntensity(Point p) {
         return this.intensity;
@@ -0,0 +1,88 @@
+package org.example.lighting;
+
+import org.example.primitives.Color;
+import org.example.primitives.Point;
+import org.example.primitives.Vector;
+
+import static org.example.primitives.Util.isZero;
+
+/**
+ * The DiskLight class represents a round area light source.
+ */
+public class DiskLight extends AreaLight {
+    private static final long serialVersionUID = 1L;
+
+    private final double radius;
+
+    /**
+     * Constructs a disk light with the specified intensity, center, normal and
+     * radius.
+     *
+     * @param intensity The intensity of the light.
+     * @param center    The center of the disk.
+     * @param normal    The normal to the disk surface.
+     * @param radius    The radius of the disk.
+     */
+    public DiskLight(Color intensity, Point center, Vector normal, double radius) {
+        this(intensity, center, normal.normalize(), radius, normal.orthogonal());
+    }
+
+    /**
+     * Helper constructor receiving the first surface direction already calculated
+     */
+    private DiskLight(Color intensity, Point center, Vector normal, double radius, Vector u) {
+        super(intensity, center, u, normal.crossProduct(u));
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Disk light radius must be positive");
+        }
+        this.radius = radius;
+    }
+
+    /**
+     * Gets the radius of the disk.
+     *
+     * @return The radius.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Gets the normal to the disk surface.
+     *
+     * @return The unit normal.
+     */
+    public Vector getNormal() {
+        return u.crossProduct(v);
+    }
+
+    /**
+     * Maps the square onto the disk by the concentric mapping, which keeps
+     * neighbouring grid cells adjacent on the disk
+     */
+    @Override
+    protected Point samplePoint(double x, double y) {
+        if (isZero(x) && isZero(y)) {
+            return position;
+        }
+        double r;
+        double phi;
+        if (Math.abs(x) > Math.abs(y)) {
+            r = x;
+            phi = Math.PI / 4 * (y / x);
+        } else {
+            r = y;
+            phi = Math.PI / 2 - Math.PI / 4 * (x / y);
+        }
+        double dx = r * radius * Math.cos(phi);
+        double dy = r * radius * Math.sin(phi);
+        Point p = position;
+        if (!isZero(dx)) {
+            p = p.add(u.scale(dx));
+        }
+        if (!isZero(dy)) {
+            p = p.add(v.scale(dy));
+        }
+        return p;
+    }
+}
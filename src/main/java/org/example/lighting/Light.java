@@ -2,13 +2,17 @@ package org.example.lighting;
 
 import org.example.primitives.Color;
 
+import java.io.Serializable;
+
 /**
  * abstract class implement the light and intensity light
  *
  *  @author Shira and Yael
  */
-abstract class Light
+abstract class Light implements Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The light intensity
      */
@@ -36,4 +36,25 @@ public interface LightSource {
      * @return The distance from the light source to the point.
      */
     double getDistance(Point point);
+
+    /**
+     * Gets the radius around the light source beyond which its contribution is
+     * negligible and the light may be ignored
+     *
+     * @return the influence radius, positive infinity for a light without range limit
+     */
+    default double getInfluenceRadius() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks whether a point lays within the influence radius of the light source,
+     * i.e. whether the light should be considered at all when shading the point
+     *
+     * @param point the point to check
+     * @return true if the light may contribute to the point, false otherwise
+     */
+    default boolean isInRange(Point point) {
+        return true;
+    }
 }
\ No newline at end of file
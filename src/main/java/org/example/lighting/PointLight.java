@@ -8,14 +8,19 @@ import org.example.primitives.Vector;
  * The PointLight class represents a point light source in space.
  */
 public class PointLight extends Light implements LightSource {
+    private static final long serialVersionUID = 1L;
 
-    private final Point position;
+    protected final Point position;
     private double narrowBeam = 1;
 
     private double kc = 1;
     private double kl = 0;
     private double kq = 0;
 
+    private double intensityThreshold = 0;
+    private double influenceRadius = Double.POSITIVE_INFINITY;
+    private double influenceRadiusSquared = Double.POSITIVE_INFINITY;
+
     /**
      * Constructor for PointLight class.
      *
@@ -54,6 +59,7 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setKc(double kc) {
         this.kc = kc;
+        updateInfluenceRadius();
         return this;
     }
 
@@ -65,6 +71,7 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setKl(double kl) {
         this.kl = kl;
+        updateInfluenceRadius();
         return this;
     }
 
@@ -76,6 +83,7 @@ public class PointLight extends Light implements LightSource {
      */
     public PointLight setKq(double kq) {
         this.kq = kq;
+        updateInfluenceRadius();
         return this;
     }
 
@@ -84,6 +92,99 @@ public class PointLight extends Light implements LightSource {
         return this;
     }
 
+    /**
+     * Sets the intensity threshold below which the light contribution is
+     * negligible. The light is ignored at points farther than the distance where
+     * its strongest attenuated component drops under the threshold.
+     *
+     * @param intensityThreshold The intensity threshold, 0 for no culling.
+     * @return This PointLight object.
+     */
+    public PointLight setIntensityThreshold(double intensityThreshold) {
+        if (intensityThreshold < 0) {
+            throw new IllegalArgumentException("Intensity threshold must not be negative");
+        }
+        this.intensityThreshold = intensityThreshold;
+        updateInfluenceRadius();
+        return this;
+    }
+
+    /**
+     * Gets the position of the light source.
+     *
+     * @return The position of the light.
+     */
+    public Point getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the constant attenuation coefficient.
+     *
+     * @return kc
+     */
+    public double getKc() {
+        return kc;
+    }
+
+    /**
+     * Gets the linear attenuation coefficient.
+     *
+     * @return kl
+     */
+    public double getKl() {
+        return kl;
+    }
+
+    /**
+     * Gets the quadratic attenuation coefficient.
+     *
+     * @return kq
+     */
+    public double getKq() {
+        return kq;
+    }
+
+    /**
+     * Gets the intensity threshold of the light.
+     *
+     * @return The intensity threshold, 0 for no culling.
+     */
+    public double getIntensityThreshold() {
+        return intensityThreshold;
+    }
+
+    /**
+     * Recalculates the influence radius by solving kc + kl*d + kq*d^2 = I/threshold,
+     * where I is the strongest component of the light intensity
+     */
+    private void updateInfluenceRadius() {
+        if (intensityThreshold == 0 || (kl == 0 && kq == 0)) {
+            influenceRadius = Double.POSITIVE_INFINITY;
+        } else {
+            double c = kc - getIntensity().maxComponent() / intensityThreshold;
+            if (c >= 0) {
+                influenceRadius = 0;
+            } else if (kq == 0) {
+                influenceRadius = -c / kl;
+            } else {
+                influenceRadius = (-kl + Math.sqrt(kl * kl - 4 * kq * c)) / (2 * kq);
+            }
+        }
+        influenceRadiusSquared = influenceRadius * influenceRadius;
+    }
+
+    @Override
+    public double getInfluenceRadius() {
+        return influenceRadius;
+    }
+
+    @Override
+    public boolean isInRange(Point point) {
+        return influenceRadius == Double.POSITIVE_INFINITY
+                || position.distanceSquared(point) <= influenceRadiusSquared;
+    }
+
 
     /**
      * Gets the distance from the point light to a given point.
@@ -0,0 +1,67 @@
+package org.example.lighting;
+
+import org.example.primitives.Color;
+import org.example.primitives.Point;
+import org.example.primitives.Vector;
+
+import static org.example.primitives.Util.isZero;
+
+/**
+ * The RectangleLight class represents a rectangular area light source.
+ */
+public class RectangleLight extends AreaLight {
+    private static final long serialVersionUID = 1L;
+
+    private final double halfWidth;
+    private final double halfHeight;
+
+    /**
+     * Constructs a rectangle light with the specified intensity, center, edge
+     * directions and size.
+     *
+     * @param intensity     The intensity of the light.
+     * @param center        The center of the rectangle.
+     * @param widthDir      The direction of the rectangle width edges.
+     * @param heightDir     The direction of the rectangle height edges.
+     * @param width         The width of the rectangle.
+     * @param height        The height of the rectangle.
+     */
+    public RectangleLight(Color intensity, Point center, Vector widthDir, Vector heightDir, double width, double height) {
+        super(intensity, center, widthDir, heightDir);
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Rectangle light dimensions must be positive");
+        }
+        this.halfWidth = width / 2;
+        this.halfHeight = height / 2;
+    }
+
+    /**
+     * Gets the width of the rectangle, along the u direction.
+     *
+     * @return The width.
+     */
+    public double getWidth() {
+        return 2 * halfWidth;
+    }
+
+    /**
+     * Gets the height of the rectangle, along the v direction.
+     *
+     * @return The height.
+     */
+    public double getHeight() {
+        return 2 * halfHeight;
+    }
+
+    @Override
+    protected Point samplePoint(double x, double y) {
+        Point p = position;
+        if (!isZero(x)) {
+            p = p.add(u.scale(x * halfWidth));
+        }
+        if (!isZero(y)) {
+            p = p.add(v.scale(y * halfHeight));
+        }
+        return p;
+    }
+}
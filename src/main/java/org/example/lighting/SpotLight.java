@@ -10,6 +10,7 @@ import static org.example.primitives.Util.alignZero;
  */
 public class SpotLight extends PointLight
 {
+    private static final long serialVersionUID = 1L;
 
     private Vector direction;
 //    private double narrowBeam = 1;
@@ -39,6 +40,15 @@ public class SpotLight extends PointLight
 //        return this;
 //    }
 
+    /**
+     * Getter of the spot direction
+     *
+     * @return the unit direction of the spot
+     */
+    public Vector getDirection() {
+        return direction;
+    }
+
     @Override
     public Color getIntensity(Point p)
     {
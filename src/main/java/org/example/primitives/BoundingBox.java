@@ -0,0 +1,153 @@
+package org.example.primitives;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Axis aligned bounding box in 3D Cartesian coordinate system, the bounds of a
+ * finite geometry for the acceleration structures
+ */
+public final class BoundingBox implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final double minX;
+    private final double minY;
+    private final double minZ;
+    private final double maxX;
+    private final double maxY;
+    private final double maxZ;
+
+    /**
+     * Constructs a box by its minimal and maximal coordinates
+     *
+     * @param minX minimal X-coordinate
+     * @param minY minimal Y-coordinate
+     * @param minZ minimal Z-coordinate
+     * @param maxX maximal X-coordinate
+     * @param maxY maximal Y-coordinate
+     * @param maxZ maximal Z-coordinate
+     * @throws IllegalArgumentException if a minimal coordinate is greater than the maximal one
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("Minimal corner of a bounding box must not exceed its maximal corner");
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest box containing points
+     *
+     * @param points the points
+     * @return the box
+     * @throws IllegalArgumentException if there are no points
+     */
+    public static BoundingBox of(Point... points) {
+        if (points.length == 0) throw new IllegalArgumentException("A bounding box needs at least one point");
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point point : points) {
+            minX = Math.min(minX, point.xyz.d1);
+            minY = Math.min(minY, point.xyz.d2);
+            minZ = Math.min(minZ, point.xyz.d3);
+            maxX = Math.max(maxX, point.xyz.d1);
+            maxY = Math.max(maxY, point.xyz.d2);
+            maxZ = Math.max(maxZ, point.xyz.d3);
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Getter of the minimal coordinate along an axis
+     *
+     * @param axis 0 for X, 1 for Y, 2 for Z
+     * @return the minimal coordinate
+     */
+    public double min(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Getter of the maximal coordinate along an axis
+     *
+     * @param axis 0 for X, 1 for Y, 2 for Z
+     * @return the maximal coordinate
+     */
+    public double max(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Calculates the smallest box containing both this box and another one
+     *
+     * @param other the other box
+     * @return the union box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Calculates the surface area of the box, the measure of the probability of
+     * a random ray to hit it
+     *
+     * @return the surface area
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Clips a ray by the box
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @return the distances of entering and leaving the box, the entering one is
+     * not negative, null if the ray misses the box within the distance
+     */
+    public double[] clip(Ray ray, double maxDistance) {
+        Double3 head = ray.getHead().xyz;
+        Double3 direction = ray.getDirection().xyz;
+        double near = 0, far = maxDistance;
+        for (int axis = 0; axis < 3; axis++) {
+            double origin = axis == 0 ? head.d1 : axis == 1 ? head.d2 : head.d3;
+            double inverse = 1 / (axis == 0 ? direction.d1 : axis == 1 ? direction.d2 : direction.d3);
+            double t1 = (min(axis) - origin) * inverse;
+            double t2 = (max(axis) - origin) * inverse;
+            // a ray parallel to the slab gives NaN or infinities, NaN is ignored by the comparisons
+            if (t1 > t2) {
+                double t = t1;
+                t1 = t2;
+                t2 = t;
+            }
+            if (t1 > near) near = t1;
+            if (t2 < far) far = t2;
+            if (near > far) return null;
+        }
+        return new double[]{near, far};
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        return obj instanceof BoundingBox other
+                && minX == other.minX && minY == other.minY && minZ == other.minZ
+                && maxX == other.maxX && maxY == other.maxY && maxZ == other.maxZ;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + minX + "," + minY + "," + minZ + "]-[" + maxX + "," + maxY + "," + maxZ + "]";
+    }
+}
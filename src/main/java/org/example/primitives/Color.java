@@ -1,5 +1,6 @@
 package org.example.primitives;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -10,7 +11,9 @@ import java.util.stream.IntStream;
  * light's colors
  * @author Dan Zilberstein
  */
-public class Color {
+public class Color implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The internal fields maintain RGB components as double numbers from 0 to
      * whatever...
@@ -131,6 +134,18 @@ public class Color {
         return new Color(averageValues.d1, averageValues.d2, averageValues.d3);
     }
 
+    /**
+     * Finds the strongest of the RGB components
+     * @return the maximal component value
+     */
+    public double maxComponent() { return rgb.max(); }
+
+    /**
+     * Getter of the RGB components, without the 255 limit of java.awt.Color
+     * @return the components of the color
+     */
+    public Double3 getRgb() { return rgb; }
+
     public static boolean allSimilar(List<Color> colors) {
         return IntStream
                 .range(1, colors.size())
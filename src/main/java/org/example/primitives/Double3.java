@@ -3,13 +3,17 @@
  */
 package org.example.primitives;
 
+import java.io.Serializable;
+
 import static org.example.primitives.Util.isZero;
 
 /**
  * This class will serve all primitive classes based on three numbers
  * @author Dan Zilberstein
  */
-public class Double3 {
+public class Double3 implements Serializable {
+    private static final long serialVersionUID = 1L;
+
    /** First number */
    final double                d1;
    /** Second number */
@@ -99,6 +103,30 @@ public class Double3 {
       return d1 + d2 + d3;
    }
 
+   /**
+    * Finds the biggest number of the triad
+    * @return the maximal number
+    */
+   public double max() { return Math.max(d1, Math.max(d2, d3)); }
+
+   /**
+    * Getter of the first number of the triad
+    * @return the first number
+    */
+   public double d1() { return d1; }
+
+   /**
+    * Getter of the second number of the triad
+    * @return the second number
+    */
+   public double d2() { return d2; }
+
+   /**
+    * Getter of the third number of the triad
+    * @return the third number
+    */
+   public double d3() { return d3; }
+
    /**
     * Reduce (divide) floating point triad by a number into a new triad where each
     * number is divided by the number
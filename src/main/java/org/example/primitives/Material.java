@@ -1,11 +1,14 @@
 package org.example.primitives;
 
+import java.io.Serializable;
+
 /**
  * The Material class represents the material properties of an object in a
  * scene. It includes the diffuse reflection coefficient (kD), the specular
  * reflection coefficient (kS), and the shininess (nShininess) of the material.
  */
-public class Material {
+public class Material implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     /**
      * The diffuse reflection coefficient.
@@ -31,6 +34,18 @@ public class Material {
      */
     public int nShininess = 0;
 
+    /**
+     * The glossiness of the reflection - the spread of the cone of reflected rays
+     * at unit distance, 0 for a perfect mirror.
+     */
+    public double glossiness = 0;
+
+    /**
+     * The blurriness of the refraction - the spread of the cone of refracted rays
+     * at unit distance, 0 for a clear material.
+     */
+    public double blurriness = 0;
+
     // ***************** setters builder pattern ********************** //
 
     /**
@@ -131,4 +146,28 @@ public class Material {
         this.nShininess = nShininess;
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the glossiness of the reflection.
+     *
+     * @param glossiness The spread of the reflected rays cone.
+     * @return This Material object.
+     */
+    public Material setGlossiness(double glossiness) {
+        if (glossiness < 0) throw new IllegalArgumentException("Glossiness must not be negative");
+        this.glossiness = glossiness;
+        return this;
+    }
+
+    /**
+     * Sets the blurriness of the refraction.
+     *
+     * @param blurriness The spread of the refracted rays cone.
+     * @return This Material object.
+     */
+    public Material setBlurriness(double blurriness) {
+        if (blurriness < 0) throw new IllegalArgumentException("Blurriness must not be negative");
+        this.blurriness = blurriness;
+        return this;
+    }
+}
@@ -1,9 +1,13 @@
 package org.example.primitives;
 
+import java.io.Serializable;
+
 /**
  * Represents a point in three-dimensional coordinate system.
  */
-public class Point {
+public class Point implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     protected final Double3 xyz;
 
     /**
@@ -31,6 +35,33 @@ public class Point {
         this.xyz = xyz;
     }
 
+    /**
+     * Getter of the X-coordinate
+     *
+     * @return The X-coordinate value
+     */
+    public double getX() {
+        return xyz.d1;
+    }
+
+    /**
+     * Getter of the Y-coordinate
+     *
+     * @return The Y-coordinate value
+     */
+    public double getY() {
+        return xyz.d2;
+    }
+
+    /**
+     * Getter of the Z-coordinate
+     *
+     * @return The Z-coordinate value
+     */
+    public double getZ() {
+        return xyz.d3;
+    }
+
     /**
      * Adds a vector to the point and returns the new point.
      *
@@ -51,6 +82,31 @@ public class Point {
         return new Vector(xyz.subtract(point.xyz));
     }
 
+    /**
+     * Subtracts a point from this point without throwing, for intersection code
+     * where coinciding points are an ordinary case rather than an error.
+     *
+     * @param point The point to subtract from this point
+     * @return The vector representing the subtraction, null if the points coincide
+     */
+    public Vector subtractOrNull(Point point) {
+        Double3 difference = xyz.subtract(point.xyz);
+        return difference.equals(Double3.ZERO) ? null : new Vector(difference);
+    }
+
+    /**
+     * Moves the point along a scaled vector without creating the scaled vector,
+     * so a zero or tiny scale never throws.
+     *
+     * @param vector The vector to move along
+     * @param scale  The scale of the vector
+     * @return The point moved by the scaled vector
+     */
+    public Point addScaled(Vector vector, double scale) {
+        return new Point(xyz.d1 + vector.xyz.d1 * scale, xyz.d2 + vector.xyz.d2 * scale,
+                xyz.d3 + vector.xyz.d3 * scale);
+    }
+
 
     /**
      * Calculates the distance between this point and another point.
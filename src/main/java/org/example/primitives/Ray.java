@@ -2,6 +2,7 @@ package org.example.primitives;
 
 import org.example.geometries.Intersectable.GeoPoint;
 
+import java.io.Serializable;
 import java.util.List;
 
 import static org.example.primitives.Util.isZero;
@@ -9,7 +10,9 @@ import static org.example.primitives.Util.isZero;
 /**
  * Represents a ray in a three-dimensional space.
  */
-public class Ray {
+public class Ray implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private static final double DELTA = 0.00001;
     /**
      * The starting point of the ray.
@@ -52,7 +55,7 @@ public class Ray {
     }
 
     public Point getHead(double t) {
-        return head.add(direction.scale(t));
+        return head.addScaled(direction, t);
     }
 
     /**
@@ -94,7 +97,7 @@ public class Ray {
         if (isZero(t)) {
             return head;
         }
-        return head.add(direction.scale(t));
+        return head.addScaled(direction, t);
     }
 
     /**
@@ -0,0 +1,263 @@
+package org.example.primitives;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Affine transformation of 3D Cartesian coordinate system: a linear map
+ * followed by a translation, kept as a 3x4 matrix together with its inverse.
+ * Transformations are composed by {@link #then(Transform)}, the receiver
+ * applied first.
+ */
+public final class Transform implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The transformation leaving everything in place
+     */
+    public static final Transform IDENTITY = new Transform(new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    /**
+     * Row major matrix, the translation in the last column
+     */
+    private final double[] m;
+    /**
+     * Row major matrix of the inverse transformation
+     */
+    private final double[] inverse;
+
+    /**
+     * Constructs a transformation by its matrix
+     *
+     * @param m row major 3x4 matrix
+     * @throws IllegalArgumentException if the linear part is singular
+     */
+    private Transform(double[] m) {
+        this(m, invert(m));
+    }
+
+    /**
+     * Constructs a transformation by its matrix and the matrix of its inverse
+     *
+     * @param m       row major 3x4 matrix
+     * @param inverse row major 3x4 matrix of the inverse
+     */
+    private Transform(double[] m, double[] inverse) {
+        this.m = m;
+        this.inverse = inverse;
+    }
+
+    /**
+     * Constructs a transformation by its matrix, such as one read from a file
+     *
+     * @param matrix row major 3x4 matrix, the translation in the last column
+     * @return the transformation
+     * @throws IllegalArgumentException if the matrix is not 3x4 or its linear part is singular
+     */
+    public static Transform of(double... matrix) {
+        if (matrix.length != 12) throw new IllegalArgumentException("A transformation matrix must have 12 numbers");
+        return new Transform(matrix.clone());
+    }
+
+    /**
+     * Getter of the matrix of the transformation
+     *
+     * @return row major 3x4 matrix, the translation in the last column
+     */
+    public double[] getMatrix() {
+        return m.clone();
+    }
+
+    /**
+     * Constructs a translation
+     *
+     * @param offset the translation vector
+     * @return the translation
+     */
+    public static Transform translation(Vector offset) {
+        return new Transform(new double[]{1, 0, 0, offset.getX(), 0, 1, 0, offset.getY(), 0, 0, 1, offset.getZ()});
+    }
+
+    /**
+     * Constructs a scaling about the origin
+     *
+     * @param sx the scale along X
+     * @param sy the scale along Y
+     * @param sz the scale along Z
+     * @return the scaling
+     * @throws IllegalArgumentException if a scale is zero
+     */
+    public static Transform scaling(double sx, double sy, double sz) {
+        return new Transform(new double[]{sx, 0, 0, 0, 0, sy, 0, 0, 0, 0, sz, 0});
+    }
+
+    /**
+     * Constructs a uniform scaling about the origin
+     *
+     * @param scale the scale
+     * @return the scaling
+     * @throws IllegalArgumentException if the scale is zero
+     */
+    public static Transform scaling(double scale) {
+        return scaling(scale, scale, scale);
+    }
+
+    /**
+     * Constructs a rotation about an axis through the origin, counterclockwise
+     * looking against the axis
+     *
+     * @param axis    the rotation axis
+     * @param degrees the rotation angle in degrees
+     * @return the rotation
+     */
+    public static Transform rotation(Vector axis, double degrees) {
+        Vector u = axis.normalize();
+        double x = u.getX(), y = u.getY(), z = u.getZ();
+        double c = Math.cos(Math.toRadians(degrees)), s = Math.sin(Math.toRadians(degrees)), t = 1 - c;
+        double[] m = {
+                t * x * x + c, t * x * y - s * z, t * x * z + s * y, 0,
+                t * x * y + s * z, t * y * y + c, t * y * z - s * x, 0,
+                t * x * z - s * y, t * y * z + s * x, t * z * z + c, 0};
+        // the inverse of a rotation is its transpose
+        double[] inverse = {m[0], m[4], m[8], 0, m[1], m[5], m[9], 0, m[2], m[6], m[10], 0};
+        return new Transform(m, inverse);
+    }
+
+    /**
+     * Composes this transformation with a following one
+     *
+     * @param next the transformation applied after this one
+     * @return the transformation applying this one and then the next one
+     */
+    public Transform then(Transform next) {
+        return new Transform(multiply(next.m, m), multiply(inverse, next.inverse));
+    }
+
+    /**
+     * Getter of the inverse transformation
+     *
+     * @return the transformation undoing this one
+     */
+    public Transform inverse() {
+        return new Transform(inverse, m);
+    }
+
+    /**
+     * Transforms a point
+     *
+     * @param point the point
+     * @return the transformed point
+     */
+    public Point apply(Point point) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        return new Point(
+                m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * Transforms a direction, ignoring the translation. The length of the
+     * direction is scaled as well.
+     *
+     * @param vector the direction
+     * @return the transformed direction
+     */
+    public Vector applyVector(Vector vector) {
+        double x = vector.getX(), y = vector.getY(), z = vector.getZ();
+        return new Vector(
+                m[0] * x + m[1] * y + m[2] * z,
+                m[4] * x + m[5] * y + m[6] * z,
+                m[8] * x + m[9] * y + m[10] * z);
+    }
+
+    /**
+     * Transforms a surface normal, by the transpose of the inverse so it stays
+     * orthogonal to the transformed surface
+     *
+     * @param normal the normal
+     * @return the transformed normal, normalized
+     */
+    public Vector applyNormal(Vector normal) {
+        double x = normal.getX(), y = normal.getY(), z = normal.getZ();
+        return new Vector(
+                inverse[0] * x + inverse[4] * y + inverse[8] * z,
+                inverse[1] * x + inverse[5] * y + inverse[9] * z,
+                inverse[2] * x + inverse[6] * y + inverse[10] * z).normalize();
+    }
+
+    /**
+     * Transforms a bounding box
+     *
+     * @param box the box
+     * @return the smallest axis aligned box containing the transformed box
+     */
+    public BoundingBox apply(BoundingBox box) {
+        double[] min = {m[3], m[7], m[11]};
+        double[] max = {m[3], m[7], m[11]};
+        // each coordinate of the result is a sum of independent terms, each extreme at a corner
+        for (int row = 0; row < 3; row++)
+            for (int axis = 0; axis < 3; axis++) {
+                double a = m[4 * row + axis] * box.min(axis), b = m[4 * row + axis] * box.max(axis);
+                min[row] += Math.min(a, b);
+                max[row] += Math.max(a, b);
+            }
+        return new BoundingBox(min[0], min[1], min[2], max[0], max[1], max[2]);
+    }
+
+    /**
+     * Multiplies two affine matrices
+     *
+     * @param a the left matrix
+     * @param b the right matrix
+     * @return the matrix of applying b and then a
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] product = new double[12];
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 4; column++)
+                product[4 * row + column] = a[4 * row] * b[column] + a[4 * row + 1] * b[4 + column]
+                        + a[4 * row + 2] * b[8 + column];
+            product[4 * row + 3] += a[4 * row + 3];
+        }
+        return product;
+    }
+
+    /**
+     * Inverts an affine matrix by the adjugate of its linear part
+     *
+     * @param m row major 3x4 matrix
+     * @return row major 3x4 matrix of the inverse
+     * @throws IllegalArgumentException if the linear part is singular
+     */
+    private static double[] invert(double[] m) {
+        double c00 = m[5] * m[10] - m[6] * m[9];
+        double c01 = m[6] * m[8] - m[4] * m[10];
+        double c02 = m[4] * m[9] - m[5] * m[8];
+        double det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (Util.isZero(det)) throw new IllegalArgumentException("A singular transformation can't be inverted");
+        double[] inverse = {
+                c00 / det, (m[2] * m[9] - m[1] * m[10]) / det, (m[1] * m[6] - m[2] * m[5]) / det, 0,
+                c01 / det, (m[0] * m[10] - m[2] * m[8]) / det, (m[2] * m[4] - m[0] * m[6]) / det, 0,
+                c02 / det, (m[1] * m[8] - m[0] * m[9]) / det, (m[0] * m[5] - m[1] * m[4]) / det, 0};
+        for (int row = 0; row < 3; row++)
+            inverse[4 * row + 3] = -(inverse[4 * row] * m[3] + inverse[4 * row + 1] * m[7] + inverse[4 * row + 2] * m[11]);
+        return inverse;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        return obj instanceof Transform other && Arrays.equals(m, other.m);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(m);
+    }
+
+    @Override
+    public String toString() {
+        return "Transform" + Arrays.toString(m);
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.primitives;
 
+import java.util.SplittableRandom;
+
 /**
  * Util class is used for some internal utilities, e.g. controlling accuracy
  *
@@ -11,6 +13,17 @@ public final class Util {
      */
     private static final int ACCURACY = -40;
 
+    /**
+     * Odd 64-bit constant (golden ratio) spreading pixel indexes over the seed space
+     */
+    private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Random stream of the current thread, re-seeded for each rendered pixel so
+     * the samples of a pixel never depend on the thread rendering it
+     */
+    private static final ThreadLocal<SplittableRandom> RANDOM = ThreadLocal.withInitial(SplittableRandom::new);
+
     /**
      * Don't let anyone instantiate this class.
      */
@@ -68,14 +81,29 @@ public final class Util {
     }
 
     /**
-     * Provide a real random number in range between min and max
+     * Starts the random stream of a pixel for the current thread. The stream
+     * depends only on the seed and the pixel, so a render is reproducible for any
+     * amount of threads and the threads never contend on a shared generator.
+     *
+     * @param seed   the seed of the whole render
+     * @param column column of the pixel
+     * @param row    row of the pixel
+     */
+    public static void seedRandom(long seed, int column, int row) {
+        long pixel = ((long) row << 32) | (column & 0xFFFFFFFFL);
+        RANDOM.set(new SplittableRandom(seed + pixel * SEED_GAMMA));
+    }
+
+    /**
+     * Provide a real random number in range between min and max from the random
+     * stream of the current thread
      *
      * @param min value (included)
      * @param max value (excluded)
      * @return the random value
      */
     public static double random(double min, double max) {
-        return Math.random() * (max - min) + min;
+        return RANDOM.get().nextDouble() * (max - min) + min;
     }
 
 }
@@ -4,6 +4,8 @@ package org.example.primitives;
  * Represents a vector in three-dimensional space.
  */
 public class Vector extends Point {
+    private static final long serialVersionUID = 1L;
+
     public static final Vector X = new Vector(1, 0, 0);
     public static final Vector Y = new Vector(0, 1, 0);
     public static final Vector Z = new Vector(0, 0, 1);
@@ -56,6 +58,17 @@ public class Vector extends Point {
         return new Vector(xyz.scale(scale));
     }
 
+    /**
+     * Scales the vector without throwing
+     *
+     * @param scale the scale factor
+     * @return the scaled vector, null if it is zero
+     */
+    public Vector scaleOrNull(double scale) {
+        Double3 scaled = xyz.scale(scale);
+        return scaled.equals(Double3.ZERO) ? null : new Vector(scaled);
+    }
+
     /**
      * Calculates the dot product of this vector with another vector.
      *
@@ -67,6 +80,20 @@ public class Vector extends Point {
         //return xyz.product(vector.xyz).sum();
     }
 
+    /**
+     * Calculates the dot product of the vector with the difference of two points
+     * without creating the difference, which is zero, not an error, when the
+     * points coincide
+     *
+     * @param point the point the difference ends at
+     * @param from  the point the difference starts at
+     * @return the dot product of the vector with point - from
+     */
+    public double dotProduct(Point point, Point from) {
+        return xyz.d1 * (point.xyz.d1 - from.xyz.d1) + xyz.d2 * (point.xyz.d2 - from.xyz.d2)
+                + xyz.d3 * (point.xyz.d3 - from.xyz.d3);
+    }
+
     /**
      * Calculates the cross product of this vector with another vector.
      *
@@ -109,6 +136,15 @@ public class Vector extends Point {
         //return new Vector(xyz.reduce(length()));
     }
 
+    /**
+     * Creates some unit vector orthogonal to this vector.
+     *
+     * @return An orthogonal unit vector.
+     */
+    public Vector orthogonal() {
+        return crossProduct(Math.abs(xyz.d1) < 0.9 * length() ? X : Y).normalize();
+    }
+
     /**
      * Checks if this vector and the given vector are both unit vectors and
      * are either equal or opposites.
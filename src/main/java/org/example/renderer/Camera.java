@@ -3,16 +3,55 @@ package org.example.renderer;
 import org.example.primitives.Color;
 import org.example.primitives.Point;
 import org.example.primitives.Ray;
+import org.example.primitives.Util;
 import org.example.primitives.Vector;
 
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import org.example.geometries.Bvh;
+import org.example.geometries.Geometries;
+import org.example.geometries.IntersectionCounter;
+import org.example.geometries.UniformGrid;
+
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.MissingResourceException;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
 import java.util.stream.IntStream;
 
 import static org.example.primitives.Util.isZero;
+import static org.example.primitives.Util.random;
+
+public class Camera implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
 
-public class Camera implements Cloneable {
     // Constants for exception messages
     private static final String MISSING_RENDER_DATA = "Missing rendering data";
     private static final String CAMERA_CLASS_NAME = "Camera";
@@ -24,7 +63,7 @@ public class Camera implements Cloneable {
     private double viewPlaneWidth = 0.0;
     private double viewPlaneHeight = 0.0;
     private double viewPlaneDistance = 0.0;
-    private ImageWriter imageWriter;
+    private transient ImageWriter imageWriter; // stays with the coordinator of a distributed render
     private RayTracerBase rayTrace;
     private int rowBeamRays = 1;
     private int columnBeamRays = 1;
@@ -32,8 +71,34 @@ public class Camera implements Cloneable {
     private double width = -1d;
     private double height = -1d;
     private boolean improvment = false;
+    private double apertureSize = 0; // 0 for a pinhole camera
+    private double focalDistance = 0; // 0 to focus on the view plane
+    private int apertureRays = 9; // aperture samples per side
+    private long randomSeed = 0; // seed of the per pixel random streams
+    private String checkpointPath = null; // checkpoint file of a tiled render, null for no checkpoint
+    private int tileSize = 32; // side of a render tile in pixels
+    private long checkpointInterval = 10000; // minimal milliseconds between checkpoint flushes
+    private int resolutionX = 0; // full frame resolution, 0 for the image writer resolution
+    private int resolutionY = 0;
+    private int cropX = 0; // crop window in the full frame, zero size for the whole frame
+    private int cropY = 0;
+    private int cropWidth = 0;
+    private int cropHeight = 0;
+    private int outputX = 0; // position of the image writer in the full frame while rendering
+    private int outputY = 0;
+    private int frameX = 0; // resolution of the full frame while rendering
+    private int frameY = 0;
+    private boolean collectStats = false; // whether renders collect statistics
+    private transient RenderStats renderStats = null; // statistics of the last render
+    private transient RenderStats.Collector statsCollector = null; // statistics of the running render
+    private PixelCost costMetric = null; // measure of the pixel costs, null for no cost buffer
+    private transient long[] pixelCosts = null; // cost of each image writer pixel in the last render
     private int threadsCount = 0; // -2 auto, -1 range/stream, 0 no threads, 1+ number of threads
+    private boolean virtualThreads = false; // a virtual thread per tile, threadsCount tiles traced at a time
     private double printInterval = 0; // printing progress percentage interval
+    private long timeBudget = 0; // milliseconds of refining before tracing single rays, 0 for no budget
+    private transient Thread renderThread = null; // thread of the running render, its interrupt cancels the render
+    private transient volatile boolean cancelled = false; // whether the running render was cancelled
 
 
     /**
@@ -96,6 +161,9 @@ public class Camera implements Cloneable {
      * @return ray from p0 the center to the center of the pixel in row column
      */
     public List<Ray> constructBeamRays(int nX, int nY, int column, int row) {
+        if (apertureSize > 0) {
+            return constructFocusRays(nX, nY, column, row);
+        }
         if (rowBeamRays == 1 && columnBeamRays == 1) {
             return List.of(constructRay(nX, nY, column, row));
         }
@@ -136,6 +204,96 @@ public class Camera implements Cloneable {
         return rays;
     }
 
+    /**
+     * Construct the thin lens beam of a pixel: rays from a grid of points on the
+     * round aperture through the point where the pixel center ray meets the focal
+     * plane. Points of the focal plane stay sharp while nearer and farther points
+     * are blurred. The grid is ordered row by row, so the adaptive supersampling
+     * of the ray tracer converges with its four corner rays in focused regions.
+     *
+     * @param nX     the number of the rows
+     * @param nY     the number of the columns
+     * @param column column
+     * @param row    row
+     * @return the rays from the aperture through the focal point of the pixel
+     */
+    public List<Ray> constructFocusRays(int nX, int nY, int column, int row) {
+        Ray centerRay = constructRay(nX, nY, column, row);
+        Vector direction = centerRay.getDirection();
+        double focus = focalDistance > 0 ? focalDistance : viewPlaneDistance;
+        Point focalPoint = centerRay.getPoint(focus / direction.dotProduct(vTo));
+
+        List<Ray> rays = new ArrayList<>(apertureRays * apertureRays);
+        double radius = apertureSize / 2;
+        for (int internalRow = 0; internalRow < apertureRays; internalRow++) {
+            for (int internalColumn = 0; internalColumn < apertureRays; internalColumn++) {
+                // jitter the sample inside its cell to avoid ghost copies of the blurred objects
+                double a = 2 * (internalColumn + random(0, 1)) / apertureRays - 1;
+                double b = 2 * (internalRow + random(0, 1)) / apertureRays - 1;
+                // map the square to the round aperture keeping the cells' areas equal
+                double r, angle;
+                if (isZero(a) && isZero(b)) {
+                    r = 0;
+                    angle = 0;
+                } else if (Math.abs(a) > Math.abs(b)) {
+                    r = a;
+                    angle = Math.PI / 4 * b / a;
+                } else {
+                    r = b;
+                    angle = Math.PI / 2 - Math.PI / 4 * a / b;
+                }
+                double x = radius * r * Math.cos(angle);
+                double y = radius * r * Math.sin(angle);
+                Point lensPoint = position;
+                if (!isZero(x)) {
+                    lensPoint = lensPoint.add(vRight.scale(x));
+                }
+                if (!isZero(y)) {
+                    lensPoint = lensPoint.add(vUp.scale(-y));
+                }
+                rays.add(lensPoint.equals(focalPoint) ? centerRay : new Ray(lensPoint, focalPoint.subtract(lensPoint)));
+            }
+        }
+        return rays;
+    }
+
+    /**
+     * Checks whether a pixel is rendered by a beam of rays rather than a single ray
+     *
+     * @return true for supersampling or depth of field
+     */
+    private boolean isBeam() {
+        return improvment || apertureSize > 0;
+    }
+
+    /**
+     * Checks whether the running render was cancelled by interrupting its thread
+     *
+     * @return true if the rendering threads must stop
+     */
+    private boolean isCancelled() {
+        if (!cancelled && renderThread != null && renderThread.isInterrupted()) cancelled = true;
+        return cancelled;
+    }
+
+    /**
+     * Waits for all the rendering threads to finish. An interrupt while waiting
+     * cancels the render and the waiting goes on, so no thread outlives the render.
+     *
+     * @param threads the rendering threads
+     */
+    private void joinAll(List<Thread> threads) {
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    cancelled = true;
+                }
+            }
+        }
+    }
+
     @Override
     public Camera clone() {
         try {
@@ -146,63 +304,404 @@ public class Camera implements Cloneable {
     }
 
     //public List<Point> findIntersections(int i, int i1, Sphere sphereTC01) {}
-    /* Calculates a color for a specific pixel in an image.
+    /**
+     * Calculates a color for a specific pixel in an image.
      *
-     * @param nX The number of pixels in a row in the view plane.
-     * @param nY The number of pixels in a column in the view plane.
-     * @param j  The row number of the pixel.
-     * @param i  The column number of the pixel.
-     */
-    private void castRay(int nX, int nY, int row, int column, List<Ray> rays) {
-        if (rays == null) {
-            this.imageWriter.writePixel(/*row*/column, /*column*/row, rayTrace.traceRay(constructRay(nX, nY, /*row*/column, /*column*/row)));
-            Pixel.pixelDone();
+     * @param nX     The number of pixels in a row in the view plane.
+     * @param nY     The number of pixels in a column in the view plane.
+     * @param row    The row number of the pixel.
+     * @param column The column number of the pixel.
+     */
+    private void castRay(int nX, int nY, int row, int column) {
+        this.imageWriter.writePixel(column - outputX, row - outputY, tracePixel(nX, nY, row, column));
+        Pixel.pixelDone();
+    }
+
+    /**
+     * Traces the ray or the beam of a pixel. The random stream of the pixel is
+     * started before its rays are built, so the pixel color does not depend on
+     * the thread rendering it.
+     *
+     * @param nX     The number of pixels in a row in the view plane.
+     * @param nY     The number of pixels in a column in the view plane.
+     * @param row    The row number of the pixel.
+     * @param column The column number of the pixel.
+     * @return the color of the pixel
+     */
+    private Color tracePixel(int nX, int nY, int row, int column) {
+        RenderStats.Collector collector = statsCollector;
+        IntersectionCounter previous = collector == null ? null : collector.enter();
+        try {
+            long start = pixelCosts == null ? 0 : pixelCost();
+            Util.seedRandom(randomSeed, column, row);
+            Color color = isBeam() && rayTrace.withinBudget()
+                    ? rayTrace.traceRay(constructBeamRays(nX, nY, column, row))
+                    : rayTrace.traceRay(constructRay(nX, nY, column, row));
+            if (pixelCosts != null)
+                pixelCosts[(row - outputY) * imageWriter.getNx() + column - outputX] = pixelCost() - start;
+            return color;
+        } finally {
+            if (collector != null) IntersectionCounter.bind(previous);
+        }
+    }
+
+    /**
+     * Reads the current value of the pixel cost measure
+     *
+     * @return the time in nanoseconds or the amount of rays traced by the thread
+     */
+    private long pixelCost() {
+        return costMetric == PixelCost.TIME ? System.nanoTime() : RenderStats.counters().rays();
+    }
+
+    /**
+     * Renders the pixels of a tile into the image
+     *
+     * @param nX   The number of pixels in a row in the view plane.
+     * @param nY   The number of pixels in a column in the view plane.
+     * @param tile the tile to render
+     * @return packed RGB values of the tile pixels, row by row, null if the render was cancelled
+     */
+    private int[] renderTile(int nX, int nY, Tile tile) {
+        TileRenderEvent event = new TileRenderEvent();
+        event.begin();
+        int[] pixels = new int[tile.size()];
+        for (int i = 0; i < tile.height(); ++i)
+            for (int j = 0; j < tile.width(); ++j) {
+                if (isCancelled()) return null;
+                int row = tile.y() + i;
+                int column = tile.x() + j;
+                Color color = tracePixel(nX, nY, row, column);
+                this.imageWriter.writePixel(column - outputX, row - outputY, color);
+                pixels[i * tile.width() + j] = color.getColor().getRGB();
+                Pixel.pixelDone();
+            }
+        event.commit(tile);
+        return pixels;
+    }
+
+    /**
+     * Traces the pixels of a tile of the frame prepared by {@link #prepareRender()}
+     * without an image writer, as a worker of a distributed render does
+     *
+     * @param tile the tile to render
+     * @return packed RGB values of the tile pixels, row by row
+     */
+    int[] traceTile(Tile tile) {
+        TileRenderEvent event = new TileRenderEvent();
+        event.begin();
+        int[] pixels = new int[tile.size()];
+        for (int i = 0; i < tile.height(); ++i)
+            for (int j = 0; j < tile.width(); ++j)
+                pixels[i * tile.width() + j] =
+                        tracePixel(frameX, frameY, tile.y() + i, tile.x() + j).getColor().getRGB();
+        event.commit(tile);
+        return pixels;
+    }
+
+    /**
+     * Writes the traced pixels of a tile into the image
+     *
+     * @param tile   the rendered tile
+     * @param pixels packed RGB values of the tile pixels, row by row
+     */
+    void writeTile(Tile tile, int[] pixels) {
+        for (int i = 0; i < tile.height(); ++i)
+            for (int j = 0; j < tile.width(); ++j) {
+                imageWriter.writePixel(tile.x() + j - outputX, tile.y() + i - outputY,
+                        new Color(new java.awt.Color(pixels[i * tile.width() + j])));
+                Pixel.pixelDone();
+            }
+    }
+
+    /**
+     * Renders the image tile by tile, saving every finished tile to the checkpoint
+     * file. Tiles finished by an interrupted render are restored from the file
+     * and skipped. The checkpoint is deleted when the whole image is rendered.
+     *
+     * @param nX     The number of pixels in a row in the view plane.
+     * @param nY     The number of pixels in a column in the view plane.
+     * @param x      column of the rendered rectangle's top left pixel
+     * @param y      row of the rendered rectangle's top left pixel
+     * @param width  amount of rendered pixels by width
+     * @param height amount of rendered pixels by height
+     */
+    private void renderTiles(int nX, int nY, int x, int y, int width, int height) {
+        RenderCheckpoint checkpoint = new RenderCheckpoint(Path.of(checkpointPath), x, y, width, height, tileSize,
+                settingsHash(), checkpointInterval);
+        BiConsumer<Tile, int[]> tileDone = (tile, pixels) -> {
+            if (pixels != null) checkpoint.tileDone(tile, pixels);
+        };
+        try {
+            Queue<Tile> tiles = new ConcurrentLinkedQueue<>();
+            for (Tile tile : Tile.split(x, y, width, height, tileSize)) {
+                if (!checkpoint.isDone(tile)) {
+                    tiles.add(tile);
+                    continue;
+                }
+                for (int row = tile.y(); row < tile.y() + tile.height(); ++row)
+                    for (int column = tile.x(); column < tile.x() + tile.width(); ++column) {
+                        imageWriter.writePixel(column - outputX, row - outputY,
+                                new Color(new java.awt.Color(checkpoint.getRGB(column, row))));
+                        Pixel.pixelDone();
+                    }
+            }
+
+            if (virtualThreads) {
+                renderVirtualTiles(nX, nY, tiles, tileDone);
+            } else if (threadsCount == 0) {
+                for (Tile tile : tiles)
+                    tileDone.accept(tile, renderTile(nX, nY, tile));
+            } else if (threadsCount == -1) {
+                tiles.parallelStream().forEach(tile -> tileDone.accept(tile, renderTile(nX, nY, tile)));
+            } else {
+                List<Thread> threads = new LinkedList<>();
+                for (int i = 0; i < threadsCount; i++) {
+                    threads.add(new Thread(() -> {
+                        Tile tile;
+                        while (!isCancelled() && (tile = tiles.poll()) != null) {
+                            tileDone.accept(tile, renderTile(nX, nY, tile));
+                        }
+                    }));
+                }
+                for (Thread thread : threads) {
+                    thread.start();
+                }
+                joinAll(threads);
+            }
+            if (checkpoint.isComplete()) checkpoint.delete();
+        } finally {
+            checkpoint.close();
+        }
+    }
+
+    /**
+     * Renders every tile by its own virtual thread. At most the configured amount
+     * of threads trace pixels at a time, all the cores for the auto and stream
+     * modes, while the other tile threads wait for a permit or block in the
+     * finished tile action, such as a checkpoint write, without holding a carrier
+     * thread away from the tracing ones. When a tile fails or the rendering
+     * thread is interrupted, the threads of the remaining tiles are interrupted.
+     *
+     * @param nX       The number of pixels in a row in the view plane.
+     * @param nY       The number of pixels in a column in the view plane.
+     * @param tiles    the tiles to render
+     * @param tileDone action on a finished tile and its packed RGB pixels, may block
+     */
+    private void renderVirtualTiles(int nX, int nY, Collection<Tile> tiles, BiConsumer<Tile, int[]> tileDone) {
+        Semaphore tracing = new Semaphore(threadsCount > 0 ? threadsCount : Runtime.getRuntime().availableProcessors());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(tiles.size());
+            for (Tile tile : tiles)
+                futures.add(executor.submit(() -> {
+                    int[] pixels;
+                    tracing.acquire();
+                    try {
+                        pixels = renderTile(nX, nY, tile);
+                    } finally {
+                        tracing.release();
+                    }
+                    tileDone.accept(tile, pixels);
+                    return null;
+                }));
+            try {
+                for (Future<?> future : futures)
+                    future.get();
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw new IllegalStateException("Tile render failed", e.getCause());
+            } catch (InterruptedException e) {
+                cancelled = true;
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * JFR event of rendering a tile, recorded when a flight recording enables
+     * {@code org.example.TileRender}
+     */
+    @Name("org.example.TileRender")
+    @Label("Tile Render")
+    @Category("Ray Tracer")
+    @Description("Tracing the pixels of a tile of the image")
+    @StackTrace(false)
+    static final class TileRenderEvent extends Event {
+        @Label("Tile")
+        int index;
+        @Label("X")
+        int x;
+        @Label("Y")
+        int y;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+
+        /**
+         * Ends the event and commits it with the tile if the recording wants it
+         *
+         * @param tile the rendered tile
+         */
+        void commit(Tile tile) {
+            end();
+            if (!shouldCommit()) return;
+            index = tile.index();
+            x = tile.x();
+            y = tile.y();
+            width = tile.width();
+            height = tile.height();
+            commit();
+        }
+    }
+
+    /**
+     * Prepares a render: finds the resolution of the frame and its rendered
+     * rectangle, places the image writer in the frame and starts the progress
+     * of the rendered pixels.
+     * Throws UnsupportedOperationException if any of the required resources are missing.
+     *
+     * @return the rendered rectangle of the frame, the whole frame or the crop window
+     */
+    Tile prepareRender() {
+        if (this.rayTrace == null || this.imageWriter == null || this.viewPlaneWidth == 0 || this.viewPlaneHeight == 0 || this.viewPlaneDistance == 0)
+            throw new UnsupportedOperationException("MissingResourcesException");
+        frameX = resolutionX > 0 ? resolutionX : imageWriter.getNx();
+        frameY = resolutionY > 0 ? resolutionY : imageWriter.getNy();
+        int x = 0, y = 0, width = frameX, height = frameY;
+        if (cropWidth > 0) {
+            x = cropX;
+            y = cropY;
+            width = cropWidth;
+            height = cropHeight;
+            if (x + width > frameX || y + height > frameY)
+                throw new IllegalArgumentException("Crop window must be inside the image");
+        }
+        // the image writer holds either the whole frame or only the crop window
+        if (imageWriter.getNx() == frameX && imageWriter.getNy() == frameY) {
+            outputX = outputY = 0;
+        } else if (imageWriter.getNx() == width && imageWriter.getNy() == height) {
+            outputX = x;
+            outputY = y;
         } else {
-            this.imageWriter.writePixel(/*row*/column, /*column*/row, rayTrace.traceRay(rays));
-            Pixel.pixelDone();
+            throw new IllegalArgumentException("Image writer must fit the whole frame or the crop window");
         }
+        Pixel.initialize(y, x, height, width, printInterval);
+        return new Tile(0, x, y, width, height);
     }
 
     /**
      * Renders the image by casting rays from the camera through each pixel of the image and writing the resulting color to the imageWriter.
      * Throws UnsupportedOperationException if any of the required resources are missing (rayTracerBase, imageWriter, width, height, distance).
+     * Interrupting the rendering thread cancels the render: the rendering threads
+     * stop after their current pixel and are joined before the render returns.
+     *
+     * @throws CancellationException if the render was cancelled, the rendering
+     *                               thread stays interrupted
      */
     public Camera renderImage() {
-        if (this.rayTrace == null || this.imageWriter == null || this.viewPlaneWidth == 0 || this.viewPlaneHeight == 0 || this.viewPlaneDistance == 0)
-            throw new UnsupportedOperationException("MissingResourcesException");
-        List<Ray> rays = null;
-        int nX = imageWriter.getNx();
-        int nY = imageWriter.getNy();
-        Pixel.initialize(nY, nX, printInterval);
-
-        if (threadsCount == 0){
-            for (int row = 0; row < nY; row++)
-                for (int column = 0; column < nX; column++) {
-                    if (improvment) {
-                        rays = constructBeamRays(imageWriter.getNx(),
-                                imageWriter.getNy(),
-                                /*row*/column,
-                                /*column*/row);
-                    }
+        Tile region = prepareRender();
+        pixelCosts = costMetric == null ? null : new long[imageWriter.getNx() * imageWriter.getNy()];
+        renderThread = Thread.currentThread();
+        cancelled = false;
+        rayTrace.startBudget(timeBudget);
+        boolean stats = collectStats || costMetric == PixelCost.RAYS;
+        RenderStats.Collector collector = stats ? new RenderStats.Collector() : null;
+        statsCollector = collector;
+        try {
+            if (!isCancelled()) renderRegion(region);
+        } catch (RuntimeException e) {
+            if (!isCancelled()) throw e; // otherwise a failure of the cancel, such as an interrupted checkpoint I/O
+        } finally {
+            renderThread = null;
+            statsCollector = null;
+            renderStats = collectStats ? collector.finish() : null;
+        }
+        if (cancelled) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Render cancelled");
+        }
+        return this;
+    }
+
+    /**
+     * Renders the image by a new thread, see {@link #renderImage()}. Cancelling
+     * the returned future with interruption cancels the render and waits for all
+     * its threads to stop, the image holds the pixels rendered until then.
+     *
+     * @return the handle of the render, its result is this camera
+     */
+    public Future<Camera> renderAsync() {
+        RenderTask task = new RenderTask();
+        task.thread.start();
+        return task;
+    }
 
-                    this.castRay(nX, nY, row, column, rays); //this.castRay(nX, nY, row, column, rays);
+    /**
+     * Handle of a render by its own thread. Cancelling it with interruption
+     * waits for the render to stop, so no rendering thread outlives the cancel.
+     */
+    private final class RenderTask extends FutureTask<Camera> {
+        private final Thread thread = new Thread(this, "render");
+
+        private RenderTask() {
+            super(Camera.this::renderImage);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean result = super.cancel(mayInterruptIfRunning);
+            if (!mayInterruptIfRunning) return result;
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
                 }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            return result;
+        }
+    }
+
+    /**
+     * Checks whether the last render ran out of its time budget, see
+     * {@link Builder#setTimeBudget(long)}
+     *
+     * @return true if some pixels were traced without refining
+     */
+    public boolean isBudgetExceeded() {
+        return rayTrace.isBudgetExceeded();
+    }
+
+    /**
+     * Renders the pixels of the frame's rendered rectangle by the configured threads
+     *
+     * @param region the rendered rectangle of the frame
+     */
+    private void renderRegion(Tile region) {
+        final int nX = frameX, nY = frameY;
+        final int x = region.x(), y = region.y(), width = region.width(), height = region.height();
+
+        final int firstColumn = x, lastColumn = x + width, lastRow = y + height;
+        if (checkpointPath != null) {
+            renderTiles(nX, nY, x, y, width, height);
+        } else if (virtualThreads) {
+            renderVirtualTiles(nX, nY, Tile.split(x, y, width, height, tileSize), (tile, pixels) -> {
+            });
+        } else if (threadsCount == 0){
+            for (int row = y; row < lastRow && !isCancelled(); row++)
+                for (int column = x; column < lastColumn && !isCancelled(); column++)
+                    this.castRay(nX, nY, row, column);
         } else if (threadsCount == -1) {
-            IntStream.range(0, nY)
+            IntStream.range(y, lastRow)
                      .parallel()
-                    .forEach(row -> IntStream.range(0, nX).parallel().forEach(
-                            column -> {
-                                List<Ray> raysConstruct = null;
-                                if (improvment) {
-                                    raysConstruct = constructBeamRays(imageWriter.getNx(),
-                                            imageWriter.getNy(),
-                                            /*row*/column,
-                                            /*row*/row);
-                                }
-                                castRay(nX, nY, row, column, raysConstruct);
-
-                            }
-                    ));
+                    .forEach(row -> IntStream.range(firstColumn, lastColumn).parallel().forEach(column -> {
+                        if (!isCancelled()) castRay(nX, nY, row, column);
+                    }));
 
 
         }  else{
@@ -210,15 +709,8 @@ public class Camera implements Cloneable {
             for (int i = 0; i < threadsCount; i++) {
                 threads.add(new Thread(() -> {
                     Pixel pixel;
-                    while ((pixel = Pixel.nextPixel()) != null){
-                        List<Ray> raysConstruct = null;
-                        if (improvment) {
-                            raysConstruct = constructBeamRays(imageWriter.getNx(),
-                                    imageWriter.getNy(),
-                                    /*row*/pixel.col(),
-                                    /*row*/pixel.row());
-                        }
-                        castRay(nX, nY, pixel.row(), pixel.col(), raysConstruct);
+                    while (!isCancelled() && (pixel = Pixel.nextPixel()) != null){
+                        castRay(nX, nY, pixel.row(), pixel.col());
                     }
                 }));
 
@@ -226,19 +718,41 @@ public class Camera implements Cloneable {
             for (Thread thread : threads) {
                 thread.start();
             }
-            for (Thread thread : threads) {
-                try {
-                    thread.join();
-                } catch (InterruptedException ignored) {
-
-                }
-            }
+            joinAll(threads);
         }
+    }
 
+    /**
+     * Getter of the cost of each pixel of the last render, recorded when enabled by
+     * {@link Builder#setPixelCost(PixelCost)}. Pixels restored from a checkpoint cost nothing.
+     *
+     * @return the costs of the image writer pixels row by row, null if none were recorded
+     */
+    public long[] getPixelCosts() {
+        return pixelCosts;
+    }
 
+    /**
+     * Writes the pixel costs of the last render as a false colour heatmap image
+     * next to the rendered image
+     */
+    public Camera writeHeatmap() {
+        if (pixelCosts == null)
+            throw new IllegalStateException("Pixel costs were not recorded");
+        imageWriter.writeHeatmap(pixelCosts);
         return this;
     }
 
+    /**
+     * Getter of the statistics of the last render, collected when enabled by
+     * {@link Builder#setRenderStats(boolean)}
+     *
+     * @return the statistics, null if none were collected
+     */
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+
 
     /**
      * Draws a grid on the image by writing a specified color to the pixels that fall on the grid lines.
@@ -282,6 +796,108 @@ public class Camera implements Cloneable {
         return this;
     }
 
+    /**
+     * Writes the view settings of the camera into a scene snapshot: the position
+     * and directions, the view plane, the lens, the beam and the resolution
+     *
+     * @param out the camera section of the snapshot
+     * @throws IOException if the section can't be written
+     */
+    void writeView(DataOutput out) throws IOException {
+        SceneSnapshot.writePoint(out, position);
+        SceneSnapshot.writePoint(out, vTo);
+        SceneSnapshot.writePoint(out, vUp);
+        out.writeDouble(viewPlaneWidth);
+        out.writeDouble(viewPlaneHeight);
+        out.writeDouble(viewPlaneDistance);
+        out.writeDouble(apertureSize);
+        out.writeDouble(focalDistance);
+        out.writeInt(apertureRays);
+        out.writeLong(randomSeed);
+        out.writeBoolean(improvment);
+        out.writeInt(rowBeamRays);
+        out.writeInt(columnBeamRays);
+        out.writeInt(resolutionX);
+        out.writeInt(resolutionY);
+    }
+
+    /**
+     * Hashes everything the pixels of a checkpointed render depend on: the view
+     * and sampling settings of the camera, the settings of the ray tracer and the
+     * scene. Acceleration structures count by their geometries only, so building
+     * a hierarchy over the same scene keeps its checkpoint valid.
+     *
+     * @return the hash of the render settings
+     * @throws IllegalStateException if the scene can't be hashed
+     */
+    private long settingsHash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (DataOutputStream out = new DataOutputStream(
+                    new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+                writeView(out);
+                out.writeInt(cropX);
+                out.writeInt(cropY);
+                out.writeInt(cropWidth);
+                out.writeInt(cropHeight);
+                rayTrace.writeSettings(out);
+                ObjectOutputStream scene = new SceneHashStream(out);
+                scene.writeObject(rayTrace.scene);
+                scene.flush();
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Can't hash the render settings for the checkpoint", e);
+        }
+    }
+
+    /**
+     * Serialization of a scene for its hash, writing each acceleration structure
+     * as the list of its geometries
+     */
+    private static final class SceneHashStream extends ObjectOutputStream {
+        private SceneHashStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof Geometries geometries) return new ArrayList<>(geometries.getGeometries());
+            if (obj instanceof Bvh bvh) return new ArrayList<>(bvh.getGeometries());
+            if (obj instanceof UniformGrid grid) return new ArrayList<>(grid.getGeometries());
+            return obj;
+        }
+    }
+
+    /**
+     * Reads the view settings written by {@link #writeView(DataOutput)}
+     *
+     * @param in the camera section of the snapshot
+     * @return a builder of a camera with the view settings
+     */
+    static Builder readView(ByteBuffer in) {
+        Builder builder = new Builder();
+        Camera camera = builder.camera;
+        camera.position = SceneSnapshot.readPoint(in);
+        camera.vTo = SceneSnapshot.readVector(in);
+        camera.vUp = SceneSnapshot.readVector(in);
+        camera.vRight = camera.vTo.crossProduct(camera.vUp).normalize();
+        camera.viewPlaneWidth = in.getDouble();
+        camera.viewPlaneHeight = in.getDouble();
+        camera.viewPlaneDistance = in.getDouble();
+        camera.apertureSize = in.getDouble();
+        camera.focalDistance = in.getDouble();
+        camera.apertureRays = in.getInt();
+        camera.randomSeed = in.getLong();
+        camera.improvment = in.get() != 0;
+        camera.rowBeamRays = in.getInt();
+        camera.columnBeamRays = in.getInt();
+        camera.resolutionX = in.getInt();
+        camera.resolutionY = in.getInt();
+        return builder;
+    }
+
     /**
      * Builder class for constructing Camera objects.
      */
@@ -354,6 +970,214 @@ public class Camera implements Cloneable {
 
 
 
+        /**
+         * Sets the size of the lens aperture for depth of field. A zero size
+         * keeps the pinhole camera.
+         *
+         * @param apertureSize the width of the aperture.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the size is negative.
+         */
+        public Builder setAperture(double apertureSize) {
+            if (apertureSize < 0) {
+                throw new IllegalArgumentException("Aperture size must not be negative.");
+            }
+            this.camera.apertureSize = apertureSize;
+            return this;
+        }
+
+        /**
+         * Sets the distance from the camera to the focal plane, by default the
+         * view plane is in focus.
+         *
+         * @param focalDistance the distance to the focal plane.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the distance is not positive.
+         */
+        public Builder setFocalDistance(double focalDistance) {
+            if (focalDistance <= 0) {
+                throw new IllegalArgumentException("Focal distance must be positive.");
+            }
+            this.camera.focalDistance = focalDistance;
+            return this;
+        }
+
+        /**
+         * Sets the number of aperture samples per side of the aperture grid.
+         *
+         * @param apertureRays the number of samples per side.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the number is not positive.
+         */
+        public Builder setApertureRays(int apertureRays) {
+            if (apertureRays < 1) {
+                throw new IllegalArgumentException("Aperture rays must be greater than zero.");
+            }
+            this.camera.apertureRays = apertureRays;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random streams used for sampling. Every pixel
+         * gets its own stream derived from the seed and the pixel position.
+         *
+         * @param randomSeed the seed of the render.
+         * @return the current Builder instance.
+         */
+        public Builder setRandomSeed(long randomSeed) {
+            this.camera.randomSeed = randomSeed;
+            return this;
+        }
+
+        /**
+         * Renders the image tile by tile with a checkpoint file, so an
+         * interrupted render resumes skipping the finished tiles.
+         *
+         * @param checkpointPath the checkpoint file.
+         * @param tileSize       the side of a tile in pixels.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the tile size is not positive.
+         */
+        public Builder setCheckpoint(String checkpointPath, int tileSize) {
+            if (tileSize < 1) {
+                throw new IllegalArgumentException("Tile size must be greater than zero.");
+            }
+            this.camera.checkpointPath = checkpointPath;
+            this.camera.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Sets the minimal time between flushes of the checkpoint file to the disk.
+         *
+         * @param milliseconds the flush interval.
+         * @return the current Builder instance.
+         */
+        public Builder setCheckpointInterval(long milliseconds) {
+            if (milliseconds < 0) {
+                throw new IllegalArgumentException("Checkpoint interval must not be negative.");
+            }
+            this.camera.checkpointInterval = milliseconds;
+            return this;
+        }
+
+        /**
+         * Sets the resolution of the whole frame used for the ray generation,
+         * needed when the image writer holds only the crop window. By default
+         * the frame has the image writer resolution.
+         *
+         * @param nX amount of pixels by width.
+         * @param nY amount of pixels by height.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the resolution is not positive.
+         */
+        public Builder setResolution(int nX, int nY) {
+            if (nX < 1 || nY < 1) {
+                throw new IllegalArgumentException("Resolution must be positive.");
+            }
+            this.camera.resolutionX = nX;
+            this.camera.resolutionY = nY;
+            return this;
+        }
+
+        /**
+         * Sets a crop window, so only its pixels are rendered. The rays are the
+         * same as in a render of the whole frame, so the pixels match it. The
+         * image writer may be of the whole frame size, or of the crop window size
+         * together with {@link #setResolution(int, int)}.
+         *
+         * @param x      column of the window's top left pixel.
+         * @param y      row of the window's top left pixel.
+         * @param width  amount of pixels by width.
+         * @param height amount of pixels by height.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the window is empty or negative.
+         */
+        public Builder setCropWindow(int x, int y, int width, int height) {
+            if (x < 0 || y < 0 || width < 1 || height < 1) {
+                throw new IllegalArgumentException("Crop window must be a non empty rectangle in the image.");
+            }
+            this.camera.cropX = x;
+            this.camera.cropY = y;
+            this.camera.cropWidth = width;
+            this.camera.cropHeight = height;
+            return this;
+        }
+
+        /**
+         * Sets whether renders collect statistics of the traced rays and the
+         * intersection tests, see {@link Camera#getRenderStats()}.
+         *
+         * @param collectStats whether to collect statistics.
+         * @return the current Builder instance.
+         */
+        public Builder setRenderStats(boolean collectStats) {
+            this.camera.collectStats = collectStats;
+            return this;
+        }
+
+        /**
+         * Records the cost of every pixel into a buffer, for a heatmap of the
+         * expensive regions of the image, see {@link Camera#writeHeatmap()}.
+         *
+         * @param costMetric the measure of the cost, null to stop recording.
+         * @return the current Builder instance.
+         */
+        public Builder setPixelCost(PixelCost costMetric) {
+            this.camera.costMetric = costMetric;
+            return this;
+        }
+
+        /**
+         * Renders every tile of the image by a virtual thread, so tile stages that
+         * block, such as checkpoint writes, don't stall the tracing. The amount of
+         * tiles traced at a time is set by {@link #setMultithreading(int)}, all the
+         * cores unless a positive amount is set. The virtual threads run on the
+         * carrier pool of the JVM, sized by the system property
+         * {@code jdk.virtualThreadScheduler.parallelism}.
+         *
+         * @param virtualThreads whether to render by virtual threads.
+         * @return the current Builder instance.
+         */
+        public Builder setVirtualThreads(boolean virtualThreads) {
+            this.camera.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Sets the time budget of a render. Once it is over the tracer stops
+         * refining the remaining pixels: beams are replaced by the pixel's center
+         * ray, glossy and blurry cones by their center ray and area lights by a
+         * single shadow ray. Every pixel is still traced, so the render completes
+         * the image soon after the budget at a lower quality.
+         *
+         * @param milliseconds the budget, 0 for no budget.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the budget is negative.
+         */
+        public Builder setTimeBudget(long milliseconds) {
+            if (milliseconds < 0) {
+                throw new IllegalArgumentException("Time budget must not be negative.");
+            }
+            this.camera.timeBudget = milliseconds;
+            return this;
+        }
+
+        /**
+         * Sets the side of the tiles of a checkpointed or virtual threads render.
+         *
+         * @param tileSize the side of a tile in pixels, 32 by default.
+         * @return the current Builder instance.
+         * @throws IllegalArgumentException if the tile size is not positive.
+         */
+        public Builder setTileSize(int tileSize) {
+            if (tileSize < 1) {
+                throw new IllegalArgumentException("Tile size must be greater than zero.");
+            }
+            this.camera.tileSize = tileSize;
+            return this;
+        }
+
         public Builder setMultithreading(int threads) {
             if (threads < -2) throw new IllegalArgumentException("Multithreading must be -2 or higher");
             if (threads >= -1) this.camera.threadsCount = threads;
@@ -369,36 +1193,13 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Renders the image by the camera being built, see {@link Camera#renderImage()}.
+         *
+         * @return the rendered camera
+         */
         public Camera renderImage() {
-            final int nX = this.camera.imageWriter.getNx();
-            final int nY = this.camera.imageWriter.getNy();
-            Pixel.initialize(nY, nX, this.camera.printInterval);
-
-            if (this.camera.threadsCount == 0) {
-                for (int i = 0; i < nY; ++i) {
-                    for (int j = 0; j < nX; ++j) {
-                        this.camera.castRay(nX, nY, j, i, null);
-                    }
-                }
-            } else {
-                renderImageThreaded();
-            }
-            return this.camera;
-        }
-
-        private void renderImageThreaded() {
-            final int nX = this.camera.imageWriter.getNx();
-            final int nY = this.camera.imageWriter.getNy();
-
-            IntStream.range(0, this.camera.threadsCount).forEach(i -> {
-                new Thread(() -> {
-                    for (int row = i; row < nY; row += this.camera.threadsCount) {
-                        for (int col = 0; col < nX; ++col) {
-                            this.camera.castRay(nX, nY, col, row, null);
-                        }
-                    }
-                }).start();
-            });
+            return this.camera.renderImage();
         }
 
         //private void castRay(int nX, int nY, int col, int row) {
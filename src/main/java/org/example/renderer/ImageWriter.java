@@ -4,6 +4,14 @@ import org.example.primitives.Color;
 
 import org.example.renderer.Pixel;
 
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -34,6 +42,11 @@ public class ImageWriter {
      * directory
      */
     private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
+    /**
+     * Colour stops of the heatmap, from the cheapest to the most expensive pixel
+     */
+    private static final int[][] HEAT_COLORS = {
+            {0, 0, 0}, {0, 0, 255}, {0, 255, 255}, {0, 255, 0}, {255, 255, 0}, {255, 0, 0}, {255, 255, 255}};
     /**
      * Horizontal resolution of the image - number of pixels in row
      */
@@ -103,13 +116,95 @@ public class ImageWriter {
      * pixel color matrix in the directory of the project
      */
     public void writeToImage() {
+        writeImage(image, imageName);
+    }
+
+    /**
+     * Function writeHeatmap produces a png file of a per pixel cost, such as
+     * render time or ray count, in false colours from black through blue, cyan,
+     * green, yellow and red to white for the most expensive pixel. The scale is
+     * logarithmic, so pixels costing a hundredth of the maximum stay visible.
+     * The file is named after the image with a "_cost" suffix.
+     *
+     * @param costs the cost of each pixel, row by row
+     */
+    public void writeHeatmap(long[] costs) {
+        if (costs.length != nX * nY)
+            throw new IllegalArgumentException("Heatmap must have a cost for every pixel");
+        long max = 0;
+        for (long cost : costs) max = Math.max(max, cost);
+        double scale = max == 0 ? 0 : 1 / Math.log1p(max);
+        BufferedImage heatmap = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < nY; i++)
+            for (int j = 0; j < nX; j++)
+                heatmap.setRGB(j, i, heatColor(Math.log1p(Math.max(0, costs[i * nX + j])) * scale));
+        writeImage(heatmap, imageName + "_cost");
+    }
+
+    /**
+     * Maps a normalized cost to its false colour
+     *
+     * @param t the cost between 0 and 1
+     * @return the colour as packed RGB integer
+     */
+    private static int heatColor(double t) {
+        double position = t * (HEAT_COLORS.length - 1);
+        int index = Math.min((int) position, HEAT_COLORS.length - 2);
+        double fraction = position - index;
+        int rgb = 0;
+        for (int channel = 0; channel < 3; channel++) {
+            int from = HEAT_COLORS[index][channel];
+            int to = HEAT_COLORS[index + 1][channel];
+            rgb = rgb << 8 | (int) Math.round(from + (to - from) * fraction);
+        }
+        return rgb;
+    }
+
+    /**
+     * JFR event of encoding an image into a png file, recorded when a flight
+     * recording enables {@code org.example.ImageEncode}
+     */
+    @Name("org.example.ImageEncode")
+    @Label("Image Encode")
+    @Category("Ray Tracer")
+    @Description("Encoding an image into a png file")
+    @StackTrace(false)
+    static final class ImageEncodeEvent extends Event {
+        @Label("Image")
+        String image;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * Writes an image into a png file in the images directory
+     *
+     * @param image the image
+     * @param name  the file name, not including the file extension '.png'
+     */
+    private void writeImage(BufferedImage image, String name) {
+        ImageEncodeEvent event = new ImageEncodeEvent();
+        event.begin();
         try {
             File directory = new File(FOLDER_PATH);
             if (!directory.exists()) {
                 directory.mkdirs();
             }
-            File file = new File(FOLDER_PATH + '/' + imageName + ".png");
+            File file = new File(FOLDER_PATH + '/' + name + ".png");
             ImageIO.write(image, "png", file);
+            event.end();
+            if (event.shouldCommit()) {
+                event.image = name;
+                event.width = image.getWidth();
+                event.height = image.getHeight();
+                event.bytes = file.length();
+                event.commit();
+            }
         } catch (IOException e) {
             logger.log(Level.SEVERE, "I/O error", e);
             throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
@@ -128,6 +223,18 @@ public class ImageWriter {
         image.setRGB(xIndex, yIndex, color.getColor().getRGB());
     }
 
+    /**
+     * The function getRGB reads back the color of a specific pixel from the pixel
+     * color matrix
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return the pixel color as packed RGB integer
+     */
+    public int getRGB(int xIndex, int yIndex) {
+        return image.getRGB(xIndex, yIndex);
+    }
+
 
 
 }
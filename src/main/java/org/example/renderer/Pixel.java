@@ -4,6 +4,8 @@ record Pixel(int row, int col) {
     private static final String PRINT_FORMAT = "%5.1f%%\r\n";
     private static final Object mutexNext = new Object();
     private static final Object mutexPixels = new Object();
+    private static int firstRow = 0;
+    private static int firstCol = 0;
     private static int maxRows = 0;
     private static int maxCols = 0;
     private static long totalPixels = 0L;
@@ -15,9 +17,19 @@ record Pixel(int row, int col) {
     private static long printInterval = 100L;
 
     static void initialize(int maxRows, int maxCols, double interval) {
+        initialize(0, 0, maxRows, maxCols, interval);
+    }
+
+    static void initialize(int firstRow, int firstCol, int maxRows, int maxCols, double interval) {
+        Pixel.firstRow = firstRow;
+        Pixel.firstCol = firstCol;
         Pixel.maxRows = maxRows;
         Pixel.maxCols = maxCols;
         Pixel.totalPixels = (long) maxRows * maxCols;
+        Pixel.cRow = 0;
+        Pixel.cCol = -1;
+        Pixel.pixels = 0L;
+        Pixel.lastPrinted = 0;
         Pixel.printInterval = (int) (interval * 10);
         Pixel.print = Pixel.printInterval != 0;
         if (Pixel.print) {
@@ -32,12 +44,12 @@ record Pixel(int row, int col) {
             }
             ++cCol;
             if (cCol < maxCols) {
-                return new Pixel(cRow, cCol);
+                return new Pixel(firstRow + cRow, firstCol + cCol);
             }
             cCol = 0;
             ++cRow;
             if (cRow < maxRows) {
-                return new Pixel(cRow, cCol);
+                return new Pixel(firstRow + cRow, firstCol + cCol);
             }
         }
         return null;
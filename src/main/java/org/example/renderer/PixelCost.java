@@ -0,0 +1,17 @@
+package org.example.renderer;
+
+/**
+ * Measure of the cost of rendering a pixel, recorded into the cost buffer of
+ * the camera for a heatmap of the render
+ */
+public enum PixelCost {
+    /**
+     * Nanoseconds spent on the pixel, including the noise of the thread scheduling
+     */
+    TIME,
+    /**
+     * Primary, shadow, reflection and refraction rays traced for the pixel,
+     * reproducible from one render to another
+     */
+    RAYS
+}
@@ -3,17 +3,25 @@ import org.example.primitives.Color;
 import org.example.primitives.Ray;
 import org.example.scene.Scene;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * The abstract class RayTracerBase represents the base class for ray tracing algorithms.
  * It contains a protected field for the scene and an abstract public method for tracing rays.
  */
-public abstract class RayTracerBase {
+public abstract class RayTracerBase implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The scene used for ray tracing.
      */
     protected final Scene scene;
+    private transient volatile long deadline = 0; // nano time at which the tracer stops refining
+    private transient volatile boolean timed = false; // whether the running render has a time budget
+    private transient volatile boolean budgetExceeded = false; // whether the running render ran out of its budget
 
     /**
      * Constructs a RayTracerBase object with a given scene.
@@ -38,4 +46,49 @@ public abstract class RayTracerBase {
      * @return The resulting color after tracing the rays.
      */
     public abstract Color traceRay(List<Ray> ray);
+
+    /**
+     * Starts the time budget of a render. Once it is over the tracer stops
+     * refining: beams are traced by their center ray, glossy and blurry cones by
+     * their center ray, and area lights by a single shadow ray to their center.
+     *
+     * @param milliseconds the budget, 0 for no budget
+     */
+    void startBudget(long milliseconds) {
+        budgetExceeded = false;
+        deadline = System.nanoTime() + milliseconds * 1_000_000;
+        timed = milliseconds > 0;
+    }
+
+    /**
+     * Checks whether the running render may still refine its colors
+     *
+     * @return false once the time budget of the render is over
+     */
+    protected boolean withinBudget() {
+        if (!timed || budgetExceeded) return !budgetExceeded;
+        if (System.nanoTime() - deadline < 0) return true;
+        budgetExceeded = true;
+        return false;
+    }
+
+    /**
+     * Checks whether the last render ran out of its time budget
+     *
+     * @return true if some colors were traced without refining
+     */
+    boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    /**
+     * Writes the settings of the tracer that change the traced colors, so a
+     * checkpoint of a render can tell whether it was made by the same tracer.
+     *
+     * @param out the settings stream
+     * @throws IOException if the stream fails
+     */
+    void writeSettings(DataOutput out) throws IOException {
+        out.writeUTF(getClass().getName());
+    }
 }
@@ -0,0 +1,202 @@
+package org.example.renderer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checkpoint file of a tiled render, memory mapped so finished tiles survive a
+ * crash of the JVM. The file holds a header, a bitmap of the finished tiles
+ * and the packed RGB values of all the pixels of the rendered rectangle:
+ * <pre>
+ * int magic, int version, int x, int y, int width, int height, int tileSize, int tiles,
+ * long settings hash
+ * byte[(tiles + 7) / 8] done bitmap
+ * int[width * height] pixels, row by row
+ * </pre>
+ * A checkpoint of other render settings, such as another scene or camera, is
+ * discarded rather than resumed. The mapped pages are forced to the disk at most once per interval. The file
+ * is guarded by a lock rather than a monitor, so a virtual thread waiting for
+ * it or flushing it to the disk does not pin its carrier thread, and the flush
+ * itself runs outside the lock.
+ */
+final class RenderCheckpoint implements AutoCloseable {
+    private static final int MAGIC = 0x52544350; // "RTCP"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8 * Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int tiles;
+    private final int pixelsOffset;
+    private final long interval;
+    private long lastForce;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Logger logger = Logger.getLogger("RenderCheckpoint");
+
+    /**
+     * Opens the checkpoint of a render, resuming an existing file of the same
+     * rectangle, tile size and settings or starting a new one otherwise
+     *
+     * @param path     the checkpoint file
+     * @param x        column of the rendered rectangle's top left pixel
+     * @param y        row of the rendered rectangle's top left pixel
+     * @param width    amount of pixels by width
+     * @param height   amount of pixels by height
+     * @param tileSize the side of a tile in pixels
+     * @param settings the hash of the scene, camera and sampling settings of the render
+     * @param interval minimal time between forcing to the disk, in milliseconds
+     */
+    RenderCheckpoint(Path path, int x, int y, int width, int height, int tileSize, long settings, long interval) {
+        this.path = path;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.tiles = Tile.count(width, height, tileSize);
+        this.pixelsOffset = HEADER_SIZE + (tiles + 7) / 8;
+        this.interval = interval;
+        long size = pixelsOffset + (long) width * height * Integer.BYTES;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Image is too big for a checkpoint file");
+        try {
+            boolean resume = Files.exists(path) && Files.size(path) == size;
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (!resume) channel.truncate(0);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (resume && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+                    && buffer.getLong(32) != settings)
+                logger.warning("Checkpoint " + path + " was made with other render settings, starting over");
+            if (!resume || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != x || buffer.getInt(12) != y || buffer.getInt(16) != width
+                    || buffer.getInt(20) != height || buffer.getInt(24) != tileSize || buffer.getInt(28) != tiles
+                    || buffer.getLong(32) != settings) {
+                for (int i = HEADER_SIZE; i < pixelsOffset; ++i) buffer.put(i, (byte) 0);
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, x).putInt(12, y).putInt(16, width)
+                        .putInt(20, height).putInt(24, tileSize).putInt(28, tiles).putLong(32, settings);
+                buffer.force();
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't open checkpoint " + path, e);
+        }
+        lastForce = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks whether a tile was already rendered
+     *
+     * @param tile the tile
+     * @return true if the tile is finished
+     */
+    boolean isDone(Tile tile) {
+        lock.lock();
+        try {
+            return (buffer.get(HEADER_SIZE + tile.index() / 8) & (1 << (tile.index() % 8))) != 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether all the tiles were rendered
+     *
+     * @return true if the render is finished
+     */
+    boolean isComplete() {
+        lock.lock();
+        try {
+            for (int i = 0; i < tiles; ++i)
+                if ((buffer.get(HEADER_SIZE + i / 8) & (1 << (i % 8))) == 0) return false;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the packed RGB value of a pixel
+     *
+     * @param column column of the pixel in the image
+     * @param row    row of the pixel in the image
+     * @return the pixel color
+     */
+    int getRGB(int column, int row) {
+        lock.lock();
+        try {
+            return buffer.getInt(pixelsOffset + ((row - y) * width + column - x) * Integer.BYTES);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the pixels of a rendered tile and marks it finished. The pixels are
+     * written before the tile is marked, so a marked tile is always complete.
+     *
+     * @param tile   the rendered tile
+     * @param pixels packed RGB values of the tile pixels, row by row
+     */
+    void tileDone(Tile tile, int[] pixels) {
+        boolean force = false;
+        lock.lock();
+        try {
+            for (int i = 0; i < tile.height(); ++i)
+                for (int j = 0; j < tile.width(); ++j)
+                    buffer.putInt(pixelsOffset + ((tile.y() - y + i) * width + tile.x() - x + j) * Integer.BYTES,
+                            pixels[i * tile.width() + j]);
+            int index = HEADER_SIZE + tile.index() / 8;
+            buffer.put(index, (byte) (buffer.get(index) | (1 << (tile.index() % 8))));
+            long now = System.currentTimeMillis();
+            if (now - lastForce >= interval) {
+                force = true;
+                lastForce = now;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // the other tiles keep writing while the pages go to the disk
+        if (force) buffer.force();
+    }
+
+    /**
+     * Deletes the checkpoint file after the render was completed
+     */
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Can't delete checkpoint " + path, e);
+        }
+    }
+
+    /**
+     * Forces the finished tiles to the disk and closes the file
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!channel.isOpen()) return;
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Can't close checkpoint " + path, e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package org.example.renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coordinator of a render distributed over {@link RenderWorker} processes.
+ * The camera, with its ray tracer and scene, is serialized once and sent to
+ * every worker connecting to the coordinator's TCP port. The coordinator then
+ * hands out tiles of the frame, as many at a time as the worker has threads,
+ * and writes the returned pixels into the camera's image writer. A tile of a
+ * worker that disconnects, fails or exceeds the worker timeout is put back in
+ * the queue for the other workers. Workers may join while the render is
+ * running. While no worker is connected for the local fallback time, the
+ * coordinator renders the queued tiles itself, so a render always finishes.
+ * <p>
+ * The port listens on the loopback address unless another address is given.
+ * Only the camera is serialized, everything else is a stream of ints:
+ * <pre>
+ * worker:      threads, then index and packed RGB pixels of each rendered tile
+ * coordinator: camera length and bytes, then index, x, y, width and height of
+ *              each tile, and -1 when the render is finished
+ * </pre>
+ * A coordinator renders a single frame, its port is closed by the render.
+ */
+public class RenderCoordinator implements AutoCloseable {
+    private static final long POLL_INTERVAL = 100; // milliseconds between checks of an idle worker
+    private static final int HANDSHAKE_TIMEOUT = 10_000; // milliseconds a connection has to tell its threads
+
+    private final Camera camera;
+    private final ServerSocket server;
+    private int tileSize = 32; // side of a tile in pixels
+    private int workerTimeout = 300_000; // milliseconds to wait for a tile, 0 to wait forever
+    private int localFallback = 10_000; // milliseconds without workers before rendering locally
+    private final Logger logger = Logger.getLogger("RenderCoordinator");
+
+    /**
+     * Opens the port of the coordinator on the loopback address, for workers of
+     * this machine, they may connect right away
+     *
+     * @param camera the camera rendering the frame, with its image writer
+     * @param port   TCP port to listen on, 0 for any free port
+     */
+    public RenderCoordinator(Camera camera, int port) {
+        this(camera, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Opens the port of the coordinator on an address, workers may connect right away
+     *
+     * @param camera  the camera rendering the frame, with its image writer
+     * @param address the local address to listen on, such as the address of the
+     *                network of the workers
+     * @param port    TCP port to listen on, 0 for any free port
+     */
+    public RenderCoordinator(Camera camera, InetAddress address, int port) {
+        this.camera = camera;
+        try {
+            server = new ServerSocket(port, 0, address);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't listen on port " + port, e);
+        }
+    }
+
+    /**
+     * Getter of the listening port, needed when the coordinator was opened on any free port
+     *
+     * @return the TCP port of the coordinator
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Sets the side of the tiles handed out to the workers
+     *
+     * @param tileSize the side of a tile in pixels
+     * @return the coordinator itself
+     */
+    public RenderCoordinator setTileSize(int tileSize) {
+        if (tileSize < 1) throw new IllegalArgumentException("Tile size must be greater than zero");
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * Sets the time a worker has to render a tile before it is considered dead
+     * and its tile is reassigned, five minutes by default
+     *
+     * @param milliseconds the timeout, 0 to wait forever
+     * @return the coordinator itself
+     */
+    public RenderCoordinator setWorkerTimeout(int milliseconds) {
+        if (milliseconds < 0) throw new IllegalArgumentException("Worker timeout must not be negative");
+        this.workerTimeout = milliseconds;
+        return this;
+    }
+
+    /**
+     * Sets the time the render waits without any connected worker before the
+     * coordinator renders the queued tiles itself. Tiles are still handed to
+     * workers connecting later.
+     *
+     * @param milliseconds the time, 0 to render locally as soon as no worker is connected
+     * @return the coordinator itself
+     */
+    public RenderCoordinator setLocalFallback(int milliseconds) {
+        if (milliseconds < 0) throw new IllegalArgumentException("Local fallback time must not be negative");
+        this.localFallback = milliseconds;
+        return this;
+    }
+
+    /**
+     * Renders the frame (or the crop window) of the camera on the connected
+     * workers, blocking until every tile is written into the image writer. The
+     * coordinator renders the tiles itself while no worker is connected for the
+     * local fallback time.
+     *
+     * @return the camera, for writing the image
+     */
+    public Camera render() {
+        Tile region = camera.prepareRender();
+        List<Tile> tiles = Tile.split(region.x(), region.y(), region.width(), region.height(), tileSize);
+        byte[] job = serialize(camera);
+        BlockingQueue<Tile> pending = new LinkedBlockingQueue<>(tiles);
+        CountDownLatch remaining = new CountDownLatch(tiles.size());
+
+        AtomicInteger workers = new AtomicInteger();
+        List<Thread> connections = Collections.synchronizedList(new LinkedList<>());
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    Socket socket = server.accept();
+                    workers.incrementAndGet();
+                    Thread connection = new Thread(() -> {
+                        try {
+                            serve(socket, job, pending, remaining);
+                        } finally {
+                            workers.decrementAndGet();
+                        }
+                    });
+                    connections.add(connection);
+                    connection.start();
+                }
+            } catch (IOException ignored) {
+                // the port is closed at the end of the render
+            }
+        });
+        acceptor.start();
+
+        try {
+            long idle = System.nanoTime();
+            while (!remaining.await(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (workers.get() > 0) idle = System.nanoTime();
+                else if (System.nanoTime() - idle >= localFallback * 1_000_000L)
+                    renderLocally(pending, remaining, workers);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Render interrupted", e);
+        } finally {
+            close();
+        }
+        try {
+            acceptor.join();
+            synchronized (connections) {
+                for (Thread connection : connections)
+                    connection.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return camera;
+    }
+
+    /**
+     * Renders queued tiles by the coordinator until a worker connects or the
+     * queue is empty
+     *
+     * @param pending   tiles waiting for a worker
+     * @param remaining count of the tiles not rendered yet
+     * @param workers   count of the connected workers
+     */
+    private void renderLocally(BlockingQueue<Tile> pending, CountDownLatch remaining, AtomicInteger workers) {
+        Tile tile;
+        while (workers.get() == 0 && (tile = pending.poll()) != null) {
+            camera.writeTile(tile, camera.traceTile(tile));
+            remaining.countDown();
+        }
+    }
+
+    /**
+     * Feeds tiles to a connected worker until no tile is left, keeping as many
+     * tiles assigned as the worker has threads. Tiles whose pixels don't come
+     * back are returned to the queue.
+     *
+     * @param socket    the connection to the worker
+     * @param job       the serialized camera
+     * @param pending   tiles waiting for a worker
+     * @param remaining count of the tiles not rendered yet
+     */
+    private void serve(Socket socket, byte[] job, BlockingQueue<Tile> pending, CountDownLatch remaining) {
+        Map<Integer, Tile> assigned = new HashMap<>();
+        try (socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT);
+            int threads = in.readInt();
+            if (threads < 1) throw new IOException("Wrong amount of worker threads " + threads);
+            socket.setSoTimeout(workerTimeout);
+            out.writeInt(job.length);
+            out.write(job);
+            out.flush();
+            while (remaining.getCount() > 0) {
+                while (assigned.size() < threads) {
+                    Tile tile = assigned.isEmpty()
+                            ? pending.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS) : pending.poll();
+                    if (tile == null) break;
+                    assigned.put(tile.index(), tile);
+                    out.writeInt(tile.index());
+                    out.writeInt(tile.x());
+                    out.writeInt(tile.y());
+                    out.writeInt(tile.width());
+                    out.writeInt(tile.height());
+                }
+                out.flush();
+                if (assigned.isEmpty()) continue;
+                int index = in.readInt();
+                Tile tile = assigned.get(index);
+                if (tile == null) throw new IOException("Tile " + index + " was not assigned to the worker");
+                int[] pixels = new int[tile.size()];
+                for (int i = 0; i < pixels.length; i++)
+                    pixels[i] = in.readInt();
+                camera.writeTile(tile, pixels);
+                assigned.remove(index);
+                remaining.countDown();
+            }
+            out.writeInt(-1);
+            out.flush();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Worker " + socket.getRemoteSocketAddress() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.addAll(assigned.values());
+        }
+    }
+
+    /**
+     * Serializes the camera with its ray tracer and scene
+     *
+     * @param camera the camera
+     * @return the serialized camera
+     */
+    private byte[] serialize(Camera camera) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(camera);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("The scene can't be serialized", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Closes the port of the coordinator
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "I/O error", e);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.example.renderer;
+
+import org.example.geometries.Intersectable;
+import org.example.geometries.IntersectionCounter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a render: the traced rays by kind, the intersection tests by
+ * geometry type, the shaded hits and their recursion depth.
+ * <p>
+ * A render collecting statistics has its own {@link Collector}: every thread
+ * of the render counts into its own {@link Counters}, bound to the thread while
+ * it traces a pixel, without any synchronization, and the counters are summed
+ * when the render finishes. Concurrent renders count separately. When the
+ * thread collects no statistics the instrumented code pays a thread local read
+ * per call. The totals are
+ * also committed as a JFR event, recorded when a flight recording enables
+ * {@code org.example.RenderStats}.
+ */
+public final class RenderStats {
+    private static final List<String> TYPE_NAMES = new ArrayList<>();
+    /** Index of the counter of each geometry type */
+    private static final ClassValue<Integer> TYPE_INDEX = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            synchronized (TYPE_NAMES) {
+                TYPE_NAMES.add(type.getSimpleName());
+                return TYPE_NAMES.size() - 1;
+            }
+        }
+    };
+
+    private final long primaryRays;
+    private final long shadowRays;
+    private final long reflectionRays;
+    private final long refractionRays;
+    private final long hits;
+    private final long depthSum;
+    private final Map<String, Long> intersectionTests;
+
+    /**
+     * Counters of a single thread. The fields are written only by their thread
+     * and read after the render has joined it.
+     */
+    static final class Counters extends IntersectionCounter {
+        long primaryRays;
+        long shadowRays;
+        long reflectionRays;
+        long refractionRays;
+        long hits;
+        long depthSum;
+        private long[] intersectionTests = new long[8];
+
+        @Override
+        public void intersectionTest(Intersectable geometry) {
+            int index = TYPE_INDEX.get(geometry.getClass());
+            if (index >= intersectionTests.length)
+                intersectionTests = Arrays.copyOf(intersectionTests, Math.max(index + 1, 2 * index));
+            ++intersectionTests[index];
+        }
+
+        /**
+         * Sums the rays traced by the thread
+         *
+         * @return the primary, shadow, reflection and refraction rays
+         */
+        long rays() {
+            return primaryRays + shadowRays + reflectionRays + refractionRays;
+        }
+
+        /**
+         * Counts a shaded hit
+         *
+         * @param depth the recursion depth of the ray, 0 for a primary ray
+         */
+        void hit(int depth) {
+            ++hits;
+            depthSum += depth;
+        }
+    }
+
+    /**
+     * JFR event with the totals of a render
+     */
+    @Name("org.example.RenderStats")
+    @Label("Render Statistics")
+    @Category("Ray Tracer")
+    @Description("Rays, intersection tests and hits of a render")
+    static final class RenderStatsEvent extends Event {
+        @Label("Primary Rays")
+        long primaryRays;
+        @Label("Shadow Rays")
+        long shadowRays;
+        @Label("Reflection Rays")
+        long reflectionRays;
+        @Label("Refraction Rays")
+        long refractionRays;
+        @Label("Intersection Tests")
+        long intersectionTests;
+        @Label("Hits")
+        long hits;
+        @Label("Average Recursion Depth")
+        double averageDepth;
+    }
+
+    /**
+     * Constructor of the totals of a render
+     */
+    private RenderStats(long primaryRays, long shadowRays, long reflectionRays, long refractionRays, long hits,
+                        long depthSum, Map<String, Long> intersectionTests) {
+        this.primaryRays = primaryRays;
+        this.shadowRays = shadowRays;
+        this.reflectionRays = reflectionRays;
+        this.refractionRays = refractionRays;
+        this.hits = hits;
+        this.depthSum = depthSum;
+        this.intersectionTests = Collections.unmodifiableMap(intersectionTests);
+    }
+
+    /**
+     * Collector of the statistics of a single render
+     */
+    static final class Collector {
+        private final List<Counters> all = Collections.synchronizedList(new ArrayList<>());
+        private final ThreadLocal<Counters> local = ThreadLocal.withInitial(() -> {
+            Counters counters = new Counters();
+            all.add(counters);
+            return counters;
+        });
+
+        /**
+         * Binds the counters of the current thread in the render to the thread
+         *
+         * @return the counter bound before, to be bound back by
+         * {@link IntersectionCounter#bind(IntersectionCounter)} when done
+         */
+        IntersectionCounter enter() {
+            return IntersectionCounter.bind(local.get());
+        }
+
+        /**
+         * Sums the counters of all the threads of the render, which must have
+         * been joined
+         *
+         * @return the totals of the render
+         */
+        RenderStats finish() {
+            long primary = 0, shadow = 0, reflection = 0, refraction = 0, hits = 0, depth = 0;
+            long[] tests = new long[0];
+            synchronized (all) {
+                for (Counters counters : all) {
+                    primary += counters.primaryRays;
+                    shadow += counters.shadowRays;
+                    reflection += counters.reflectionRays;
+                    refraction += counters.refractionRays;
+                    hits += counters.hits;
+                    depth += counters.depthSum;
+                    if (counters.intersectionTests.length > tests.length)
+                        tests = Arrays.copyOf(tests, counters.intersectionTests.length);
+                    for (int i = 0; i < counters.intersectionTests.length; i++)
+                        tests[i] += counters.intersectionTests[i];
+                }
+            }
+            Map<String, Long> intersectionTests = new LinkedHashMap<>();
+            synchronized (TYPE_NAMES) {
+                for (int i = 0; i < tests.length; i++)
+                    if (tests[i] > 0) intersectionTests.put(TYPE_NAMES.get(i), tests[i]);
+            }
+            RenderStats stats = new RenderStats(primary, shadow, reflection, refraction, hits, depth,
+                    intersectionTests);
+
+            RenderStatsEvent event = new RenderStatsEvent();
+            if (event.isEnabled()) {
+                event.primaryRays = primary;
+                event.shadowRays = shadow;
+                event.reflectionRays = reflection;
+                event.refractionRays = refraction;
+                event.intersectionTests = stats.getIntersectionTestsCount();
+                event.hits = hits;
+                event.averageDepth = stats.getAverageDepth();
+                event.commit();
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Gets the counters of the current thread
+     *
+     * @return the counters, null when the thread collects no statistics
+     */
+    static Counters counters() {
+        return IntersectionCounter.current() instanceof Counters counters ? counters : null;
+    }
+
+    /**
+     * Getter of the amount of rays from the camera
+     *
+     * @return the primary rays
+     */
+    public long getPrimaryRays() {
+        return primaryRays;
+    }
+
+    /**
+     * Getter of the amount of rays towards the lights
+     *
+     * @return the shadow rays
+     */
+    public long getShadowRays() {
+        return shadowRays;
+    }
+
+    /**
+     * Getter of the amount of reflected rays, including the glossy cone rays
+     *
+     * @return the reflection rays
+     */
+    public long getReflectionRays() {
+        return reflectionRays;
+    }
+
+    /**
+     * Getter of the amount of refracted rays, including the blurry cone rays
+     *
+     * @return the refraction rays
+     */
+    public long getRefractionRays() {
+        return refractionRays;
+    }
+
+    /**
+     * Getter of the amount of shaded intersections of primary and secondary rays
+     *
+     * @return the hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter of the average recursion depth of the hits, 0 for a hit of a primary ray
+     *
+     * @return the average depth, 0 if nothing was hit
+     */
+    public double getAverageDepth() {
+        return hits == 0 ? 0 : (double) depthSum / hits;
+    }
+
+    /**
+     * Getter of the intersection tests by geometry type
+     *
+     * @return the amount of tests of each geometry class name
+     */
+    public Map<String, Long> getIntersectionTests() {
+        return intersectionTests;
+    }
+
+    /**
+     * Getter of the total amount of intersection tests
+     *
+     * @return the intersection tests of all the geometry types
+     */
+    public long getIntersectionTestsCount() {
+        return intersectionTests.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "primary rays: " + primaryRays + ", shadow rays: " + shadowRays
+                + ", reflection rays: " + reflectionRays + ", refraction rays: " + refractionRays
+                + ", hits: " + hits + ", average depth: " + String.format("%.3f", getAverageDepth())
+                + ", intersection tests: " + intersectionTests;
+    }
+}
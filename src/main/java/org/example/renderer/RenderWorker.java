@@ -0,0 +1,166 @@
+package org.example.renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Worker of a distributed render. A worker connects to a
+ * {@link RenderCoordinator}, receives the serialized camera with its scene
+ * once and renders the tiles it is handed by a pool of threads sharing the
+ * camera, until the coordinator finishes the frame. Run one worker per machine:
+ * <pre>
+ * java org.example.renderer.RenderWorker host port [threads]
+ * </pre>
+ * The camera is deserialized through a filter accepting only the classes of
+ * a camera, its ray tracer and its scene.
+ */
+public final class RenderWorker {
+    private static final Logger logger = Logger.getLogger("RenderWorker");
+    /**
+     * Classes a camera job may hold, anything else is rejected
+     */
+    private static final ObjectInputFilter JOB_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=100;"
+                    + "org.example.renderer.Camera;org.example.renderer.PixelCost;"
+                    + "org.example.renderer.RayTracerBase;org.example.renderer.SimpleRayTracer;"
+                    + "org.example.scene.*;org.example.geometries.*;org.example.lighting.*;org.example.primitives.*;"
+                    + "java.lang.Enum;java.lang.Object;java.util.ArrayList;java.util.LinkedList;java.util.CollSer;"
+                    + "java.util.ImmutableCollections$List12;java.util.ImmutableCollections$ListN;!*");
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private RenderWorker() {
+    }
+
+    /**
+     * Starts the worker of this machine
+     *
+     * @param args host and port of the coordinator, optional amount of threads
+     *             (all the cores by default)
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: RenderWorker host port [threads]");
+            System.exit(1);
+        }
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int threadsCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        run(host, port, threadsCount);
+    }
+
+    /**
+     * Renders tiles for a coordinator by a thread per core until it finishes the frame
+     *
+     * @param host host of the coordinator
+     * @param port TCP port of the coordinator
+     */
+    public static void run(String host, int port) {
+        run(host, port, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Renders tiles for a coordinator until it finishes the frame
+     *
+     * @param host    host of the coordinator
+     * @param port    TCP port of the coordinator
+     * @param threads amount of tiles rendered at once
+     */
+    public static void run(String host, int port, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Threads count must be greater than zero");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (Socket socket = new Socket(host, port)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out.writeInt(threads);
+            out.flush();
+            Camera camera = readJob(in);
+            ReentrantLock lock = new ReentrantLock();
+            int index;
+            while ((index = in.readInt()) >= 0) {
+                Tile tile = new Tile(index, in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                if (tile.width() < 1 || tile.height() < 1) throw new IOException("Wrong tile " + tile);
+                pool.execute(() -> {
+                    try {
+                        int[] pixels = camera.traceTile(tile);
+                        lock.lock();
+                        try {
+                            out.writeInt(tile.index());
+                            for (int pixel : pixels)
+                                out.writeInt(pixel);
+                            out.flush();
+                        } finally {
+                            lock.unlock();
+                        }
+                    } catch (Throwable e) {
+                        // closing the connection makes the coordinator requeue the tiles of the worker
+                        failure.compareAndSet(null, e);
+                        close(socket);
+                    }
+                });
+            }
+            if (failure.get() != null) throw new IOException("A tile failed", failure.get());
+        } catch (IOException | ClassNotFoundException e) {
+            Throwable cause = failure.get() != null ? failure.get() : e;
+            logger.log(Level.SEVERE, "Render error", cause);
+            throw new IllegalStateException("Rendering for the coordinator " + host + ":" + port + " failed", cause);
+        } finally {
+            pool.shutdownNow();
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Closes the connection to the coordinator, failing the reads of the worker
+     *
+     * @param socket the connection
+     */
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "I/O error", e);
+        }
+    }
+
+    /**
+     * Reads the camera of the render, rejecting the classes a camera doesn't hold
+     *
+     * @param in the stream from the coordinator
+     * @return the camera with its ray tracer and scene
+     * @throws IOException            if the stream fails or holds a rejected class
+     * @throws ClassNotFoundException if a class of the camera is missing
+     */
+    private static Camera readJob(DataInputStream in) throws IOException, ClassNotFoundException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Wrong camera length " + length);
+        byte[] job = new byte[length];
+        in.readFully(job);
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(job))) {
+            objects.setObjectInputFilter(JOB_FILTER);
+            Object camera = objects.readObject();
+            if (!(camera instanceof Camera)) throw new IOException("The job is not a camera");
+            return (Camera) camera;
+        }
+    }
+}
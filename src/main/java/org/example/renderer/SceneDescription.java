@@ -0,0 +1,524 @@
+package org.example.renderer;
+
+import org.example.geometries.Cylinder;
+import org.example.geometries.Geometries;
+import org.example.geometries.Geometry;
+import org.example.geometries.Instance;
+import org.example.geometries.Intersectable;
+import org.example.geometries.Plane;
+import org.example.geometries.Polygon;
+import org.example.geometries.Sphere;
+import org.example.geometries.Triangle;
+import org.example.geometries.Tube;
+import org.example.lighting.AmbientLight;
+import org.example.lighting.AreaLight;
+import org.example.lighting.DirectionalLight;
+import org.example.lighting.DiskLight;
+import org.example.lighting.PointLight;
+import org.example.lighting.RectangleLight;
+import org.example.lighting.SpotLight;
+import org.example.primitives.Color;
+import org.example.primitives.Double3;
+import org.example.primitives.Material;
+import org.example.primitives.Point;
+import org.example.primitives.Ray;
+import org.example.primitives.Transform;
+import org.example.primitives.Vector;
+import org.example.scene.Scene;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Scene description file loader. The XML file is read by a streaming StAX
+ * parser, every element is turned into its scene object as soon as it is read,
+ * so large generated scenes load without holding a document tree in memory.
+ * <pre>
+ * &lt;scene name="..." background="r g b"&gt;
+ *   &lt;ambient color="r g b" ka="k"/&gt;
+ *   &lt;material id="..." kd="k" ks="k" kt="k" kr="k" shininess="n" glossiness="g" blurriness="b"/&gt;
+ *   &lt;sphere center="x y z" radius="r" emission="r g b" material="id"/&gt;
+ *   &lt;plane point="x y z" normal="x y z"/&gt;
+ *   &lt;triangle vertices="x y z, x y z, x y z"/&gt;
+ *   &lt;polygon vertices="x y z, x y z, x y z, ..."/&gt;
+ *   &lt;tube origin="x y z" direction="x y z" radius="r"/&gt;
+ *   &lt;cylinder origin="x y z" direction="x y z" radius="r" height="h"/&gt;
+ *   &lt;group&gt; geometries &lt;/group&gt;
+ *   &lt;object id="..."&gt; geometries &lt;/object&gt;
+ *   &lt;instance object="id" matrix="m00 m01 m02 tx m10 m11 m12 ty m20 m21 m22 tz"/&gt;
+ *   &lt;directional intensity="r g b" direction="x y z"/&gt;
+ *   &lt;point intensity="r g b" position="x y z" kc="k" kl="k" kq="k" threshold="t"/&gt;
+ *   &lt;spot ... direction="x y z"/&gt;
+ *   &lt;rectangle ... u="x y z" v="x y z" width="w" height="h" grid="n" depth="d"/&gt;
+ *   &lt;disk ... normal="x y z" radius="r" grid="n" depth="d"/&gt;
+ *   &lt;tracer adaptive="true" max-level="n" cone-samples="n"/&gt;
+ *   &lt;camera position="x y z" direction="x y z" up="x y z" vp-size="w h" vp-distance="d"
+ *           resolution="nx ny" beam="rows columns" aperture="a" focal-distance="f"
+ *           aperture-rays="n" seed="s"/&gt;
+ * &lt;/scene&gt;
+ * </pre>
+ * An object is a shared collection of geometries under its own hierarchy,
+ * placed in the scene only by its instances. The matrix of an instance is row
+ * major, the identity if missing. A material must be defined before the
+ * geometries referring to it, and an object before its instances. The
+ * coefficients of a material are a single number or three numbers. Elements
+ * used only for grouping, like &lt;geometries&gt;, &lt;lights&gt; and
+ * &lt;materials&gt;, may wrap the elements for readability.
+ */
+public final class SceneDescription {
+    private static final Logger logger = Logger.getLogger("SceneDescription");
+
+    private final Scene scene;
+    private final Camera.Builder cameraBuilder;
+    private final int nX;
+    private final int nY;
+
+    /**
+     * Constructor of a loaded description
+     *
+     * @param scene         the scene
+     * @param cameraBuilder builder of the camera with its ray tracer
+     * @param nX            image width
+     * @param nY            image height
+     */
+    private SceneDescription(Scene scene, Camera.Builder cameraBuilder, int nX, int nY) {
+        this.scene = scene;
+        this.cameraBuilder = cameraBuilder;
+        this.nX = nX;
+        this.nY = nY;
+    }
+
+    /**
+     * Getter of the loaded scene
+     *
+     * @return the scene
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Getter of a builder of the described camera, with the described ray
+     * tracer. The image writer is still to be set.
+     *
+     * @return the camera builder
+     */
+    public Camera.Builder getCameraBuilder() {
+        return cameraBuilder;
+    }
+
+    /**
+     * Getter of the image width
+     *
+     * @return amount of pixels by width
+     */
+    public int getNx() {
+        return nX;
+    }
+
+    /**
+     * Getter of the image height
+     *
+     * @return amount of pixels by height
+     */
+    public int getNy() {
+        return nY;
+    }
+
+    /**
+     * Loads a scene description file
+     *
+     * @param path the scene file
+     * @return the loaded description
+     * @throws IllegalArgumentException if the file is not a valid scene description
+     */
+    public static SceneDescription load(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't read scene " + path, e);
+        }
+    }
+
+    /**
+     * Reads a scene description
+     *
+     * @param in the XML stream
+     * @return the loaded description
+     * @throws IllegalArgumentException if the stream is not a valid scene description
+     */
+    public static SceneDescription read(InputStream in) {
+        XMLStreamReader reader = null;
+        try {
+            SceneLoadEvent event = new SceneLoadEvent("xml");
+            event.begin();
+            // a scene file may come from anywhere, so it must not pull in DTDs or external entities
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            reader = factory.createXMLStreamReader(in);
+            SceneDescription description = new Parser(reader).parse();
+            event.commit(description.getScene());
+            return description;
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Malformed scene description: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * State of a single streaming parse
+     */
+    private static final class Parser {
+        private final XMLStreamReader reader;
+        private final Map<String, Material> materials = new HashMap<>();
+        private final Map<String, Geometries> objects = new HashMap<>();
+        private final Deque<Geometries> groups = new ArrayDeque<>();
+        private Scene scene;
+        private Camera.Builder cameraBuilder;
+        private int nX;
+        private int nY;
+        private boolean adaptive = false;
+        private int maxLevel = 1;
+        private int coneSamples = 16;
+
+        private Parser(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Reads the whole stream
+         *
+         * @return the loaded description
+         */
+        private SceneDescription parse() throws XMLStreamException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    startElement(reader.getLocalName());
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("group")) {
+                    Geometries group = groups.pop();
+                    groups.peek().add(group);
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("object")) {
+                    groups.pop().buildBvh();
+                }
+            }
+            if (scene == null) throw error("Missing <scene> element");
+            if (cameraBuilder == null) throw error("Missing <camera> element");
+            cameraBuilder.setRayTracer(new SimpleRayTracer(scene)
+                    .setAdaptiveGrid(adaptive).setMaxLevel(maxLevel).setConeSamples(coneSamples));
+            return new SceneDescription(scene, cameraBuilder, nX, nY);
+        }
+
+        /**
+         * Handles the start of an element
+         *
+         * @param name the element name
+         */
+        private void startElement(String name) {
+            if (scene == null && !name.equals("scene")) throw error("The root element must be <scene>");
+            try {
+                switch (name) {
+                    case "scene" -> {
+                        if (scene != null) throw error("Nested <scene> element");
+                        scene = new Scene(attribute("name", "scene"))
+                                .setBackground(color("background", Color.BLACK));
+                        groups.push(scene.geometries);
+                    }
+                    case "materials", "geometries", "lights" -> {
+                    }
+                    case "ambient" -> scene.setAmbientLight(
+                            new AmbientLight(color("color", null), number("ka", 1)));
+                    case "material" -> materials.put(attribute("id", null), material());
+                    case "group" -> groups.push(new Geometries());
+                    case "object" -> {
+                        Geometries object = new Geometries();
+                        if (objects.putIfAbsent(attribute("id", null), object) != null)
+                            throw error("Object " + attribute("id", null) + " is already defined");
+                        groups.push(object);
+                    }
+                    case "instance" -> {
+                        Geometries object = objects.get(attribute("object", null));
+                        if (object == null) throw error("Undefined object " + attribute("object", null));
+                        if (groups.contains(object)) throw error("An object can't contain its own instance");
+                        Transform transform = reader.getAttributeValue(null, "matrix") == null ? Transform.IDENTITY
+                                : Transform.of(numbers("matrix", 12));
+                        groups.peek().add(new Instance(object, transform));
+                    }
+                    case "sphere" -> add(new Sphere(point("center"), number("radius", Double.NaN)));
+                    case "plane" -> add(new Plane(point("point"), vector("normal")));
+                    case "triangle" -> {
+                        Point[] vertices = points("vertices");
+                        if (vertices.length != 3) throw error("A triangle must have 3 vertices");
+                        add(new Triangle(vertices[0], vertices[1], vertices[2]));
+                    }
+                    case "polygon" -> add(new Polygon(points("vertices")));
+                    case "tube" -> add(new Tube(new Ray(point("origin"), vector("direction")),
+                            number("radius", Double.NaN)));
+                    case "cylinder" -> add(new Cylinder(new Ray(point("origin"), vector("direction")),
+                            number("height", Double.NaN), number("radius", Double.NaN)));
+                    case "directional" -> scene.lights.add(
+                            new DirectionalLight(color("intensity", null), vector("direction")));
+                    case "point" -> scene.lights.add(attenuation(
+                            new PointLight(color("intensity", null), point("position"))));
+                    case "spot" -> scene.lights.add(attenuation(
+                            new SpotLight(color("intensity", null), point("position"), vector("direction"))));
+                    case "rectangle" -> scene.lights.add(attenuation(area(
+                            new RectangleLight(color("intensity", null), point("center"), vector("u"), vector("v"),
+                                    number("width", Double.NaN), number("height", Double.NaN)))));
+                    case "disk" -> scene.lights.add(attenuation(area(
+                            new DiskLight(color("intensity", null), point("center"), vector("normal"),
+                                    number("radius", Double.NaN)))));
+                    case "tracer" -> {
+                        adaptive = Boolean.parseBoolean(attribute("adaptive", "false"));
+                        maxLevel = (int) number("max-level", maxLevel);
+                        coneSamples = (int) number("cone-samples", coneSamples);
+                    }
+                    case "camera" -> camera();
+                    default -> throw error("Unknown element <" + name + ">");
+                }
+            } catch (IllegalArgumentException e) {
+                if (e.getMessage() != null && e.getMessage().startsWith("Line ")) throw e;
+                throw error("<" + name + ">: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Adds a geometry to the current group, with its emission and material
+         *
+         * @param geometry the geometry
+         */
+        private void add(Geometry geometry) {
+            geometry.setEmission(color("emission", Color.BLACK));
+            String material = attribute("material", "");
+            if (!material.isEmpty()) {
+                Material value = materials.get(material);
+                if (value == null) throw error("Undefined material " + material);
+                geometry.setMaterial(value);
+            }
+            groups.peek().add(geometry);
+        }
+
+        /**
+         * Reads the current material element
+         *
+         * @return the material
+         */
+        private Material material() {
+            return new Material()
+                    .setKd(coefficient("kd")).setKs(coefficient("ks"))
+                    .setKt(coefficient("kt")).setKr(coefficient("kr"))
+                    .setShininess((int) number("shininess", 0))
+                    .setGlossiness(number("glossiness", 0))
+                    .setBlurriness(number("blurriness", 0));
+        }
+
+        /**
+         * Sets the attenuation of a light from the current element
+         *
+         * @param light the light
+         * @return the light
+         */
+        private PointLight attenuation(PointLight light) {
+            return light.setKc(number("kc", 1)).setKl(number("kl", 0)).setKq(number("kq", 0))
+                    .setIntensityThreshold(number("threshold", 0));
+        }
+
+        /**
+         * Sets the sample grid of an area light from the current element
+         *
+         * @param light the light
+         * @return the light
+         */
+        private AreaLight area(AreaLight light) {
+            return light.setGridSize((int) number("grid", light.getGridSize()))
+                    .setAdaptiveDepth((int) number("depth", light.getAdaptiveDepth()));
+        }
+
+        /**
+         * Reads the current camera element
+         */
+        private void camera() {
+            double[] resolution = numbers("resolution", 2);
+            nX = (int) resolution[0];
+            nY = (int) resolution[1];
+            double[] vpSize = numbers("vp-size", 2);
+            cameraBuilder = Camera.getBuilder()
+                    .setLocation(point("position"))
+                    .setDirection(vector("direction"), vector("up"))
+                    .setVpSize(vpSize[0], vpSize[1])
+                    .setVpDistance(number("vp-distance", Double.NaN))
+                    .setRandomSeed((long) number("seed", 0));
+            if (reader.getAttributeValue(null, "beam") != null) {
+                double[] beam = numbers("beam", 2);
+                cameraBuilder.ifImprovment(true).setBeamRays((int) beam[0], (int) beam[1]);
+            }
+            double aperture = number("aperture", 0);
+            if (aperture > 0) {
+                cameraBuilder.setAperture(aperture).setApertureRays((int) number("aperture-rays", 9));
+                double focalDistance = number("focal-distance", 0);
+                if (focalDistance > 0) cameraBuilder.setFocalDistance(focalDistance);
+            }
+        }
+
+        /**
+         * Reads an attribute of the current element
+         *
+         * @param name         the attribute name
+         * @param defaultValue value of a missing attribute, null if the attribute is required
+         * @return the attribute value
+         */
+        private String attribute(String name, String defaultValue) {
+            String value = reader.getAttributeValue(null, name);
+            if (value != null) return value.trim();
+            if (defaultValue == null) throw error("Missing attribute " + name);
+            return defaultValue;
+        }
+
+        /**
+         * Reads a number attribute
+         *
+         * @param name         the attribute name
+         * @param defaultValue value of a missing attribute, NaN if the attribute is required
+         * @return the number
+         */
+        private double number(String name, double defaultValue) {
+            String value = attribute(name, Double.isNaN(defaultValue) ? null : "");
+            if (value.isEmpty()) return defaultValue;
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw error("Attribute " + name + " is not a number: " + value);
+            }
+        }
+
+        /**
+         * Reads a required attribute of several numbers separated by spaces
+         *
+         * @param name  the attribute name
+         * @param count the expected amount of numbers
+         * @return the numbers
+         */
+        private double[] numbers(String name, int count) {
+            return split(name, attribute(name, null), count);
+        }
+
+        /**
+         * Splits a list of numbers
+         *
+         * @param name  the attribute name, for error messages
+         * @param value the numbers separated by spaces
+         * @param count the expected amount of numbers
+         * @return the numbers
+         */
+        private double[] split(String name, String value, int count) {
+            String[] parts = value.trim().split("\\s+");
+            if (parts.length != count)
+                throw error("Attribute " + name + " must have " + count + " numbers: " + value);
+            double[] numbers = new double[count];
+            try {
+                for (int i = 0; i < count; i++)
+                    numbers[i] = Double.parseDouble(parts[i]);
+            } catch (NumberFormatException e) {
+                throw error("Attribute " + name + " is not a list of numbers: " + value);
+            }
+            return numbers;
+        }
+
+        /**
+         * Reads a required point attribute
+         *
+         * @param name the attribute name
+         * @return the point
+         */
+        private Point point(String name) {
+            double[] xyz = numbers(name, 3);
+            return new Point(xyz[0], xyz[1], xyz[2]);
+        }
+
+        /**
+         * Reads a required vector attribute
+         *
+         * @param name the attribute name
+         * @return the vector
+         */
+        private Vector vector(String name) {
+            double[] xyz = numbers(name, 3);
+            return new Vector(xyz[0], xyz[1], xyz[2]);
+        }
+
+        /**
+         * Reads a required attribute of points separated by commas
+         *
+         * @param name the attribute name
+         * @return the points
+         */
+        private Point[] points(String name) {
+            String[] parts = attribute(name, null).split(",");
+            Point[] points = new Point[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                double[] xyz = split(name, parts[i], 3);
+                points[i] = new Point(xyz[0], xyz[1], xyz[2]);
+            }
+            return points;
+        }
+
+        /**
+         * Reads a color attribute
+         *
+         * @param name         the attribute name
+         * @param defaultValue color of a missing attribute, null if the attribute is required
+         * @return the color
+         */
+        private Color color(String name, Color defaultValue) {
+            if (defaultValue != null && reader.getAttributeValue(null, name) == null) return defaultValue;
+            double[] rgb = numbers(name, 3);
+            return new Color(rgb[0], rgb[1], rgb[2]);
+        }
+
+        /**
+         * Reads a material coefficient of one or three numbers, zero if missing
+         *
+         * @param name the attribute name
+         * @return the coefficient
+         */
+        private Double3 coefficient(String name) {
+            String value = attribute(name, "0");
+            if (value.split("\\s+").length == 1) {
+                double[] k = split(name, value, 1);
+                return new Double3(k[0]);
+            }
+            double[] k = split(name, value, 3);
+            return new Double3(k[0], k[1], k[2]);
+        }
+
+        /**
+         * Creates an error of the scene file at the current line
+         *
+         * @param message the error description
+         * @return the exception to throw
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Line " + reader.getLocation().getLineNumber() + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.example.scene.Scene;
+
+/**
+ * JFR event of loading a scene from a description or a snapshot, recorded when
+ * a flight recording enables {@code org.example.SceneLoad}. The duration of the
+ * event covers parsing the file and building the geometries of the scene.
+ */
+@Name("org.example.SceneLoad")
+@Label("Scene Load")
+@Category("Ray Tracer")
+@Description("Parsing a scene file and building its geometries")
+@StackTrace(false)
+final class SceneLoadEvent extends Event {
+    @Label("Format")
+    String format;
+    @Label("Scene")
+    String scene;
+    @Label("Geometries")
+    @Description("Top level geometries of the scene")
+    int geometries;
+    @Label("Lights")
+    int lights;
+
+    /**
+     * Constructor of the event of a scene file format
+     *
+     * @param format the file format
+     */
+    SceneLoadEvent(String format) {
+        this.format = format;
+    }
+
+    /**
+     * Ends the event and commits it with the loaded scene if the recording wants it
+     *
+     * @param loaded the loaded scene
+     */
+    void commit(Scene loaded) {
+        end();
+        if (!shouldCommit()) return;
+        scene = loaded.name;
+        geometries = loaded.geometries.getGeometries().size();
+        lights = loaded.lights.size();
+        commit();
+    }
+}
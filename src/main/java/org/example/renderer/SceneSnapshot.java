@@ -0,0 +1,675 @@
+package org.example.renderer;
+
+import org.example.geometries.Bvh;
+import org.example.geometries.Cylinder;
+import org.example.geometries.Geometries;
+import org.example.geometries.Geometry;
+import org.example.geometries.Instance;
+import org.example.geometries.Intersectable;
+import org.example.geometries.Plane;
+import org.example.geometries.Polygon;
+import org.example.geometries.Sphere;
+import org.example.geometries.Triangle;
+import org.example.geometries.Tube;
+import org.example.geometries.UniformGrid;
+import org.example.lighting.AmbientLight;
+import org.example.lighting.AreaLight;
+import org.example.lighting.DirectionalLight;
+import org.example.lighting.DiskLight;
+import org.example.lighting.LightSource;
+import org.example.lighting.PointLight;
+import org.example.lighting.RectangleLight;
+import org.example.lighting.SpotLight;
+import org.example.primitives.Color;
+import org.example.primitives.Double3;
+import org.example.primitives.Material;
+import org.example.primitives.Point;
+import org.example.primitives.Ray;
+import org.example.primitives.Transform;
+import org.example.primitives.Vector;
+import org.example.scene.Scene;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binary snapshot of a scene and its camera. The file is memory mapped and
+ * the scene is rebuilt in a single pass over the mapped buffer, with no text
+ * parsing and no per-object serialization overhead. The geometries are stored
+ * as arrays grouped by type, referring to a shared table of materials.
+ * Nested collections of geometries are flattened. The shared object of
+ * instances is stored once, with its own geometries and instances, and the
+ * instances refer to it by its order among the objects.
+ * <pre>
+ * int magic, int version, (int offset, int length) of each section
+ * SCENE:        int nameLength, byte[nameLength] UTF-8 name, double[3] background, double[3] ambient
+ * MATERIALS:    int count, count * (double[12] kD kS kT kR, int shininess, double glossiness, double blurriness)
+ * GEOMETRIES:   for sphere, plane, triangle, polygon, tube and cylinder:
+ *               int count, count * (int material, double[3] emission, shape data)
+ * LIGHTS:       int count, count * (int type, double[3] intensity, light data)
+ * CAMERA:       int present, camera view data
+ * ACCELERATION: the bounding volume hierarchy of the geometries as written by
+ *               {@link Bvh#write}, referring to the geometries by their order in
+ *               GEOMETRIES followed by the instances of the scene, empty if there is none
+ * INSTANCES:    int objects, objects * (the geometries of the object as in GEOMETRIES,
+ *               its instances, byte hierarchy), the instances of the scene
+ *               where instances are int count, count * (int object, double[12] matrix)
+ * </pre>
+ * All the values are big endian.
+ */
+public final class SceneSnapshot {
+    private static final int MAGIC = 0x52545353; // "RTSS"
+    private static final int VERSION = 3;
+
+    private static final int SCENE = 0;
+    private static final int MATERIALS = 1;
+    private static final int GEOMETRIES = 2;
+    private static final int LIGHTS = 3;
+    private static final int CAMERA = 4;
+    private static final int ACCELERATION = 5;
+    private static final int INSTANCES = 6;
+    private static final int SECTIONS = 7;
+    private static final int HEADER_SIZE = (2 + 2 * SECTIONS) * Integer.BYTES;
+
+    private static final int DIRECTIONAL_LIGHT = 0;
+    private static final int POINT_LIGHT = 1;
+    private static final int SPOT_LIGHT = 2;
+    private static final int RECTANGLE_LIGHT = 3;
+    private static final int DISK_LIGHT = 4;
+
+    private static final Logger logger = Logger.getLogger("SceneSnapshot");
+
+    private final Scene scene;
+    private final Camera.Builder cameraBuilder;
+
+    /**
+     * Constructor of a loaded snapshot
+     *
+     * @param scene         the loaded scene
+     * @param cameraBuilder builder of the loaded camera, null if no camera was stored
+     */
+    private SceneSnapshot(Scene scene, Camera.Builder cameraBuilder) {
+        this.scene = scene;
+        this.cameraBuilder = cameraBuilder;
+    }
+
+    /**
+     * Getter of the loaded scene
+     *
+     * @return the scene
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Getter of a builder of the loaded camera. The builder has the stored view
+     * settings, the ray tracer and the image writer are still to be set.
+     *
+     * @return the camera builder, null if the snapshot has no camera
+     */
+    public Camera.Builder getCameraBuilder() {
+        return cameraBuilder;
+    }
+
+    /**
+     * Writes a snapshot of a scene and its camera
+     *
+     * @param path   the snapshot file
+     * @param scene  the scene
+     * @param camera the camera, may be null
+     * @throws IllegalArgumentException if the scene has a geometry or a light the format doesn't know
+     */
+    public static void write(Path path, Scene scene, Camera camera) {
+        Map<Material, Integer> materials = new IdentityHashMap<>();
+        Map<Intersectable, Integer> objects = new IdentityHashMap<>();
+        List<Content> objectContents = new ArrayList<>();
+        Content content = new Content(scene.geometries);
+        collect(scene.geometries.getGeometries(), content, materials, objects, objectContents);
+
+        try (OutputStream file = Files.newOutputStream(path)) {
+            byte[][] sections = new byte[SECTIONS][];
+            sections[SCENE] = section(out -> {
+                byte[] name = (scene.name == null ? "" : scene.name).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                writeColor(out, scene.background);
+                writeColor(out, scene.ambientLight.getIntensity());
+            });
+            sections[MATERIALS] = section(out -> {
+                Material[] table = new Material[materials.size()];
+                materials.forEach((material, index) -> table[index] = material);
+                out.writeInt(table.length);
+                for (Material material : table) {
+                    writeDouble3(out, material.kD);
+                    writeDouble3(out, material.kS);
+                    writeDouble3(out, material.kT);
+                    writeDouble3(out, material.kR);
+                    out.writeInt(material.nShininess);
+                    out.writeDouble(material.glossiness);
+                    out.writeDouble(material.blurriness);
+                }
+            });
+            sections[GEOMETRIES] = section(out -> writeGeometries(out, content, materials));
+            sections[INSTANCES] = section(out -> {
+                out.writeInt(objectContents.size());
+                for (Content object : objectContents) {
+                    writeGeometries(out, object, materials);
+                    writeInstances(out, object, objects);
+                    Intersectable shared = object.source();
+                    out.writeBoolean(shared instanceof Bvh
+                            || shared instanceof Geometries nested && nested.getBvh() != null);
+                }
+                writeInstances(out, content, objects);
+            });
+            sections[LIGHTS] = section(out -> {
+                out.writeInt(scene.lights.size());
+                for (LightSource light : scene.lights)
+                    writeLight(out, light);
+            });
+            sections[CAMERA] = section(out -> {
+                out.writeBoolean(camera != null);
+                if (camera != null) camera.writeView(out);
+            });
+            Bvh bvh = scene.geometries.getBvh();
+            Map<Intersectable, Integer> indices = new IdentityHashMap<>();
+            for (List<Geometry> group : content.groups())
+                for (Geometry geometry : group) indices.put(geometry, indices.size());
+            for (Instance instance : content.instances()) indices.put(instance, indices.size());
+            // a hierarchy over nested collections doesn't survive their flattening
+            sections[ACCELERATION] = bvh == null || !indices.keySet().containsAll(bvh.getGeometries()) ? new byte[0]
+                    : section(out -> bvh.write(out, indices::get));
+
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            int offset = HEADER_SIZE;
+            for (byte[] section : sections) {
+                header.writeInt(offset);
+                header.writeInt(section.length);
+                offset += section.length;
+            }
+            for (byte[] section : sections)
+                header.write(section);
+            header.flush();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't write snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Loads a snapshot
+     *
+     * @param path the snapshot file
+     * @return the loaded snapshot
+     * @throws IllegalArgumentException if the file is not a snapshot of a known version
+     */
+    public static SceneSnapshot load(Path path) {
+        SceneLoadEvent event = new SceneLoadEvent("snapshot");
+        event.begin();
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't open snapshot " + path, e);
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IllegalArgumentException("Not a scene snapshot of version " + VERSION + ": " + path);
+
+        ByteBuffer in = section(buffer, SCENE);
+        byte[] name = new byte[in.getInt()];
+        in.get(name);
+        Scene scene = new Scene(new String(name, StandardCharsets.UTF_8))
+                .setBackground(readColor(in))
+                .setAmbientLight(new AmbientLight(readColor(in), 1));
+
+        in = section(buffer, MATERIALS);
+        Material[] materials = new Material[in.getInt()];
+        for (int i = 0; i < materials.length; i++) {
+            Material material = new Material();
+            material.kD = readDouble3(in);
+            material.kS = readDouble3(in);
+            material.kT = readDouble3(in);
+            material.kR = readDouble3(in);
+            material.nShininess = in.getInt();
+            material.glossiness = in.getDouble();
+            material.blurriness = in.getDouble();
+            materials[i] = material;
+        }
+
+        List<Intersectable> geometries = new ArrayList<>();
+        readGeometries(section(buffer, GEOMETRIES), materials, geometries);
+        in = section(buffer, INSTANCES);
+        List<Intersectable> objects = new ArrayList<>();
+        int objectsCount = in.getInt();
+        for (int i = 0; i < objectsCount; i++) {
+            List<Intersectable> parts = new ArrayList<>();
+            readGeometries(in, materials, parts);
+            readInstances(in, objects, parts);
+            Geometries object = new Geometries(parts.toArray(new Intersectable[0]));
+            if (in.get() != 0) object.buildBvh();
+            objects.add(object);
+        }
+        readInstances(in, objects, geometries);
+        scene.geometries.add(geometries.toArray(new Intersectable[0]));
+        in = section(buffer, ACCELERATION);
+        if (in.hasRemaining()) scene.geometries.setBvh(Bvh.read(in, geometries));
+
+        in = section(buffer, LIGHTS);
+        int lights = in.getInt();
+        for (int i = 0; i < lights; i++)
+            scene.lights.add(readLight(in));
+
+        in = section(buffer, CAMERA);
+        Camera.Builder cameraBuilder = in.get() != 0 ? Camera.readView(in) : null;
+        event.commit(scene);
+        return new SceneSnapshot(scene, cameraBuilder);
+    }
+
+    /**
+     * A writer of the content of a section
+     */
+    @FunctionalInterface
+    private interface SectionWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    /**
+     * Encodes a section in memory, so its length is known for the header
+     *
+     * @param writer writer of the section content
+     * @return the encoded section
+     */
+    private static byte[] section(SectionWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Finds a section of the mapped snapshot
+     *
+     * @param buffer  the mapped snapshot
+     * @param section index of the section
+     * @return a buffer of the section content
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int section) {
+        int offset = buffer.getInt(8 + 8 * section);
+        int length = buffer.getInt(12 + 8 * section);
+        return buffer.slice(offset, length);
+    }
+
+    /**
+     * The stored content of a collection
+     *
+     * @param source    the collection
+     * @param groups    lists of the geometries of each type
+     * @param instances the instances of the collection
+     */
+    private record Content(Intersectable source, List<List<Geometry>> groups, List<Instance> instances) {
+        /**
+         * Constructor of the empty content of a collection
+         *
+         * @param source the collection
+         */
+        private Content(Intersectable source) {
+            this(source, new ArrayList<>(), new ArrayList<>());
+            for (int i = 0; i < 6; i++) groups.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Sorts the geometries of a collection by their type and numbers their materials.
+     * Nested collections, grids and hierarchies are flattened. The shared object
+     * of an instance is collected once, after the objects it instances itself.
+     *
+     * @param geometries     the geometries of the collection
+     * @param content        the content of the collection
+     * @param materials      the materials table
+     * @param objects        the order of the shared objects
+     * @param objectContents the contents of the shared objects in their order
+     */
+    private static void collect(List<Intersectable> geometries, Content content, Map<Material, Integer> materials,
+                                Map<Intersectable, Integer> objects, List<Content> objectContents) {
+        List<List<Geometry>> groups = content.groups();
+        for (Intersectable intersectable : geometries) {
+            if (intersectable instanceof Geometries nested) {
+                collect(nested.getGeometries(), content, materials, objects, objectContents);
+                continue;
+            }
+            if (intersectable instanceof UniformGrid grid) {
+                collect(grid.getGeometries(), content, materials, objects, objectContents);
+                continue;
+            }
+            if (intersectable instanceof Bvh bvh) {
+                collect(bvh.getGeometries(), content, materials, objects, objectContents);
+                continue;
+            }
+            if (intersectable instanceof Instance instance) {
+                Intersectable shared = instance.getObject();
+                if (!objects.containsKey(shared)) {
+                    Content object = new Content(shared);
+                    collect(List.of(shared), object, materials, objects, objectContents);
+                    objects.put(shared, objectContents.size());
+                    objectContents.add(object);
+                }
+                content.instances().add(instance);
+                continue;
+            }
+            int type = switch (intersectable) {
+                case Sphere ignored -> 0;
+                case Plane ignored -> 1;
+                case Triangle ignored -> 2;
+                case Polygon ignored -> 3;
+                case Cylinder ignored -> 5;
+                case Tube ignored -> 4;
+                default -> throw new IllegalArgumentException(
+                        "Can't store " + intersectable.getClass().getSimpleName() + " in a snapshot");
+            };
+            Geometry geometry = (Geometry) intersectable;
+            groups.get(type).add(geometry);
+            materials.putIfAbsent(geometry.getMaterial(), materials.size());
+        }
+    }
+
+    /**
+     * Writes the geometries of a collection, grouped by type
+     *
+     * @param out       the section
+     * @param content   the content of the collection
+     * @param materials the materials table
+     */
+    private static void writeGeometries(DataOutput out, Content content, Map<Material, Integer> materials)
+            throws IOException {
+        for (List<Geometry> group : content.groups()) {
+            out.writeInt(group.size());
+            for (Geometry geometry : group) {
+                out.writeInt(materials.get(geometry.getMaterial()));
+                writeColor(out, geometry.getEmission());
+                writeShape(out, geometry);
+            }
+        }
+    }
+
+    /**
+     * Reads the geometries of a collection, grouped by type
+     *
+     * @param in         the section
+     * @param materials  the materials table
+     * @param geometries the list the geometries are added to
+     */
+    private static void readGeometries(ByteBuffer in, Material[] materials, List<Intersectable> geometries) {
+        for (int type = 0; type < 6; type++) {
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                Material material = materials[in.getInt()];
+                Color emission = readColor(in);
+                geometries.add(readShape(in, type).setEmission(emission).setMaterial(material));
+            }
+        }
+    }
+
+    /**
+     * Writes the instances of a collection
+     *
+     * @param out     the section
+     * @param content the content of the collection
+     * @param objects the order of the shared objects
+     */
+    private static void writeInstances(DataOutput out, Content content, Map<Intersectable, Integer> objects)
+            throws IOException {
+        out.writeInt(content.instances().size());
+        for (Instance instance : content.instances()) {
+            out.writeInt(objects.get(instance.getObject()));
+            for (double value : instance.getTransform().getMatrix())
+                out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Reads the instances of a collection
+     *
+     * @param in         the section
+     * @param objects    the shared objects read before
+     * @param geometries the list the instances are added to
+     */
+    private static void readInstances(ByteBuffer in, List<Intersectable> objects, List<Intersectable> geometries) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Intersectable object = objects.get(in.getInt());
+            double[] matrix = new double[12];
+            for (int j = 0; j < matrix.length; j++) matrix[j] = in.getDouble();
+            geometries.add(new Instance(object, Transform.of(matrix)));
+        }
+    }
+
+    /**
+     * Writes the shape data of a geometry
+     *
+     * @param out      the section
+     * @param geometry the geometry
+     */
+    private static void writeShape(DataOutput out, Geometry geometry) throws IOException {
+        switch (geometry) {
+            case Sphere sphere -> {
+                writePoint(out, sphere.getCenter());
+                out.writeDouble(sphere.getRadius());
+            }
+            case Plane plane -> {
+                writePoint(out, plane.getPoint());
+                writePoint(out, plane.getNormal());
+            }
+            case Triangle triangle -> {
+                for (Point vertex : triangle.getVertices())
+                    writePoint(out, vertex);
+            }
+            case Polygon polygon -> {
+                out.writeInt(polygon.getVertices().size());
+                for (Point vertex : polygon.getVertices())
+                    writePoint(out, vertex);
+            }
+            case Tube tube -> {
+                writePoint(out, tube.getAxis().getHead());
+                writePoint(out, tube.getAxis().getDirection());
+                out.writeDouble(tube.getRadius());
+                if (tube instanceof Cylinder cylinder) out.writeDouble(cylinder.getHeight());
+            }
+            default -> throw new IllegalArgumentException("Unknown geometry " + geometry.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Reads the shape data of a geometry
+     *
+     * @param in   the section
+     * @param type the geometry type
+     * @return the geometry
+     */
+    private static Geometry readShape(ByteBuffer in, int type) {
+        return switch (type) {
+            case 0 -> new Sphere(readPoint(in), in.getDouble());
+            case 1 -> new Plane(readPoint(in), readVector(in));
+            case 2 -> new Triangle(readPoint(in), readPoint(in), readPoint(in));
+            case 3 -> {
+                Point[] vertices = new Point[in.getInt()];
+                for (int i = 0; i < vertices.length; i++) vertices[i] = readPoint(in);
+                yield new Polygon(vertices);
+            }
+            case 4 -> new Tube(new Ray(readPoint(in), readVector(in)), in.getDouble());
+            default -> {
+                Ray axis = new Ray(readPoint(in), readVector(in));
+                double radius = in.getDouble();
+                yield new Cylinder(axis, in.getDouble(), radius);
+            }
+        };
+    }
+
+    /**
+     * Writes a light source
+     *
+     * @param out   the section
+     * @param light the light source
+     */
+    private static void writeLight(DataOutput out, LightSource light) throws IOException {
+        int type = switch (light) {
+            case DirectionalLight ignored -> DIRECTIONAL_LIGHT;
+            case SpotLight ignored -> SPOT_LIGHT;
+            case RectangleLight ignored -> RECTANGLE_LIGHT;
+            case DiskLight ignored -> DISK_LIGHT;
+            case PointLight pointLight when pointLight.getClass() == PointLight.class -> POINT_LIGHT;
+            default -> throw new IllegalArgumentException(
+                    "Can't store " + light.getClass().getSimpleName() + " in a snapshot");
+        };
+        out.writeInt(type);
+        if (light instanceof DirectionalLight directional) {
+            writeColor(out, directional.getIntensity());
+            writePoint(out, directional.getDirection());
+            return;
+        }
+        PointLight pointLight = (PointLight) light;
+        writeColor(out, pointLight.getIntensity());
+        writePoint(out, pointLight.getPosition());
+        out.writeDouble(pointLight.getKc());
+        out.writeDouble(pointLight.getKl());
+        out.writeDouble(pointLight.getKq());
+        out.writeDouble(pointLight.getIntensityThreshold());
+        switch (pointLight) {
+            case SpotLight spot -> writePoint(out, spot.getDirection());
+            case RectangleLight rectangle -> {
+                writePoint(out, rectangle.getU());
+                writePoint(out, rectangle.getV());
+                out.writeDouble(rectangle.getWidth());
+                out.writeDouble(rectangle.getHeight());
+            }
+            case DiskLight disk -> {
+                writePoint(out, disk.getNormal());
+                out.writeDouble(disk.getRadius());
+            }
+            default -> {
+            }
+        }
+        if (pointLight instanceof AreaLight area) {
+            out.writeInt(area.getGridSize());
+            out.writeInt(area.getAdaptiveDepth());
+        }
+    }
+
+    /**
+     * Reads a light source
+     *
+     * @param in the section
+     * @return the light source
+     */
+    private static LightSource readLight(ByteBuffer in) {
+        int type = in.getInt();
+        Color intensity = readColor(in);
+        if (type == DIRECTIONAL_LIGHT)
+            return new DirectionalLight(intensity, readVector(in));
+
+        Point position = readPoint(in);
+        double kc = in.getDouble(), kl = in.getDouble(), kq = in.getDouble(), threshold = in.getDouble();
+        PointLight light = switch (type) {
+            case SPOT_LIGHT -> new SpotLight(intensity, position, readVector(in));
+            case RECTANGLE_LIGHT -> new RectangleLight(intensity, position, readVector(in), readVector(in),
+                    in.getDouble(), in.getDouble());
+            case DISK_LIGHT -> new DiskLight(intensity, position, readVector(in), in.getDouble());
+            default -> new PointLight(intensity, position);
+        };
+        if (light instanceof AreaLight area)
+            area.setGridSize(in.getInt()).setAdaptiveDepth(in.getInt());
+        return light.setKc(kc).setKl(kl).setKq(kq).setIntensityThreshold(threshold);
+    }
+
+    /**
+     * Writes the coordinates of a point or a vector
+     *
+     * @param out   the section
+     * @param point the point
+     */
+    static void writePoint(DataOutput out, Point point) throws IOException {
+        out.writeDouble(point.getX());
+        out.writeDouble(point.getY());
+        out.writeDouble(point.getZ());
+    }
+
+    /**
+     * Reads the coordinates of a point
+     *
+     * @param in the section
+     * @return the point
+     */
+    static Point readPoint(ByteBuffer in) {
+        return new Point(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Reads the coordinates of a vector
+     *
+     * @param in the section
+     * @return the vector
+     */
+    static Vector readVector(ByteBuffer in) {
+        return new Vector(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Writes a triad of numbers
+     *
+     * @param out     the section
+     * @param double3 the numbers
+     */
+    private static void writeDouble3(DataOutput out, Double3 double3) throws IOException {
+        out.writeDouble(double3.d1());
+        out.writeDouble(double3.d2());
+        out.writeDouble(double3.d3());
+    }
+
+    /**
+     * Reads a triad of numbers
+     *
+     * @param in the section
+     * @return the numbers
+     */
+    private static Double3 readDouble3(ByteBuffer in) {
+        return new Double3(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Writes the components of a color
+     *
+     * @param out   the section
+     * @param color the color
+     */
+    private static void writeColor(DataOutput out, Color color) throws IOException {
+        writeDouble3(out, color.getRgb());
+    }
+
+    /**
+     * Reads the components of a color
+     *
+     * @param in the section
+     * @return the color
+     */
+    private static Color readColor(ByteBuffer in) {
+        return new Color(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+}
@@ -0,0 +1,231 @@
+package org.example.renderer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Renderer of the frames of an animation. Before each frame the scene is
+ * updated, such as moving instances and refitting the hierarchy over them, and
+ * the camera is placed on its path. A frame is encoded by a separate thread
+ * while the next one renders, so the encoding costs no render time unless it
+ * is slower than the render. The frames are written either as numbered png
+ * images in the images directory, or as a raw YUV4MPEG2 stream that video
+ * encoders read, for example
+ * <pre>
+ * new SequenceRenderer(builder, 240, 640, 480).setY4mOutput(System.out, 24).render()
+ * ... | ffmpeg -i - animation.mp4
+ * </pre>
+ */
+public final class SequenceRenderer {
+    private static final Logger logger = Logger.getLogger("SequenceRenderer");
+
+    private final Camera.Builder cameraBuilder;
+    private final int frames;
+    private final int nX;
+    private final int nY;
+    private CameraPath cameraPath = (frame, camera) -> {
+    };
+    private SceneUpdate sceneUpdate = frame -> {
+    };
+    private String imageName = null;
+    private OutputStream y4mOut = null;
+    private int framesPerSecond = 24;
+
+    /**
+     * Placement of the camera in a frame
+     */
+    @FunctionalInterface
+    public interface CameraPath {
+        /**
+         * Places the camera for a frame
+         *
+         * @param frame  the frame index, from 0
+         * @param camera builder of the camera, with the placement of the previous frame
+         */
+        void place(int frame, Camera.Builder camera);
+    }
+
+    /**
+     * Change of the scene in a frame
+     */
+    @FunctionalInterface
+    public interface SceneUpdate {
+        /**
+         * Updates the scene for a frame, the previous frame has finished rendering
+         *
+         * @param frame the frame index, from 0
+         */
+        void update(int frame);
+    }
+
+    /**
+     * Constructor of a renderer of an animation
+     *
+     * @param cameraBuilder builder of the camera, with the ray tracer of the scene
+     * @param frames        the amount of frames
+     * @param nX            the horizontal resolution of a frame
+     * @param nY            the vertical resolution of a frame
+     * @throws IllegalArgumentException if the amount of frames or the resolution is not positive
+     */
+    public SequenceRenderer(Camera.Builder cameraBuilder, int frames, int nX, int nY) {
+        if (frames <= 0) throw new IllegalArgumentException("Animation must have at least one frame");
+        if (nX <= 0 || nY <= 0) throw new IllegalArgumentException("Frame resolution must be positive");
+        this.cameraBuilder = cameraBuilder;
+        this.frames = frames;
+        this.nX = nX;
+        this.nY = nY;
+    }
+
+    /**
+     * Sets the path of the camera
+     *
+     * @param cameraPath the placement of the camera in each frame
+     * @return this renderer
+     */
+    public SequenceRenderer setCameraPath(CameraPath cameraPath) {
+        this.cameraPath = cameraPath;
+        return this;
+    }
+
+    /**
+     * Sets the changes of the scene
+     *
+     * @param sceneUpdate the update of the scene before each frame
+     * @return this renderer
+     */
+    public SequenceRenderer setSceneUpdate(SceneUpdate sceneUpdate) {
+        this.sceneUpdate = sceneUpdate;
+        return this;
+    }
+
+    /**
+     * Writes the frames as png images named after the frame index, such as
+     * name_0000.png, in the images directory
+     *
+     * @param imageName the file name prefix
+     * @return this renderer
+     */
+    public SequenceRenderer setPngOutput(String imageName) {
+        this.imageName = imageName;
+        this.y4mOut = null;
+        return this;
+    }
+
+    /**
+     * Writes the frames as a YUV4MPEG2 stream with full resolution chroma. The
+     * stream is flushed after each frame and left open.
+     *
+     * @param out             the stream
+     * @param framesPerSecond the frame rate written in the stream header
+     * @return this renderer
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    public SequenceRenderer setY4mOutput(OutputStream out, int framesPerSecond) {
+        if (framesPerSecond <= 0) throw new IllegalArgumentException("Frame rate must be positive");
+        this.y4mOut = out;
+        this.framesPerSecond = framesPerSecond;
+        this.imageName = null;
+        return this;
+    }
+
+    /**
+     * Renders all the frames. Interrupting the rendering thread cancels the
+     * animation after the frames already encoded.
+     *
+     * @throws IllegalStateException if no output is set or the output fails
+     * @throws CancellationException if the animation was cancelled
+     */
+    public void render() {
+        if (imageName == null && y4mOut == null) throw new IllegalStateException("Animation output is not set");
+        ExecutorService encoder = Executors.newSingleThreadExecutor(task -> new Thread(task, "frame encoder"));
+        Future<?> encoding = null;
+        try {
+            if (y4mOut != null) writeY4mHeader();
+            for (int frame = 0; frame < frames; frame++) {
+                sceneUpdate.update(frame);
+                cameraPath.place(frame, cameraBuilder);
+                ImageWriter imageWriter = new ImageWriter(
+                        imageName == null ? "frame" : String.format("%s_%04d", imageName, frame), nX, nY);
+                cameraBuilder.setImageWriter(imageWriter).build().renderImage();
+                // at most one frame is encoded while the next one renders
+                if (encoding != null) finish(encoding);
+                encoding = encoder.submit(() -> encode(imageWriter));
+            }
+            if (encoding != null) finish(encoding);
+        } finally {
+            encoder.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the encoding of a frame
+     *
+     * @param encoding the encoding
+     * @throws CancellationException if the waiting thread was interrupted
+     */
+    private static void finish(Future<?> encoding) {
+        try {
+            encoding.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException("Frame encoding failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Animation cancelled");
+        }
+    }
+
+    /**
+     * Encodes a rendered frame into the output
+     *
+     * @param imageWriter the frame
+     */
+    private void encode(ImageWriter imageWriter) {
+        if (y4mOut == null) {
+            imageWriter.writeToImage();
+            return;
+        }
+        int size = nX * nY;
+        byte[] frame = new byte[6 + 3 * size];
+        System.arraycopy("FRAME\n".getBytes(StandardCharsets.US_ASCII), 0, frame, 0, 6);
+        // BT.601 studio range, one chroma sample per pixel
+        for (int i = 0; i < nY; i++)
+            for (int j = 0; j < nX; j++) {
+                int rgb = imageWriter.getRGB(j, i);
+                int r = rgb >> 16 & 0xFF, g = rgb >> 8 & 0xFF, b = rgb & 0xFF;
+                int pixel = 6 + i * nX + j;
+                frame[pixel] = (byte) Math.round(16 + 0.256788 * r + 0.504129 * g + 0.097906 * b);
+                frame[pixel + size] = (byte) Math.round(128 - 0.148223 * r - 0.290993 * g + 0.439216 * b);
+                frame[pixel + 2 * size] = (byte) Math.round(128 + 0.439216 * r - 0.367788 * g - 0.071427 * b);
+            }
+        try {
+            y4mOut.write(frame);
+            y4mOut.flush();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't write animation frame", e);
+        }
+    }
+
+    /**
+     * Writes the header of the YUV4MPEG2 stream
+     */
+    private void writeY4mHeader() {
+        String header = "YUV4MPEG2 W" + nX + " H" + nY + " F" + framesPerSecond + ":1 Ip A1:1 C444\n";
+        try {
+            y4mOut.write(header.getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't write animation header", e);
+        }
+    }
+}
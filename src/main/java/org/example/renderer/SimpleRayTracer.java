@@ -1,11 +1,21 @@
 package org.example.renderer;
 
 import org.example.geometries.Intersectable.GeoPoint;
+import org.example.lighting.AreaLight;
 import org.example.lighting.LightSource;
 import org.example.primitives.*;
 import org.example.primitives.Vector;
 import org.example.scene.Scene;
 
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,13 +26,19 @@ import static org.example.primitives.Util.isZero;
  * SimpleRayTracer class represents a simple ray tracer
  */
 public class SimpleRayTracer extends RayTracerBase {
+    private static final long serialVersionUID = 1L;
 
     private static final int MAX_CALC_COLOR_LEVEL = 10;
 
     private static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = Double3.ONE;
+    /**
+     * Amount of cone samples traced before checking whether they all agree
+     */
+    private static final int EARLY_CONE_SAMPLES = 4;
     private  boolean isAdaptiveGrid;
     private  int maxLevel;
+    private int coneSamples = 16;
 
     public SimpleRayTracer(Scene scene) {
         super(scene);
@@ -40,8 +56,32 @@ public class SimpleRayTracer extends RayTracerBase {
         return this;
     }
 
+    /**
+     * Sets the amount of secondary rays in the cone of a glossy reflection or a
+     * blurry refraction. The amount is reduced as the accumulated attenuation of
+     * the ray decreases.
+     *
+     * @param coneSamples the amount of cone rays for a primary ray hit
+     * @return this ray tracer
+     */
+    public SimpleRayTracer setConeSamples(int coneSamples) {
+        if (coneSamples < 1) throw new IllegalArgumentException("Cone samples must be positive");
+        this.coneSamples = coneSamples;
+        return this;
+    }
+
+    @Override
+    void writeSettings(DataOutput out) throws IOException {
+        super.writeSettings(out);
+        out.writeBoolean(isAdaptiveGrid);
+        out.writeInt(maxLevel);
+        out.writeInt(coneSamples);
+    }
+
     @Override
     public Color traceRay(Ray ray) {
+        RenderStats.Counters counters = RenderStats.counters();
+        if (counters != null) ++counters.primaryRays;
         var point = this.findClosestIntersection(ray);
         if (point == null) {
             return scene.background;
@@ -52,7 +92,8 @@ public class SimpleRayTracer extends RayTracerBase {
     @Override
     public Color traceRay(List<Ray> rays) {
         Color result;
-        if (isAdaptiveGrid && rays.size() > 4) {
+        int side = (int) Math.round(Math.sqrt(rays.size()));
+        if (isAdaptiveGrid && rays.size() > 4 && side * side == rays.size()) {
             Wrapper<Color> colorWrapper = new Wrapper<>(Color.BLACK);
             Map<Ray, Color> map = new HashMap<>();
             traceRayCube(colorWrapper, rays, map);
@@ -64,59 +105,97 @@ public class SimpleRayTracer extends RayTracerBase {
         return result;
     }
 
+    /**
+     * JFR event of the adaptive supersampling of a pixel, recorded when a flight
+     * recording enables {@code org.example.AdaptiveSampling}
+     */
+    @Name("org.example.AdaptiveSampling")
+    @Label("Adaptive Sampling")
+    @Category("Ray Tracer")
+    @Description("Subdivision decisions of the adaptive supersampling of a pixel")
+    @StackTrace(false)
+    static final class AdaptiveSamplingEvent extends Event {
+        @Label("Grid Rays")
+        @Description("Rays of the full sample grid of the pixel")
+        int gridRays;
+        @Label("Corner Rays")
+        @Description("Corner rays traced to decide on subdividing")
+        int cornerRays;
+        @Label("Subdivisions")
+        @Description("Cells split into quarters because their corners differ")
+        int subdivisions;
+        @Label("Uniform Cells")
+        @Description("Cells filled with a corner color because their corners agree")
+        int uniformCells;
+        @Label("Depth")
+        @Description("Deepest subdivision level reached")
+        int depth;
+    }
+
     public void traceRayCube(Wrapper<Color> colorWrapper, List<Ray> allRays, Map<Ray, Color> map) {
-        Color color = null;
-        List<Ray> rays;
-        int n, level;
-        Pair<List<Ray>, Integer> pair;
-        Stack<Pair<List<Ray>, Integer>> stack = new Stack<>();
-        stack.add(new Pair<>(allRays, maxLevel));
+        AdaptiveSamplingEvent event = new AdaptiveSamplingEvent();
+        event.begin();
+        int subdivisions = 0, uniformCells = 0, deepestLevel = maxLevel;
+        int n = (int) Math.round(Math.sqrt(allRays.size()));
+        // a cell of the square grid: first row, first column, rows, columns and level
+        Stack<int[]> stack = new Stack<>();
+        stack.add(new int[]{0, 0, n, n, maxLevel});
 
         while (!stack.isEmpty()) {
-            pair = stack.pop();
-            rays = pair.first;
-            level = pair.second;
+            int[] cell = stack.pop();
+            int row = cell[0], column = cell[1], rows = cell[2], columns = cell[3], level = cell[4];
 
+            deepestLevel = Math.min(deepestLevel, level);
             if (level <= 1) {
-                for (Ray ray : rays) {
-                    colorWrapper.variable = colorWrapper.variable.add(traceRay(ray));
-                }
+                for (int i = row; i < row + rows; i++)
+                    for (int j = column; j < column + columns; j++)
+                        colorWrapper.variable = colorWrapper.variable.add(traceRay(allRays.get(i * n + j)));
                 continue;
             }
 
-            n = (int)Math.sqrt(rays.size());
             /* Indexes of: topLeft, topRight, bottomLeft, bottomRight */
-            int[] indexes = {0, (n - 1), (n * (n - 1)), (n * n - 1)};
+            int last = (row + rows - 1) * n;
+            int[] indexes = {row * n + column, row * n + column + columns - 1, last + column,
+                    last + column + columns - 1};
 
             List<Color> cubeColors = new ArrayList<>(4);
-
+            Color color = null;
             for (int index : indexes) {
-                Ray ray = rays.get(index);
-                if (map.containsKey(ray)) {
-                    color = map.get(ray);
-                } else {
+                Ray ray = allRays.get(index);
+                color = map.get(ray);
+                if (color == null) {
                     color = traceRay(ray);
                     map.put(ray, color);
                 }
                 cubeColors.add(color);
             }
 
-            if (rays.size() <= 4 || Color.allSimilar(cubeColors)) {
-                colorWrapper.variable = colorWrapper.variable.add(color.scale(n * n));
+            if (Color.allSimilar(cubeColors)) {
+                ++uniformCells;
+                colorWrapper.variable = colorWrapper.variable.add(color.scale(rows * columns));
+            } else if (rows <= 2 && columns <= 2) {
+                // the corners are all the rays of the cell
+                for (int i = row; i < row + rows; i++)
+                    for (int j = column; j < column + columns; j++)
+                        colorWrapper.variable = colorWrapper.variable.add(map.get(allRays.get(i * n + j)));
             } else {
-                for (int row = 0; row < n; row += n / 2) {
-                    for (int column = 0; column < n; column += n / 2) {
-                        List<Ray> rayList = new LinkedList<>();
-                        for (int i = row; i < row + n / 2; i++) {
-                            for (int j = column; j < column + n / 2; j++) {
-                                rayList.add(rays.get(i * n + j));
-                            }
-                        }
-                        stack.push(new Pair<>(rayList, level - 1));
-                    }
-                }
+                ++subdivisions;
+                // an odd side splits into a smaller and a larger half, a single row or column is not split
+                int top = Math.max(1, rows / 2), left = Math.max(1, columns / 2);
+                for (int i = row; i < row + rows; i += top, top = rows - top)
+                    for (int j = column, width = left; j < column + columns; j += width, width = columns - left)
+                        stack.push(new int[]{i, j, top, width, level - 1});
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.gridRays = allRays.size();
+            event.cornerRays = map.size();
+            event.subdivisions = subdivisions;
+            event.uniformCells = uniformCells;
+            event.depth = maxLevel - deepestLevel;
+            event.commit();
+        }
     }
 
     /**
@@ -146,6 +225,8 @@ public class SimpleRayTracer extends RayTracerBase {
         if (isZero(vn))
             return Color.BLACK;
 
+        RenderStats.Counters counters = RenderStats.counters();
+        if (counters != null) counters.hit(MAX_CALC_COLOR_LEVEL - level);
         Color color = calcLocalEffects(gp, ray, k).add(gp.geometry.getEmission());
 
         return 1 == level ? color : color.add(calcGlobalEffects(gp, v, level, k));
@@ -170,19 +251,89 @@ public class SimpleRayTracer extends RayTracerBase {
         Ray reflectedRay = constructReflectedRay(gp.point, v, n, vn);
         Ray refractedRay = constructRefractedRay(gp.point, v, n);
         if (!kkr.lowerThan(MIN_CALC_COLOR_K)) {
-            color = color.add(calcGlobalEffect(reflectedRay, level - 1, kr, kkr));
+            color = color.add(material.glossiness == 0
+                    ? calcGlobalEffect(reflectedRay, true, level - 1, kr, kkr)
+                    : calcConeEffect(reflectedRay, true, n, material.glossiness, level - 1, kr, kkr));
         }
         Double3 kt = material.kT;
         Double3 kkt = k.product(kt);
         if (!kkt.lowerThan(MIN_CALC_COLOR_K)) {
-            color = color.add(calcGlobalEffect(refractedRay, level - 1, kt, kkt));
+            color = color.add(material.blurriness == 0
+                    ? calcGlobalEffect(refractedRay, false, level - 1, kt, kkt)
+                    : calcConeEffect(refractedRay, false, n, material.blurriness, level - 1, kt, kkt));
         }
         return color;
     }
 
-    private Color calcGlobalEffect(Ray ray, int level, Double3 k, Double3 kx) {
+    /**
+     * Calculate a glossy reflection or a blurry refraction by averaging a cone of
+     * rays around the perfect secondary ray. The amount of rays falls off with
+     * the accumulated attenuation and the sampling stops early when the first
+     * rays all agree.
+     *
+     * @param ray       the perfect reflected or refracted ray
+     * @param reflected whether the ray is reflected rather than refracted
+     * @param n         the normal at the ray head
+     * @param spread the radius of the cone at unit distance
+     * @param level  the recursion level
+     * @param k      the attenuation of the material
+     * @param kx     the accumulated attenuation
+     * @return the average color of the cone
+     */
+    private Color calcConeEffect(Ray ray, boolean reflected, Vector n, double spread, int level, Double3 k,
+                                 Double3 kx) {
+        int count = (int) Math.ceil(coneSamples * kx.max());
+        if (count <= 1 || !withinBudget()) return calcGlobalEffect(ray, reflected, level, k, kx);
+
+        Vector direction = ray.getDirection();
+        Vector u = direction.orthogonal();
+        Vector v = direction.crossProduct(u);
+        boolean above = direction.dotProduct(n) > 0;
+        Color sum = Color.BLACK;
+        List<Color> first = new ArrayList<>(EARLY_CONE_SAMPLES);
+        for (int i = 0; i < count; i++) {
+            Color color = calcGlobalEffect(constructConeRay(ray, u, v, spread, n, above), reflected, level, k, kx);
+            sum = sum.add(color);
+            if (i < EARLY_CONE_SAMPLES) {
+                first.add(color);
+                if (i == EARLY_CONE_SAMPLES - 1 && Color.allSimilar(first)) return sum.reduce(EARLY_CONE_SAMPLES);
+            }
+        }
+        return sum.reduce(count);
+    }
+
+    /**
+     * Construct a random ray in a cone around a secondary ray. A ray crossing the
+     * surface to the wrong side is replaced by the secondary ray itself.
+     *
+     * @param ray    the secondary ray in the cone center
+     * @param u      first unit vector orthogonal to the ray
+     * @param v      second unit vector orthogonal to the ray
+     * @param spread the radius of the cone at unit distance
+     * @param n      the normal at the ray head
+     * @param above  whether the secondary ray leaves to the normal side
+     * @return the cone ray
+     */
+    private Ray constructConeRay(Ray ray, Vector u, Vector v, double spread, Vector n, boolean above) {
+        double r = spread * Math.sqrt(Util.random(0, 1));
+        double theta = Util.random(0, 2 * Math.PI);
+        double x = alignZero(r * Math.cos(theta));
+        double y = alignZero(r * Math.sin(theta));
+        Vector direction = ray.getDirection();
+        if (x != 0) direction = direction.add(u.scale(x));
+        if (y != 0) direction = direction.add(v.scale(y));
+        double dn = alignZero(direction.dotProduct(n));
+        return dn == 0 || (dn > 0) != above ? ray : new Ray(ray.getHead(), direction);
+    }
+
+    private Color calcGlobalEffect(Ray ray, boolean reflected, int level, Double3 k, Double3 kx) {
         Double3 kkx = k.product(kx);
         if (kkx.lowerThan(MIN_CALC_COLOR_K)) return Color.BLACK;
+        RenderStats.Counters counters = RenderStats.counters();
+        if (counters != null) {
+            if (reflected) ++counters.reflectionRays;
+            else ++counters.refractionRays;
+        }
         GeoPoint gp = findClosestIntersection(ray);
         return (gp == null ? scene.background.scale(kx) :
                 isZero(gp.geometry.getNormal(gp.point).dotProduct(ray.getDirection())) ? Color.BLACK
@@ -201,20 +352,119 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return
      */
     private Double3 transparency(GeoPoint gp, LightSource light, Vector l, Vector n) {
-
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray lightRay = new Ray(gp.point, lightDirection, n);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay, light.getDistance(gp.point));
+        return transparency(lightRay, light.getDistance(gp.point));
+    }
+
+    /**
+     * Calculates the transparency towards a single sample point on a light surface
+     *
+     * @param gp          the shaded point
+     * @param lightPoint  the sample point on the light
+     * @param n           the normal at the shaded point
+     * @return the transparency coefficient towards the sample point
+     */
+    private Double3 transparency(GeoPoint gp, Point lightPoint, Vector n) {
+        Ray lightRay = new Ray(gp.point, lightPoint.subtract(gp.point), n);
+        return transparency(lightRay, gp.point.distance(lightPoint));
+    }
+
+    /**
+     * Multiplies the transparency of all the objects along a shadow ray
+     *
+     * @param lightRay the ray from the shaded point towards the light
+     * @param distance the distance to the light along the ray
+     * @return the accumulated transparency coefficient
+     */
+    private Double3 transparency(Ray lightRay, double distance) {
+        RenderStats.Counters counters = RenderStats.counters();
+        if (counters != null) ++counters.shadowRays;
+        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay, distance);
         Double3 ktr = new Double3(1d);
         if (intersections == null) return ktr;
 
-
         for (GeoPoint g : intersections) {
             ktr = ktr.product(g.geometry.getMaterial().kT);
             if (ktr.lowerThan(MIN_CALC_COLOR_K)) return Double3.ZERO;
         }
         return ktr;
+    }
 
+    /**
+     * Calculates the average transparency towards an area light by its grid of
+     * sample points. Like {@link #traceRayCube} the grid is subdivided adaptively:
+     * the four corners of a cell are traced first and the cell is split into
+     * quarters only when they disagree, so fully lit or fully shadowed areas cost
+     * four shadow rays while penumbrae get refined.
+     *
+     * @param gp    the shaded point
+     * @param light the area light
+     * @param n     the normal at the shaded point
+     * @return the average transparency coefficient
+     */
+    private Double3 transparency(GeoPoint gp, AreaLight light, Vector n) {
+        List<Point> samples = light.getSamplePoints();
+        int size = light.getGridSize();
+        Double3[] cache = new Double3[samples.size()];
+        Double3 sum = Double3.ZERO;
+        /* Cells of: first row, first column, rows, columns, level */
+        Stack<int[]> stack = new Stack<>();
+        stack.push(new int[]{0, 0, size, size, light.getAdaptiveDepth()});
+
+        while (!stack.isEmpty()) {
+            int[] cell = stack.pop();
+            int row = cell[0], column = cell[1], rows = cell[2], columns = cell[3], level = cell[4];
+
+            if (level <= 1 || rows == 1 || columns == 1) {
+                for (int i = row; i < row + rows; i++) {
+                    for (int j = column; j < column + columns; j++) {
+                        sum = sum.add(sampleTransparency(gp, samples, cache, i * size + j, n));
+                    }
+                }
+                continue;
+            }
+
+            /* Indexes of: topLeft, topRight, bottomLeft, bottomRight */
+            int last = (row + rows - 1) * size;
+            int[] indexes = {row * size + column, row * size + column + columns - 1,
+                    last + column, last + column + columns - 1};
+            Double3[] corners = new Double3[4];
+            for (int i = 0; i < 4; i++) {
+                corners[i] = sampleTransparency(gp, samples, cache, indexes[i], n);
+            }
+
+            if (rows * columns <= 4) {
+                for (Double3 corner : corners) {
+                    sum = sum.add(corner);
+                }
+            } else if (corners[0].isSimilar(corners[1]) && corners[0].isSimilar(corners[2])
+                    && corners[0].isSimilar(corners[3])) {
+                sum = sum.add(corners[0].add(corners[1]).add(corners[2]).add(corners[3])
+                        .scale(rows * columns / 4d));
+            } else {
+                int halfRows = (rows + 1) / 2;
+                int halfColumns = (columns + 1) / 2;
+                stack.push(new int[]{row, column, halfRows, halfColumns, level - 1});
+                stack.push(new int[]{row, column + halfColumns, halfRows, columns - halfColumns, level - 1});
+                stack.push(new int[]{row + halfRows, column, rows - halfRows, halfColumns, level - 1});
+                stack.push(new int[]{row + halfRows, column + halfColumns, rows - halfRows, columns - halfColumns,
+                        level - 1});
+            }
+        }
+        return sum.reduce(samples.size());
+    }
+
+    /**
+     * Gets the transparency towards a light sample, tracing the shadow ray only
+     * once for samples shared by neighbouring cells
+     */
+    private Double3 sampleTransparency(GeoPoint gp, List<Point> samples, Double3[] cache, int index, Vector n) {
+        Double3 ktr = cache[index];
+        if (ktr == null) {
+            ktr = cache[index] = transparency(gp, samples.get(index), n);
+        }
+        return ktr;
     }
 
     /**
@@ -261,10 +511,14 @@ public class SimpleRayTracer extends RayTracerBase {
         double nv = alignZero(n.dotProduct(ray.getDirection()));
 
         for (LightSource lightSource : scene.lights) {
+            // skip lights too far to contribute before paying for a shadow ray
+            if (!lightSource.isInRange(intersection.point)) continue;
             Vector l = lightSource.getL(intersection.point);
             double nl = alignZero(n.dotProduct(l));
             if (nl * nv > 0) {
-                Double3 ktr = transparency(intersection, lightSource, l, n);
+                Double3 ktr = lightSource instanceof AreaLight areaLight && withinBudget()
+                        ? transparency(intersection, areaLight, n)
+                        : transparency(intersection, lightSource, l, n);
                 if (!ktr.product(kx).lowerThan(MIN_CALC_COLOR_K)) {
                     Color lightIntensity = lightSource.getIntensity(intersection.point).scale(ktr);
                     color = color.add(calcDiffuse(kd, nl, lightIntensity),
@@ -333,7 +587,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        return ray.findClosestGeoPoint(scene.geometries.findGeoIntersections(ray));
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 
 
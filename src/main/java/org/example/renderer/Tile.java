@@ -0,0 +1,59 @@
+package org.example.renderer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A rectangular block of pixels of the image, the unit of work of tiled
+ * rendering
+ *
+ * @param index  index of the tile in the row by row order of the image tiles
+ * @param x      column of the tile's top left pixel
+ * @param y      row of the tile's top left pixel
+ * @param width  number of pixel columns in the tile
+ * @param height number of pixel rows in the tile
+ */
+record Tile(int index, int x, int y, int width, int height) implements Serializable {
+
+    /**
+     * Splits a rectangle of the image into square tiles row by row, the tiles at
+     * the right and bottom edges may be smaller
+     *
+     * @param x        column of the rectangle's top left pixel
+     * @param y        row of the rectangle's top left pixel
+     * @param width    amount of pixels by width
+     * @param height   amount of pixels by height
+     * @param tileSize the side of a tile in pixels
+     * @return the tiles of the rectangle
+     */
+    static List<Tile> split(int x, int y, int width, int height, int tileSize) {
+        List<Tile> tiles = new ArrayList<>();
+        for (int i = 0; i < height; i += tileSize)
+            for (int j = 0; j < width; j += tileSize)
+                tiles.add(new Tile(tiles.size(), x + j, y + i,
+                        Math.min(tileSize, width - j), Math.min(tileSize, height - i)));
+        return tiles;
+    }
+
+    /**
+     * Number of tiles needed to cover a rectangle of the image
+     *
+     * @param width    amount of pixels by width
+     * @param height   amount of pixels by height
+     * @param tileSize the side of a tile in pixels
+     * @return the amount of tiles
+     */
+    static int count(int width, int height, int tileSize) {
+        return ((width + tileSize - 1) / tileSize) * ((height + tileSize - 1) / tileSize);
+    }
+
+    /**
+     * Number of pixels in the tile
+     *
+     * @return the tile area
+     */
+    int size() {
+        return width * height;
+    }
+}
@@ -5,6 +5,7 @@ import org.example.lighting.AmbientLight;
 import org.example.lighting.LightSource;
 import org.example.primitives.Color;
 
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -12,7 +13,9 @@ import java.util.List;
  * The Scene class represents a 3D scene containing geometries, background color,
  * ambient light, and the name of the scene.
  */
-public class Scene {
+public class Scene implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The name of the scene.
      */
@@ -33,7 +36,7 @@ public class Scene {
     /**
      * list of all light source in the scene
      */
-    public List<LightSource> lights = new LinkedList<>();
+    public LinkedList<LightSource> lights = new LinkedList<>();
 
     /**
      * Constructs a new Scene with the specified name.
@@ -84,11 +87,11 @@ public class Scene {
     /**
      * setter for light source return this for builder
      *
-     * @param lights list of source lights
+     * @param lights list of source lights, copied into the scene
      * @return this for builder
      */
     public Scene setlights(List<LightSource> lights) {
-        this.lights = lights;
+        this.lights = new LinkedList<>(lights);
         return this;
     }
 
@@ -0,0 +1,233 @@
+package geometries;
+
+import org.example.geometries.*;
+import org.example.primitives.BoundingBox;
+import org.example.primitives.Point;
+import org.example.primitives.Ray;
+import org.example.primitives.Transform;
+import org.example.primitives.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing Bvh and BvhBuilder classes
+ */
+class BvhTest {
+    /**
+     * Helper function creating a field of random spheres
+     *
+     * @param count the amount of spheres
+     * @param seed  the seed of the positions
+     * @return the spheres
+     */
+    private static Intersectable[] spheres(int count, long seed) {
+        Random random = new Random(seed);
+        Intersectable[] spheres = new Intersectable[count];
+        for (int i = 0; i < count; i++)
+            spheres[i] = new Sphere(new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100),
+                    random.nextDouble(-100, 100)), random.nextDouble(0.5, 4));
+        return spheres;
+    }
+
+    /**
+     * Helper function sorting intersections by their distance from the ray head
+     *
+     * @param ray           the ray
+     * @param intersections the intersections, may be null
+     * @return the distances in ascending order
+     */
+    private static List<Double> distances(Ray ray, List<Intersectable.GeoPoint> intersections) {
+        if (intersections == null) return List.of();
+        return intersections.stream().map(gp -> gp.point.distance(ray.getHead()))
+                .sorted(Comparator.naturalOrder()).toList();
+    }
+
+    /**
+     * Test method for {@link Bvh#findGeoIntersections(Ray, double)} and
+     * {@link Bvh#findClosestGeoIntersection(Ray)}: the hierarchy finds what a
+     * plain collection of the same geometries finds.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        List<Intersectable> field = new ArrayList<>(List.of(spheres(300, 7)));
+        field.add(new Triangle(new Point(-90, -90, 0), new Point(90, -90, 10), new Point(0, 90, -10)));
+        field.add(new Cylinder(new Ray(new Point(-50, -50, -50), new Vector(1, 2, 3)), 80, 4));
+        field.add(new Plane(new Point(0, -120, 0), Vector.Y));
+        Intersectable[] geometries = field.toArray(new Intersectable[0]);
+        Geometries plain = new Geometries(geometries);
+        Bvh bvh = new BvhBuilder().build(geometries);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays from inside and outside the tree, with and without a distance limit
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            double range = i % 2 == 0 ? 100 : 300;
+            Ray ray = new Ray(new Point(random.nextDouble(-range, range), random.nextDouble(-range, range),
+                    random.nextDouble(-range, range)),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+            double maxDistance = i % 3 == 0 ? 50 : Double.POSITIVE_INFINITY;
+            List<Double> expected = distances(ray, plain.findGeoIntersections(ray, maxDistance));
+            List<Double> actual = distances(ray, bvh.findGeoIntersections(ray, maxDistance));
+            assertEquals(expected.size(), actual.size(), "wrong amount of intersections");
+            for (int j = 0; j < expected.size(); j++)
+                assertEquals(expected.get(j), actual.get(j), 1e-9, "wrong intersection");
+
+            Intersectable.GeoPoint closest = bvh.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint reference = plain.findClosestGeoIntersection(ray);
+            if (reference == null) assertNull(closest, "no intersection expected");
+            else assertEquals(reference.point.distance(ray.getHead()), closest.point.distance(ray.getHead()),
+                    1e-9, "wrong closest intersection");
+        }
+
+        // TC02: the infinite plane is kept aside, the tree has no box
+        assertNull(bvh.getBoundingBox(), "a tree with a plane is infinite");
+        assertEquals(geometries.length, bvh.getGeometries().size(), "all the geometries must be kept");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: ray along an axis, parallel to the box walls
+        Ray axial = new Ray(new Point(0, 0, -200), new Vector(0, 0, 1));
+        assertEquals(distances(axial, plain.findGeoIntersections(axial)), distances(axial, bvh.findGeoIntersections(axial)),
+                "wrong intersections of an axial ray");
+        // TC11: empty tree
+        assertNull(new BvhBuilder().build().findGeoIntersections(axial), "an empty tree has no intersections");
+        // TC12: a single geometry is a single leaf with its own box
+        Sphere sphere = new Sphere(new Point(0, 0, 0), 1);
+        Bvh single = new BvhBuilder().build(sphere);
+        assertEquals(1, single.getStats().getNodes(), "a single geometry needs a single node");
+        assertEquals(sphere.getBoundingBox(), single.getBoundingBox(), "wrong bounds");
+    }
+
+    /**
+     * Test method for {@link BvhBuilder#build(Intersectable...)}: the quality of
+     * the tree and the parallel build.
+     */
+    @Test
+    void testBuild() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tree is far cheaper than the list and its leaves hold all the geometries
+        Intersectable[] spheres = spheres(1000, 3);
+        BvhStats stats = new BvhBuilder().build(spheres).getStats();
+        assertEquals(1000, stats.getGeometries(), "wrong amount of geometries");
+        assertEquals(2 * stats.getLeaves() - 1, stats.getNodes(), "a binary tree has one interior node less than leaves");
+        assertTrue(stats.getSahCost() < 100, "the tree must be much cheaper than the list of 1000");
+        assertTrue(stats.getMaxLeafSize() <= 4, "the leaves must not exceed the maximal size");
+        assertTrue(stats.getDepth() >= 8 && stats.getDepth() < 40, "wrong depth " + stats.getDepth());
+        assertTrue(stats.getBuildMillis() >= 0, "wrong build time");
+
+        // TC02: the parallel build makes the same tree as the single thread one
+        Intersectable[] many = spheres(20000, 5);
+        BvhStats parallel = new BvhBuilder().build(many).getStats();
+        try (ForkJoinPool pool = new ForkJoinPool(1)) {
+            BvhStats serial = new BvhBuilder().setPool(pool).build(many).getStats();
+            assertEquals(serial.getSahCost(), parallel.getSahCost(), 1e-9, "the trees must be the same");
+            assertEquals(serial.getNodes(), parallel.getNodes(), "the trees must be the same");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: geometries sharing a centroid end in one leaf whatever their amount
+        Intersectable[] nested = new Intersectable[10];
+        for (int i = 0; i < nested.length; i++)
+            nested[i] = new Sphere(new Point(1, 2, 3), i + 1);
+        stats = new BvhBuilder().build(nested).getStats();
+        assertEquals(1, stats.getLeaves(), "coinciding centroids cannot be split");
+        assertEquals(10, stats.getMaxLeafSize(), "wrong leaf size");
+        // TC11: invalid settings
+        assertThrows(IllegalArgumentException.class, () -> new BvhBuilder().setBins(1), "one bin cannot split");
+        assertThrows(IllegalArgumentException.class, () -> new BvhBuilder().setMaxLeafSize(0), "leaves cannot be empty");
+        // TC12: the box of the tree is the union of the boxes
+        BoundingBox box = new BvhBuilder().build(spheres).getBoundingBox();
+        BoundingBox union = spheres[0].getBoundingBox();
+        for (Intersectable sphere : spheres) union = union.union(sphere.getBoundingBox());
+        assertEquals(union, box, "wrong bounds");
+    }
+
+    /**
+     * Test method for {@link Bvh#refit()} and {@link Geometries#refitBvh()}.
+     */
+    @Test
+    void testRefit() {
+        Sphere unit = new Sphere(Point.ZERO, 1d);
+        Random random = new Random(9);
+        Geometries scene = new Geometries();
+        Instance[] instances = new Instance[5000];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = new Instance(unit, Transform.translation(new Vector(random.nextDouble(-100, 100),
+                    random.nextDouble(-100, 100), random.nextDouble(-100, 100))));
+            scene.add(instances[i]);
+        }
+        Bvh bvh = scene.buildBvh();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a small move refits the same tree, which finds the moved instances
+        for (Instance instance : instances)
+            instance.setTransform(instance.getTransform().then(Transform.translation(new Vector(0.5, -0.5, 0.25))));
+        assertSame(bvh, scene.refitBvh(), "a small move must keep the tree");
+        Geometries plain = new Geometries(instances);
+        for (int i = 0; i < 500; i++) {
+            Ray ray = new Ray(new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), -300),
+                    new Vector(random.nextDouble(-0.2, 0.2), random.nextDouble(-0.2, 0.2), 1));
+            Intersectable.GeoPoint expected = plain.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint actual = scene.findClosestGeoIntersection(ray);
+            if (expected == null) assertNull(actual, "no intersection expected");
+            else assertEquals(0, expected.point.distance(actual.point), 1e-9, "wrong intersection of the refit tree");
+        }
+        assertTrue(bvh.sahCost() < bvh.getStats().getSahCost() * 1.1, "a small move must keep the tree tight");
+
+        // TC02: scattering the instances makes the refit tree too loose, so it is built again
+        for (Instance instance : instances)
+            instance.setTransform(Transform.translation(new Vector(random.nextDouble(-100, 100),
+                    random.nextDouble(-100, 100), random.nextDouble(-100, 100))));
+        assertTrue(bvh.refit() > bvh.getStats().getSahCost() * 2, "scattering must degrade the tree");
+        Bvh rebuilt = scene.refitBvh();
+        assertNotSame(bvh, rebuilt, "a degraded tree must be built again");
+        assertEquals(rebuilt.getStats().getSahCost(), rebuilt.sahCost(), 1e-9, "wrong SAH cost of the new tree");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an empty tree
+        assertEquals(0, new BvhBuilder().build().refit(), "an empty tree costs nothing");
+    }
+
+    /**
+     * Test method for {@link Bvh#setClipBox(BoundingBox)} and {@link Intersectable#isBounded()}.
+     */
+    @Test
+    void testClipBox() {
+        Sphere ball = new Sphere(new Point(0, 0, -50), 5d);
+        Plane floor = new Plane(new Point(0, -10, 0), Vector.Y);
+        Tube pipe = new Tube(new Ray(new Point(0, 0, 0), Vector.X), 1);
+        Bvh bvh = new BvhBuilder().build(ball, floor, pipe)
+                .setClipBox(new BoundingBox(-100, -10, -100, 100, 50, 100));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the finite geometries are bounded, planes and tubes are not
+        assertTrue(ball.isBounded(), "a sphere is bounded");
+        assertFalse(floor.isBounded(), "a plane is unbounded");
+        assertFalse(pipe.isBounded(), "a tube is unbounded");
+        assertFalse(new Instance(floor, Transform.scaling(2)).isBounded(), "an instance of a plane is unbounded");
+        // TC02: the floor is hit inside the box
+        Ray down = new Ray(new Point(0, 20, 30), new Vector(0, -1, -1));
+        assertEquals(new Point(0, -10, 0), bvh.findClosestGeoIntersection(down).point, "wrong floor intersection");
+        // TC03: the floor beyond the box is ignored
+        Ray far = new Ray(new Point(0, 20, 0), new Vector(0, -1, -10));
+        assertNull(bvh.findGeoIntersections(far), "the floor outside the box must be ignored");
+        assertNull(bvh.findClosestGeoIntersection(far), "the floor outside the box must be ignored");
+        // TC04: a ray missing the box tests no infinite geometry but still hits the finite ones
+        Ray outside = new Ray(new Point(0, 0, -200), new Vector(0, 0, 1));
+        bvh.setClipBox(new BoundingBox(-1, -1, 300, 1, 1, 400));
+        assertEquals(new Point(0, 0, -55), bvh.findClosestGeoIntersection(outside).point, "wrong sphere intersection");
+        assertEquals(2, bvh.findGeoIntersections(outside).size(), "the tube outside the box must be ignored");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: without a clip box the infinite geometries are hit anywhere
+        bvh.setClipBox(null);
+        assertEquals(new Point(0, -10, -300), bvh.findClosestGeoIntersection(far).point, "wrong unclipped floor intersection");
+        assertEquals(4, bvh.findGeoIntersections(outside).size(), "the tube must be hit without a clip box");
+    }
+}
@@ -7,7 +7,10 @@ import org.example.primitives.Ray;
 import org.example.primitives.Vector;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Testing Cylinder.
@@ -76,7 +79,43 @@ class CylinderTest {
      */
     @Test
     void testFindIntersections() {
+        Cylinder cylinder = new Cylinder(new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 2, 1);
+        Ray across = new Ray(new Point(-2, 0, 1), new Vector(1, 0, 0));
+        Ray along = new Ray(new Point(0.5, 0, -1), new Vector(0, 0, 1));
+
+        /* ============ Equivalence Partitions Tests ============== */
+
+        /* TC01: the ray crosses the side twice */
+        assertEquals(List.of(new Point(-1, 0, 1), new Point(1, 0, 1)), cylinder.findIntersections(across),
+                "Wrong side intersections");
+        /* TC02: the ray crosses both caps */
+        assertEquals(List.of(new Point(0.5, 0, 0), new Point(0.5, 0, 2)), cylinder.findIntersections(along),
+                "Wrong cap intersections");
+        /* TC03: the ray enters by the side and leaves by the top cap */
+        assertEquals(List.of(new Point(-1, 0, 1.5), new Point(-0.5, 0, 2)),
+                cylinder.findIntersections(new Ray(new Point(-2, 0, 0.5), new Vector(1, 0, 1))),
+                "Wrong side and cap intersections");
+        /* TC04: the ray passes above the top cap */
+        assertNull(cylinder.findIntersections(new Ray(new Point(-2, 0, 3), new Vector(1, 0, 0))),
+                "The ray must miss the cylinder");
+        /* TC05: the ray starts inside the cylinder */
+        assertEquals(List.of(new Point(1, 0, 1)),
+                cylinder.findIntersections(new Ray(new Point(0, 0, 1), new Vector(1, 0, 0))),
+                "Wrong intersection from inside");
+
+        /* =============== Boundary Values Tests ================== */
 
+        /* TC10: the far intersection is beyond the distance */
+        assertEquals(1, cylinder.findGeoIntersections(across, 2).size(), "The far intersection must be cut");
+        /* TC11: the closest intersection is on the bottom cap */
+        assertEquals(new Point(0.5, 0, 0), cylinder.findClosestGeoIntersection(along).point,
+                "Wrong closest intersection");
+        /* TC12: the ray is tangent to the side */
+        assertNull(cylinder.findIntersections(new Ray(new Point(-2, 1, 1), new Vector(1, 0, 0))),
+                "A tangent ray must miss the cylinder");
+        /* TC13: the ray runs along the side */
+        assertNull(cylinder.findIntersections(new Ray(new Point(1, 0, -1), new Vector(0, 0, 1))),
+                "A ray along the side must miss the cylinder");
     }
 
 }
\ No newline at end of file
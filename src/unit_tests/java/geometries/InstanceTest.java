@@ -0,0 +1,107 @@
+package geometries;
+
+import org.example.geometries.*;
+import org.example.primitives.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing Instance class
+ */
+class InstanceTest {
+
+    /**
+     * Test method for {@link Instance#findGeoIntersections(Ray)}: an instance
+     * finds what the transformed geometry finds.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Material material = new Material().setKd(0.3);
+        Sphere unit = (Sphere) new Sphere(new Point(0, 0, 0), 1d).setEmission(new Color(10, 20, 30)).setMaterial(material);
+        Instance instance = new Instance(unit, Transform.scaling(2).then(Transform.translation(new Vector(5, 0, 0))));
+        Sphere placed = new Sphere(new Point(5, 0, 0), 2d);
+        Ray ray = new Ray(new Point(5, -10, 1), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a scaled and moved sphere, the points, the distances and the normal in the scene space
+        List<Intersectable.GeoPoint> expected = placed.findGeoIntersections(ray);
+        List<Intersectable.GeoPoint> actual = instance.findGeoIntersections(ray);
+        assertEquals(2, actual.size(), "wrong amount of intersections");
+        for (int i = 0; i < 2; i++) {
+            assertEquals(0, expected.get(i).point.distance(actual.get(i).point), 1e-9, "wrong intersection");
+            assertEquals(0, placed.getNormal(expected.get(i).point)
+                    .distance(actual.get(i).geometry.getNormal(actual.get(i).point)), 1e-9, "wrong normal");
+        }
+        // TC02: the geometry of an intersection has the material of the shared geometry
+        assertSame(material, actual.getFirst().geometry.getMaterial(), "wrong material");
+        assertEquals(unit.getEmission(), actual.getFirst().geometry.getEmission(), "wrong emission");
+        // TC03: the distance limit is in the scene space
+        assertEquals(1, instance.findGeoIntersections(ray, 11).size(), "only the near intersection is closer than 11");
+        // TC04: the box of a rotated triangle
+        Instance turned = new Instance(new Triangle(new Point(0, 0, 0), new Point(2, 0, 0), new Point(0, 2, 0)),
+                Transform.rotation(Vector.Y, 90));
+        assertEquals(0, turned.getBoundingBox().max(0), 1e-9, "the triangle must turn to the negative side");
+        assertEquals(-2, turned.getBoundingBox().min(2), 1e-9, "the triangle must turn to the negative side");
+        Intersectable.GeoPoint hit = turned.findClosestGeoIntersection(new Ray(new Point(5, 0.5, -0.5), new Vector(-1, 0, 0)));
+        assertEquals(new Point(0, 0.5, -0.5), hit.point, "wrong intersection of the rotated triangle");
+        assertTrue(hit.geometry.getNormal(hit.point).isSameNormal(Vector.X), "wrong normal of the rotated triangle");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a ray missing the instance
+        assertNull(instance.findGeoIntersections(new Ray(new Point(0, -10, 0), new Vector(0, 1, 0))), "no intersection");
+        // TC11: an infinite object makes an infinite instance
+        assertNull(new Instance(new Plane(Point.ZERO, Vector.Z), Transform.IDENTITY).getBoundingBox(), "infinite instance");
+    }
+
+    /**
+     * Test method for a two level hierarchy: instances of a shared column
+     * under a hierarchy find what the copies of the column find.
+     */
+    @Test
+    void testTwoLevels() {
+        Intersectable[] parts = {
+                new Cylinder(new Ray(new Point(0, 0, 0), Vector.Y), 10, 1),
+                new Polygon(new Point(-1.5, 10.5, -1.5), new Point(1.5, 10.5, -1.5), new Point(1.5, 10.5, 1.5),
+                        new Point(-1.5, 10.5, 1.5))};
+        Bvh column = new BvhBuilder().build(parts);
+        List<Intersectable> instances = new ArrayList<>();
+        Geometries copies = new Geometries();
+        for (int i = 0; i < 20; i++)
+            for (int j = 0; j < 5; j++) {
+                Vector offset = new Vector(i * 6 + 0.5, 0.5, j * 6 + 0.5);
+                instances.add(new Instance(column, Transform.translation(offset)));
+                copies.add(new Cylinder(new Ray(new Point(0, 0, 0).add(offset), Vector.Y), 10, 1),
+                        new Polygon(new Point(-1.5, 10.5, -1.5).add(offset), new Point(1.5, 10.5, -1.5).add(offset),
+                                new Point(1.5, 10.5, 1.5).add(offset), new Point(-1.5, 10.5, 1.5).add(offset)));
+            }
+        Bvh colonnade = new BvhBuilder().build(instances.toArray(new Intersectable[0]));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays through the colonnade
+        Random random = new Random(17);
+        int hits = 0;
+        for (int i = 0; i < 1000; i++) {
+            Ray ray = new Ray(new Point(random.nextDouble(-20, 140), random.nextDouble(-5, 20), -30),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-0.5, 0.5), 1));
+            Intersectable.GeoPoint expected = copies.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint actual = colonnade.findClosestGeoIntersection(ray);
+            if (expected == null) {
+                assertNull(actual, "no intersection expected");
+                continue;
+            }
+            ++hits;
+            assertEquals(0, expected.point.distance(actual.point), 1e-7, "wrong intersection");
+            assertEquals(0, expected.geometry.getNormal(expected.point)
+                    .distance(actual.geometry.getNormal(actual.point)), 1e-7, "wrong normal");
+        }
+        assertTrue(hits > 100, "the rays must hit the colonnade");
+        // TC02: the top level holds the instances, the bottom level is shared
+        assertEquals(100, colonnade.getStats().getGeometries(), "wrong amount of instances");
+        assertEquals(2, column.getStats().getGeometries(), "wrong amount of shared geometries");
+    }
+}
@@ -125,4 +125,34 @@ public class PolygonTests  {
         assertNull(polygon.findIntersections(new Ray(new Point(1, 0, 0), new Vector(-1,1,-1))),
                 "Ray's line out of polygon, TC13");
     }
+
+    /**
+     * Test method for {@link Polygon#findGeoIntersections(Ray, double)}.
+     */
+    @Test
+    void testFindGeoIntersectionsDistance() {
+        // a square wound clockwise seen from above, so its normal points down
+        Polygon square = new Polygon(new Point(-1, -1, 0), new Point(-1, 1, 0), new Point(1, 1, 0),
+                new Point(1, -1, 0));
+        Ray down = new Ray(new Point(0.5, 0.5, 2), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the polygon is closer than the distance, whatever its winding
+        assertEquals(List.of(new Point(0.5, 0.5, 0)), square.findIntersections(down), "Wrong point, TC01");
+        // TC02: the polygon is farther than the distance
+        assertNull(square.findGeoIntersections(down, 1), "The polygon is beyond the distance, TC02");
+        // TC03: the polygon is behind the ray
+        assertNull(square.findIntersections(new Ray(new Point(0.5, 0.5, 2), new Vector(0, 0, 1))),
+                "The polygon is behind the ray, TC03");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the polygon is exactly at the distance
+        assertNotNull(square.findGeoIntersections(down, 2), "The polygon is at the distance, TC10");
+        // TC11: the ray is parallel to the polygon
+        assertNull(square.findIntersections(new Ray(new Point(0, 0, 1), new Vector(1, 0, 0))),
+                "The ray is parallel to the polygon, TC11");
+        // TC12: the ray starts in the polygon
+        assertNull(square.findIntersections(new Ray(new Point(0.5, 0.5, 0), new Vector(0, 0, 1))),
+                "The ray starts in the polygon, TC12");
+    }
 }
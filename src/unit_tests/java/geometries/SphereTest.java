@@ -123,4 +123,27 @@ public class SphereTest  {
                 "Ray's line is outside, ray is orthogonal to ray start to sphere's center line");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Sphere#findGeoIntersections(Ray, double)}.
+     */
+    @Test
+    void testFindGeoIntersectionsDistance() {
+        Sphere sphere = new Sphere(new Point(1, 0, 0), 1d);
+        Ray ray = new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: both intersections within the distance
+        assertEquals(2, sphere.findGeoIntersections(ray, 5).size(), "both intersections expected");
+        // TC02: only the first intersection within the distance
+        assertEquals(1, sphere.findGeoIntersections(ray, 2).size(), "first intersection expected");
+        // TC03: both intersections beyond the distance
+        assertNull(sphere.findGeoIntersections(ray, 0.5), "no intersection within the distance");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a far ray through the center, whose distance from the center rounds below zero
+        Sphere far = new Sphere(new Point(-35, -25, -50), 4d);
+        assertEquals(2, far.findGeoIntersections(new Ray(new Point(0, 0, 100), new Vector(-3.5, -2.5, -15))).size(),
+                "a ray through the center must cross the sphere");
+    }
+}
@@ -0,0 +1,151 @@
+package geometries;
+
+import org.example.geometries.*;
+import org.example.primitives.BoundingBox;
+import org.example.primitives.Point;
+import org.example.primitives.Ray;
+import org.example.primitives.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing UniformGrid class
+ */
+class UniformGridTest {
+    /**
+     * Helper function creating a field of spheres with a large triangle and a cylinder
+     * crossing many cells
+     *
+     * @return the geometries
+     */
+    private static Intersectable[] field() {
+        Random random = new Random(7);
+        List<Intersectable> geometries = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+            geometries.add(new Sphere(new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100),
+                    random.nextDouble(-100, 100)), random.nextDouble(1, 6)));
+        geometries.add(new Triangle(new Point(-90, -90, 0), new Point(90, -90, 10), new Point(0, 90, -10)));
+        geometries.add(new Cylinder(new Ray(new Point(-50, -50, -50), new Vector(1, 2, 3)), 80, 4));
+        return geometries.toArray(new Intersectable[0]);
+    }
+
+    /**
+     * Helper function sorting intersections by their distance from the ray head
+     *
+     * @param ray           the ray
+     * @param intersections the intersections, may be null
+     * @return the distances in ascending order
+     */
+    private static List<Double> distances(Ray ray, List<Intersectable.GeoPoint> intersections) {
+        if (intersections == null) return List.of();
+        return intersections.stream().map(gp -> gp.point.distance(ray.getHead()))
+                .sorted(Comparator.naturalOrder()).toList();
+    }
+
+    /**
+     * Test method for {@link UniformGrid#findGeoIntersections(Ray, double)} and
+     * {@link UniformGrid#findClosestGeoIntersection(Ray)}: the grid finds what a
+     * plain collection of the same geometries finds.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Intersectable[] field = field();
+        Plane floor = new Plane(new Point(0, -120, 0), Vector.Y);
+        Geometries plain = new Geometries(field);
+        plain.add(floor);
+        Intersectable[] withFloor = new Intersectable[field.length + 1];
+        System.arraycopy(field, 0, withFloor, 0, field.length);
+        withFloor[field.length] = floor;
+        UniformGrid grid = new UniformGrid(withFloor);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays from inside and outside the grid, with and without a distance limit
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            double range = i % 2 == 0 ? 100 : 300;
+            Ray ray = new Ray(new Point(random.nextDouble(-range, range), random.nextDouble(-range, range),
+                    random.nextDouble(-range, range)),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+            double maxDistance = i % 3 == 0 ? 50 : Double.POSITIVE_INFINITY;
+            List<Double> expected = distances(ray, plain.findGeoIntersections(ray, maxDistance));
+            List<Double> actual = distances(ray, grid.findGeoIntersections(ray, maxDistance));
+            assertEquals(expected.size(), actual.size(), "wrong amount of intersections");
+            for (int j = 0; j < expected.size(); j++)
+                assertEquals(expected.get(j), actual.get(j), 1e-9, "wrong intersection");
+
+            Intersectable.GeoPoint closest = grid.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint reference = plain.findClosestGeoIntersection(ray);
+            if (reference == null) assertNull(closest, "no intersection expected");
+            else assertEquals(reference.point.distance(ray.getHead()), closest.point.distance(ray.getHead()),
+                    1e-9, "wrong closest intersection");
+        }
+
+        // TC02: the infinite plane is kept aside, the grid has no box
+        assertNull(grid.getBoundingBox(), "a grid with a plane is infinite");
+        // TC03: the plane is ignored outside the clip box, the finite geometries are not
+        Ray down = new Ray(new Point(0, 300, 0), new Vector(0, -1, 0));
+        Intersectable.GeoPoint below = plain.findClosestGeoIntersection(down);
+        grid.setClipBox(new BoundingBox(-500, -500, -500, 500, 500, 500));
+        assertEquals(below.point, grid.findClosestGeoIntersection(down).point, "the plane inside the box must be hit");
+        grid.setClipBox(new BoundingBox(-500, 200, -500, 500, 500, 500));
+        assertEquals(distances(down, plain.findGeoIntersections(down)).size() - 1,
+                distances(down, grid.findGeoIntersections(down)).size(), "the plane outside the box must be ignored");
+        grid.setClipBox(null);
+
+        // =============== Boundary Values Tests ==================
+        // TC10: ray along an axis, parallel to the cell walls
+        Ray axial = new Ray(new Point(0, 0, -200), new Vector(0, 0, 1));
+        assertEquals(distances(axial, plain.findGeoIntersections(axial)), distances(axial, grid.findGeoIntersections(axial)),
+                "wrong intersections of an axial ray");
+        // TC11: empty grid
+        assertNull(new UniformGrid().findGeoIntersections(axial), "an empty grid has no intersections");
+    }
+
+    /**
+     * Test method for {@link UniformGrid#UniformGrid(Intersectable...)}: the
+     * resolution and the mailbox.
+     */
+    @Test
+    void testBuild() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the cells follow the shape of the bounds
+        UniformGrid grid = new UniformGrid(field());
+        int[] resolution = grid.getResolution();
+        int cells = resolution[0] * resolution[1] * resolution[2];
+        assertTrue(cells >= 300 && cells <= 3000, "the resolution must follow the amount of geometries");
+        assertEquals(resolution[0], resolution[1], 1, "a cubic field must have cubic cells");
+
+        // TC02: a geometry spanning many cells is tested once per ray
+        int[] tests = {0};
+        Sphere big = new Sphere(new Point(0, 0, 0), 90) {
+            @Override
+            public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+                ++tests[0];
+                return super.findGeoIntersectionsHelper(ray, maxDistance);
+            }
+        };
+        Intersectable[] geometries = field();
+        geometries[0] = big;
+        grid = new UniformGrid(geometries);
+        grid.findGeoIntersections(new Ray(new Point(-200, 1, 1), new Vector(1, 0.01, 0.02)));
+        assertEquals(1, tests[0], "a geometry must be tested once per ray");
+        grid.findGeoIntersections(new Ray(new Point(-200, 1, 1), new Vector(1, 0.01, 0.02)));
+        assertEquals(2, tests[0], "a new ray must test the geometry again");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: flat geometries get a single layer of cells
+        grid = new UniformGrid(new Triangle(new Point(0, 0, 0), new Point(10, 0, 0), new Point(0, 10, 0)),
+                new Triangle(new Point(10, 10, 0), new Point(10, 0, 0), new Point(0, 10, 0)));
+        assertEquals(1, grid.getResolution()[2], "a flat grid must have one layer");
+        assertEquals(new BoundingBox(0, 0, 0, 10, 10, 0), grid.getBoundingBox(), "wrong bounds");
+        // TC11: the box of a cylinder holds its caps
+        BoundingBox box = new Cylinder(new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 5, 2).getBoundingBox();
+        assertEquals(new BoundingBox(-2, -2, 0, 2, 2, 5), box, "wrong cylinder bounds");
+    }
+}
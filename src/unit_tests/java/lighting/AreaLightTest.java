@@ -0,0 +1,66 @@
+package lighting;
+
+import org.example.lighting.AreaLight;
+import org.example.lighting.DiskLight;
+import org.example.lighting.RectangleLight;
+import org.example.primitives.Color;
+import org.example.primitives.Point;
+import org.example.primitives.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.example.primitives.Util.isZero;
+
+/**
+ * Testing area lights sample grids
+ */
+class AreaLightTest {
+
+    /**
+     * Test method for {@link AreaLight#getSamplePoints()} of a disk light.
+     */
+    @Test
+    void testDiskSamplePoints() {
+        Point center = new Point(1, 2, 3);
+        Vector normal = new Vector(0, 0, 1);
+        AreaLight light = new DiskLight(new Color(100, 100, 100), center, normal, 5).setGridSize(6);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: all the grid samples lay on the disk
+        List<Point> points = light.getSamplePoints();
+        assertEquals(36, points.size(), "wrong amount of samples");
+        for (Point p : points) {
+            assertTrue(p.distance(center) <= 5 + 1e-10, "sample out of the disk");
+            assertTrue(isZero(p.subtract(center).dotProduct(normal)), "sample out of the disk plane");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: single sample is the center
+        assertEquals(List.of(center), light.setGridSize(1).getSamplePoints(), "single sample must be the center");
+    }
+
+    /**
+     * Test method for {@link AreaLight#getSamplePoints()} of a rectangle light.
+     */
+    @Test
+    void testRectangleSamplePoints() {
+        AreaLight light = new RectangleLight(new Color(100, 100, 100), Point.ZERO, Vector.X, Vector.Y, 8, 4)
+                .setGridSize(4);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the grid is ordered row by row from the corner cell
+        List<Point> points = light.getSamplePoints();
+        assertEquals(16, points.size(), "wrong amount of samples");
+        assertEquals(new Point(-3, -1.5, 0), points.getFirst(), "wrong first sample");
+        assertEquals(new Point(3, -1.5, 0), points.get(3), "wrong end of the first row");
+        assertEquals(new Point(3, 1.5, 0), points.getLast(), "wrong last sample");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: non orthogonal directions
+        assertThrows(IllegalArgumentException.class,
+                () -> new RectangleLight(new Color(1, 1, 1), Point.ZERO, Vector.X, new Vector(1, 1, 0), 1, 1),
+                "directions must be orthogonal");
+    }
+}
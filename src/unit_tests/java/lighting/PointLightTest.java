@@ -0,0 +1,63 @@
+package lighting;
+
+import org.example.lighting.PointLight;
+import org.example.lighting.SpotLight;
+import org.example.primitives.Color;
+import org.example.primitives.Point;
+import org.example.primitives.Vector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing PointLight influence radius
+ */
+class PointLightTest {
+
+    /**
+     * Test method for {@link PointLight#getInfluenceRadius()}.
+     */
+    @Test
+    void testGetInfluenceRadius() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: quadratic attenuation, 1 + d^2 = 100 / 1
+        PointLight light = new PointLight(new Color(100, 50, 20), Point.ZERO).setKq(1).setIntensityThreshold(1);
+        assertEquals(Math.sqrt(99), light.getInfluenceRadius(), 1e-10, "wrong quadratic radius");
+
+        // TC02: linear attenuation, 1 + 2d = 100 / 4
+        light = new PointLight(new Color(100, 50, 20), Point.ZERO).setKl(2).setIntensityThreshold(4);
+        assertEquals(12, light.getInfluenceRadius(), 1e-10, "wrong linear radius");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no threshold - unlimited range
+        light = new PointLight(new Color(100, 50, 20), Point.ZERO).setKq(1);
+        assertEquals(Double.POSITIVE_INFINITY, light.getInfluenceRadius(), "radius must be infinite");
+
+        // TC11: no attenuation - unlimited range
+        light = new PointLight(new Color(100, 50, 20), Point.ZERO).setIntensityThreshold(1);
+        assertEquals(Double.POSITIVE_INFINITY, light.getInfluenceRadius(), "radius must be infinite");
+
+        // TC12: light weaker than threshold at its position
+        light = new PointLight(new Color(100, 50, 20), Point.ZERO).setKc(2).setKl(1).setIntensityThreshold(60);
+        assertEquals(0, light.getInfluenceRadius(), "radius must be zero");
+    }
+
+    /**
+     * Test method for {@link PointLight#isInRange(Point)}.
+     */
+    @Test
+    void testIsInRange() {
+        PointLight light = new SpotLight(new Color(100, 50, 20), Point.ZERO, new Vector(1, 0, 0))
+                .setKl(2).setIntensityThreshold(4);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: point inside the radius
+        assertTrue(light.isInRange(new Point(5, 5, 0)), "point must be in range");
+        // TC02: point outside the radius
+        assertFalse(light.isInRange(new Point(10, 10, 0)), "point must be out of range");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: point on the radius
+        assertTrue(light.isInRange(new Point(0, 12, 0)), "point on the radius must be in range");
+    }
+}
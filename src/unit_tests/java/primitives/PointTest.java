@@ -89,4 +89,44 @@ public class PointTest {
         assertTrue(Util.isZero(point1.distanceSquared(point1) - 0),
                 "ERROR: distanceSquared() doesn't work correctly if they are the same point");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Point#subtractOrNull(Point)}.
+     */
+    @Test
+    public void testSubtractOrNull() {
+        /* ============ Equivalence Partitions Tests ============== */
+
+        Point point1 = new Point(1, 2, 3);
+
+        /* TC01: Check the vector between two different points */
+        assertEquals(new Vector(1, 1, 1), new Point(2, 3, 4).subtractOrNull(point1),
+                "ERROR: subtractOrNull() doesn't work correctly");
+
+        /* =============== Boundary Values Tests ================== */
+
+        /* TC02: The same point gives no vector and no exception */
+        assertNull(point1.subtractOrNull(new Point(1, 2, 3)),
+                "ERROR: subtractOrNull() must return null for the same point");
+    }
+
+    /**
+     * Test method for {@link Point#addScaled(Vector, double)}.
+     */
+    @Test
+    public void testAddScaled() {
+        /* ============ Equivalence Partitions Tests ============== */
+
+        Point point1 = new Point(1, 2, 3);
+
+        /* TC01: Move along a scaled vector */
+        assertEquals(new Point(3, 0, 5), point1.addScaled(new Vector(1, -1, 1), 2),
+                "ERROR: addScaled() doesn't work correctly");
+
+        /* =============== Boundary Values Tests ================== */
+
+        /* TC02: A zero scale does not move the point and does not throw */
+        assertEquals(point1, point1.addScaled(new Vector(1, -1, 1), 0),
+                "ERROR: addScaled() must not move the point by a zero scale");
+    }
+}
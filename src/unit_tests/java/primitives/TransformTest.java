@@ -0,0 +1,97 @@
+package primitives;
+
+import org.example.primitives.BoundingBox;
+import org.example.primitives.Point;
+import org.example.primitives.Transform;
+import org.example.primitives.Vector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing Transform
+ */
+class TransformTest {
+    /**
+     * Helper function comparing points up to rounding
+     *
+     * @param expected the expected point
+     * @param actual   the actual point
+     * @param message  the failure message
+     */
+    private static void assertPoint(Point expected, Point actual, String message) {
+        assertEquals(0, expected.distance(actual), 1e-9, message + ": " + actual);
+    }
+
+    /**
+     * Test method for {@link Transform#apply(Point)}, {@link Transform#then(Transform)} and
+     * {@link Transform#inverse()}.
+     */
+    @Test
+    void testApply() {
+        Transform rotate = Transform.rotation(Vector.Z, 90);
+        Transform move = Transform.translation(new Vector(1, 2, 3));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a rotation about Z turns X into Y
+        assertPoint(new Point(0, 1, 0), rotate.apply(new Point(1, 0, 0)), "wrong rotation");
+        // TC02: the receiver is applied first
+        assertPoint(new Point(1, 3, 3), rotate.then(move).apply(new Point(1, 0, 0)), "wrong rotation then translation");
+        assertPoint(new Point(-2, 2, 3), move.then(rotate).apply(new Point(1, 0, 0)), "wrong translation then rotation");
+        // TC03: the inverse undoes the transformation
+        Transform any = Transform.scaling(2, 3, 0.5).then(rotate).then(move);
+        assertPoint(new Point(4, -5, 6), any.inverse().apply(any.apply(new Point(4, -5, 6))), "wrong inverse");
+        // TC04: directions ignore the translation, normals stay orthogonal to the surface
+        assertEquals(new Vector(2, 0, 0), Transform.scaling(2).then(move).applyVector(Vector.X), "wrong direction");
+        Transform shear = Transform.scaling(1, 4, 1).then(Transform.rotation(Vector.X, 30));
+        Vector tangent = shear.applyVector(new Vector(1, -1, 0));
+        assertEquals(0, shear.applyNormal(new Vector(1, 1, 0)).dotProduct(tangent), 1e-9, "normal not orthogonal");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a singular scaling has no inverse
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1), "singular transformation");
+        // TC11: the identity leaves points in place
+        assertPoint(new Point(1, 2, 3), Transform.IDENTITY.apply(new Point(1, 2, 3)), "identity must not move");
+    }
+
+    /**
+     * Test method for {@link Transform#of(double...)} and {@link Transform#getMatrix()}.
+     */
+    @Test
+    void testMatrix() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a transformation made of its matrix is the same transformation
+        Transform any = Transform.rotation(Vector.Y, 30).then(Transform.translation(new Vector(1, 2, 3)));
+        assertEquals(any, Transform.of(any.getMatrix()), "wrong transformation of the matrix");
+        assertPoint(new Point(3, 2, 3), Transform.of(1, 0, 0, 2, 0, 1, 0, 0, 0, 0, 1, 0).apply(new Point(1, 2, 3)),
+                "wrong translation matrix");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a matrix of a wrong size
+        assertThrows(IllegalArgumentException.class, () -> Transform.of(1, 0, 0, 0, 1, 0, 0, 0, 1), "3x3 matrix");
+        // TC11: the matrix given is copied
+        double[] matrix = Transform.IDENTITY.getMatrix();
+        Transform identity = Transform.of(matrix);
+        matrix[3] = 5;
+        assertEquals(Transform.IDENTITY, identity, "the transformation must not share the matrix");
+    }
+
+    /**
+     * Test method for {@link Transform#apply(BoundingBox)}.
+     */
+    @Test
+    void testApplyBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a box turned by 45 degrees grows to the box of its corners
+        BoundingBox box = Transform.rotation(Vector.Z, 45).apply(new BoundingBox(-1, -1, 0, 1, 1, 2));
+        double half = Math.sqrt(2);
+        assertEquals(-half, box.min(0), 1e-9, "wrong minimal X");
+        assertEquals(half, box.max(1), 1e-9, "wrong maximal Y");
+        assertEquals(2, box.max(2), 1e-9, "wrong maximal Z");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a mirroring keeps the minimal corner minimal
+        assertEquals(new BoundingBox(-3, 0, 0, -1, 1, 1),
+                Transform.scaling(-1, 1, 1).apply(new BoundingBox(1, 0, 0, 3, 1, 1)), "wrong mirrored box");
+    }
+}
@@ -201,4 +201,26 @@ class VectorTest {
         Vector nVector = vector1.normalize();
         assertTrue(isZero(nVector.length() - 1), "ERROR: the normalized vector is not a unit vector");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Vector#scaleOrNull(double)} and
+     * {@link Vector#dotProduct(Point, Point)}.
+     */
+    @Test
+    public void testNonThrowingHelpers() {
+        Vector v1 = new Vector(1, 2, 3);
+        Point p1 = new Point(4, 5, 6);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Scaling by a non zero factor
+        assertEquals(new Vector(2, 4, 6), v1.scaleOrNull(2), "ERROR: scaleOrNull() wrong result");
+        // TC02: Dot product with the difference of two points
+        assertTrue(isZero(v1.dotProduct(p1, new Point(3, 3, 3)) - 14), "ERROR: dotProduct() of a difference wrong result");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Scaling by zero gives no vector and no exception
+        assertNull(v1.scaleOrNull(0), "ERROR: scaleOrNull() must return null for a zero vector");
+        // TC11: The difference of coinciding points is zero, not an exception
+        assertTrue(isZero(v1.dotProduct(p1, p1)), "ERROR: dotProduct() of coinciding points must be zero");
+    }
+}
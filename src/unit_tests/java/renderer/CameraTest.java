@@ -1,12 +1,27 @@
 package renderer;
 
-import org.example.primitives.Point;
-import org.example.primitives.Ray;
-import org.example.primitives.Vector;
+import org.example.geometries.Plane;
+import org.example.geometries.Sphere;
+import org.example.lighting.DirectionalLight;
+import org.example.primitives.*;
 import org.example.renderer.Camera;
+import org.example.renderer.ImageWriter;
+import org.example.renderer.PixelCost;
+import org.example.renderer.SimpleRayTracer;
+import org.example.scene.Scene;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Testing Camera Class
@@ -24,6 +39,19 @@ class CameraTest {
             .setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0))
             .setVpDistance(10);
 
+    /**
+     * Helper function creating a simple lighted sphere scene
+     *
+     * @return the scene
+     */
+    private static Scene sphereScene() {
+        Scene scene = new Scene("Test");
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(new Color(0, 0, 200))
+                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)));
+        scene.lights.add(new DirectionalLight(new Color(500, 500, 500), new Vector(1, -1, -1)));
+        return scene;
+    }
+
     /**
      * Test method for
      * {@link Camera#constructRay(int, int, int, int)}.
@@ -66,4 +94,404 @@ class CameraTest {
 
     }
 
+    /**
+     * Test method for
+     * {@link Camera#constructFocusRays(int, int, int, int)}.
+     */
+    @Test
+    void testConstructFocusRays() {
+        Camera camera = cameraBuilder.setVpSize(8, 8).setAperture(2).setFocalDistance(30).setApertureRays(3).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: all the aperture rays pass through the focal point of the pixel
+        Point focalPoint = new Point(3, -3, -30);
+        List<Ray> rays = camera.constructFocusRays(4, 4, 1, 1);
+        assertEquals(9, rays.size(), "wrong amount of aperture rays");
+        for (Ray ray : rays) {
+            assertTrue(ray.getHead().distance(Point.ZERO) <= 1 + 1e-10, "ray out of the aperture");
+            assertTrue(ray.getPoint(ray.getHead().distance(focalPoint)).distance(focalPoint) < 1e-9,
+                    "ray misses the focal point");
+        }
+    }
+
+    /**
+     * Test method for {@link Camera#renderImage()}: stochastic sampling gives the
+     * same image for any multithreading mode.
+     */
+    @Test
+    void testRenderImageReproducible() {
+        Scene scene = new Scene("Test");
+        scene.geometries.add(
+                new Sphere(new Point(0, 0, -100), 40d).setEmission(new Color(0, 0, 200))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)
+                                .setKr(0.5).setGlossiness(0.2)),
+                new Plane(new Point(0, -40, 0), Vector.Y)
+                        .setMaterial(new Material().setKd(0.5).setKr(0.5).setGlossiness(0.1)));
+        scene.lights.add(new DirectionalLight(new Color(500, 500, 500), new Vector(1, -1, -1)));
+
+        int[][] reference = null;
+        for (int threads : new int[]{0, -1, 3}) {
+            ImageWriter imageWriter = new ImageWriter("reproducible", 30, 30);
+            Camera.getBuilder()
+                    .setLocation(new Point(0, 0, 200))
+                    .setDirection(new Vector(0, 0, -1), Vector.Y)
+                    .setVpDistance(200).setVpSize(150, 150)
+                    .setAperture(10).setFocalDistance(300).setApertureRays(3)
+                    .setRayTracer(new SimpleRayTracer(scene))
+                    .setImageWriter(imageWriter)
+                    .setMultithreading(threads)
+                    .build()
+                    .renderImage();
+            int[][] pixels = new int[30][30];
+            for (int i = 0; i < 30; i++)
+                for (int j = 0; j < 30; j++)
+                    pixels[i][j] = imageWriter.getRGB(j, i);
+            if (reference == null) reference = pixels;
+            else assertArrayEquals(reference, pixels, "render depends on the threads mode " + threads);
+        }
+    }
+
+    /**
+     * Test method for {@link Camera#renderImage()}: the adaptive supersampling
+     * of the aperture beams splits grids of odd sides.
+     */
+    @Test
+    void testRenderImageAdaptiveDepthOfField() {
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 150)
+                .setAperture(10).setFocalDistance(300)
+                .setRayTracer(new SimpleRayTracer(sphereScene()).setAdaptiveGrid(true).setMaxLevel(3));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the default aperture grid of 9 rays per side
+        ImageWriter imageWriter = new ImageWriter("adaptiveFocus", 10, 10);
+        assertDoesNotThrow(() -> builder.setImageWriter(imageWriter).build().renderImage(), "odd grid not split");
+        assertTrue((imageWriter.getRGB(5, 5) & 0xFF) > 0, "the sphere is not rendered");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the smallest odd grid split, 3 rays per side
+        ImageWriter smallWriter = new ImageWriter("adaptiveFocus", 10, 10);
+        assertDoesNotThrow(() -> builder.setApertureRays(3).setImageWriter(smallWriter).build().renderImage(),
+                "odd grid not split");
+        assertTrue((smallWriter.getRGB(5, 5) & 0xFF) > 0, "the sphere is not rendered");
+    }
+
+    /**
+     * Test method for {@link Camera#renderImage()} by virtual threads: the tiles
+     * rendered by virtual threads make the image of a single thread render.
+     */
+    @Test
+    void testRenderImageVirtualThreads(@TempDir Path folder) {
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 100)
+                .setRayTracer(new SimpleRayTracer(sphereScene()));
+        ImageWriter reference = new ImageWriter("reference", 30, 20);
+        builder.setImageWriter(reference).build().renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: bounded amount of tracing threads
+        ImageWriter bounded = new ImageWriter("virtual", 30, 20);
+        builder.setImageWriter(bounded).setVirtualThreads(true).setTileSize(8).setMultithreading(2)
+                .build().renderImage();
+        // TC02: tiles written to a checkpoint by their threads
+        ImageWriter checkpointed = new ImageWriter("virtual", 30, 20);
+        builder.setImageWriter(checkpointed).setCheckpoint(folder.resolve("virtual.ckpt").toString(), 8)
+                .setCheckpointInterval(0).build().renderImage();
+        for (int i = 0; i < 20; i++)
+            for (int j = 0; j < 30; j++) {
+                assertEquals(reference.getRGB(j, i), bounded.getRGB(j, i), "wrong virtual threads pixel");
+                assertEquals(reference.getRGB(j, i), checkpointed.getRGB(j, i), "wrong checkpointed pixel");
+            }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a failing tile fails the render
+        Camera failing = builder.setRayTracer(new SimpleRayTracer(sphereScene()) {
+            @Override
+            public Color traceRay(Ray ray) {
+                throw new IllegalStateException("tile failed");
+            }
+        }).setImageWriter(new ImageWriter("virtual", 30, 20)).build();
+        assertThrows(IllegalStateException.class, failing::renderImage, "the failure must reach the caller");
+    }
+
+    /**
+     * Helper function creating a ray tracer taking a millisecond for every ray
+     *
+     * @param active  counter of the threads tracing a ray
+     * @param traced  counter of the traced rays
+     * @param started latch released by the first ray
+     * @return the ray tracer
+     */
+    private static SimpleRayTracer slowTracer(AtomicInteger active, AtomicInteger traced, CountDownLatch started) {
+        return new SimpleRayTracer(sphereScene()) {
+            @Override
+            public Color traceRay(Ray ray) {
+                active.incrementAndGet();
+                try {
+                    traced.incrementAndGet();
+                    started.countDown();
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    active.decrementAndGet();
+                }
+                return super.traceRay(ray);
+            }
+        };
+    }
+
+    /**
+     * Test method for {@link Camera#renderAsync()} and {@link Camera#renderImage()}:
+     * a cancelled render stops all its threads.
+     */
+    @Test
+    void testRenderCancellation(@TempDir Path folder) throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger traced = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 100)
+                .setRayTracer(slowTracer(active, traced, started))
+                .setImageWriter(new ImageWriter("cancelled", 60, 40));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: no thread keeps tracing after the cancel returns
+        for (int threads : new int[]{0, -1, 3}) {
+            Future<Camera> render = builder.setMultithreading(threads).build().renderAsync();
+            started.await();
+            assertTrue(render.cancel(true), "a running render must be cancellable");
+            assertEquals(0, active.get(), "no thread may trace after the cancel, threads mode " + threads);
+            int count = traced.get();
+            assertTrue(count < 2400, "the render must stop early, threads mode " + threads);
+            Thread.sleep(20);
+            assertEquals(count, traced.get(), "no ray may be traced after the cancel, threads mode " + threads);
+            assertThrows(CancellationException.class, render::get, "a cancelled render has no result");
+            traced.set(0);
+        }
+
+        // TC02: a virtual threads render with a checkpoint is cancelled too
+        Future<Camera> render = builder.setMultithreading(2).setVirtualThreads(true)
+                .setCheckpoint(folder.resolve("cancelled.ckpt").toString(), 8).build().renderAsync();
+        started.await();
+        render.cancel(true);
+        assertEquals(0, active.get(), "no virtual thread may trace after the cancel");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a render by an interrupted thread is cancelled at once
+        traced.set(0);
+        Thread.currentThread().interrupt();
+        assertThrows(CancellationException.class, builder.setVirtualThreads(false).build()::renderImage,
+                "an interrupted render must be cancelled");
+        assertTrue(Thread.interrupted(), "the thread must stay interrupted");
+        assertEquals(0, traced.get(), "a cancelled render must not trace");
+        // TC11: a render that is not cancelled completes
+        assertSame(Camera.class, builder.setImageWriter(new ImageWriter("cancelled", 6, 4))
+                .build().renderAsync().get().getClass(), "a render must complete");
+    }
+
+    /**
+     * Test method for {@link Camera.Builder#setTimeBudget(long)}: supersampling
+     * stops when the budget is over.
+     */
+    @Test
+    void testRenderTimeBudget() {
+        AtomicInteger traced = new AtomicInteger();
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 100)
+                .setRayTracer(slowTracer(new AtomicInteger(), traced, new CountDownLatch(1)))
+                .setImageWriter(new ImageWriter("budget", 10, 10))
+                .ifImprovment(true).setBeamRays(2, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the remaining pixels are traced by a single ray
+        Camera camera = builder.setTimeBudget(20).build().renderImage();
+        assertTrue(camera.isBudgetExceeded(), "the budget must be over");
+        assertTrue(traced.get() < 400, "pixels must be traced without supersampling");
+        assertTrue(traced.get() > 100, "pixels must be supersampled within the budget");
+        // TC02: a pinhole render stops sampling the glossy cones
+        Scene scene = new Scene("Test");
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d).setEmission(new Color(0, 0, 200))
+                .setMaterial(new Material().setKd(0.5).setKr(0.5).setGlossiness(0.2)));
+        scene.lights.add(new DirectionalLight(new Color(500, 500, 500), new Vector(1, -1, -1)));
+        SimpleRayTracer glossyTracer = new SimpleRayTracer(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.traceRay(ray);
+            }
+        }.setConeSamples(16);
+        Camera.Builder pinhole = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 150)
+                .setRayTracer(glossyTracer).setRenderStats(true)
+                .setImageWriter(new ImageWriter("budget", 10, 10));
+        long refined = pinhole.setTimeBudget(0).build().renderImage().getRenderStats().getReflectionRays();
+        camera = pinhole.setTimeBudget(20).build().renderImage();
+        assertTrue(camera.isBudgetExceeded(), "the budget of a pinhole render must be over");
+        assertTrue(camera.getRenderStats().getReflectionRays() < refined / 2,
+                "cones must be traced by their center ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no budget
+        traced.set(0);
+        camera = builder.setTimeBudget(0).build().renderImage();
+        assertFalse(camera.isBudgetExceeded(), "there is no budget");
+        assertEquals(400, traced.get(), "all pixels must be supersampled");
+    }
+
+    /**
+     * Test method for {@link Camera#renderImage()} with a checkpoint: a render
+     * that died is resumed rendering only the unfinished tiles.
+     */
+    @Test
+    void testRenderImageCheckpoint(@TempDir Path folder) {
+        Scene scene = sphereScene();
+        String checkpoint = folder.resolve("render.ckpt").toString();
+        int[] traced = {0};
+        int[] limit = {Integer.MAX_VALUE};
+        SimpleRayTracer tracer = new SimpleRayTracer(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                if (++traced[0] > limit[0]) throw new IllegalStateException("render died");
+                return super.traceRay(ray);
+            }
+        };
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 150)
+                .setRayTracer(tracer);
+
+        ImageWriter reference = new ImageWriter("reference", 30, 20);
+        builder.setImageWriter(reference).build().renderImage();
+
+        // TC01: the render dies in the middle, finished tiles stay in the checkpoint
+        limit[0] = 300;
+        traced[0] = 0;
+        Camera camera = builder.setImageWriter(new ImageWriter("checkpoint", 30, 20))
+                .setCheckpoint(checkpoint, 8).setCheckpointInterval(0).build();
+        assertThrows(IllegalStateException.class, camera::renderImage, "the render must die");
+        assertTrue(Files.exists(Path.of(checkpoint)), "checkpoint must be kept");
+
+        // TC02: the resumed render skips the finished tiles and completes the image
+        limit[0] = Integer.MAX_VALUE;
+        traced[0] = 0;
+        ImageWriter resumed = new ImageWriter("checkpoint", 30, 20);
+        builder.setImageWriter(resumed).build().renderImage();
+        assertEquals(600 - 240, traced[0], "finished tiles must not be rendered again");
+        for (int i = 0; i < 20; i++)
+            for (int j = 0; j < 30; j++)
+                assertEquals(reference.getRGB(j, i), resumed.getRGB(j, i), "wrong resumed pixel");
+        assertFalse(Files.exists(Path.of(checkpoint)), "checkpoint must be deleted after the render");
+
+        // TC03: a hierarchy built over the same scene keeps the checkpoint valid
+        limit[0] = 300;
+        traced[0] = 0;
+        assertThrows(IllegalStateException.class, camera::renderImage, "the render must die");
+        scene.geometries.buildBvh();
+        limit[0] = Integer.MAX_VALUE;
+        traced[0] = 0;
+        builder.setImageWriter(new ImageWriter("checkpoint", 30, 20)).build().renderImage();
+        assertEquals(600 - 240, traced[0], "the same scene must resume");
+
+        // TC04: a checkpoint of another camera is discarded
+        limit[0] = 300;
+        traced[0] = 0;
+        assertThrows(IllegalStateException.class, camera::renderImage, "the render must die");
+        limit[0] = Integer.MAX_VALUE;
+        traced[0] = 0;
+        builder.setLocation(new Point(0, 10, 200)).setImageWriter(new ImageWriter("checkpoint", 30, 20)).build()
+                .renderImage();
+        assertEquals(600, traced[0], "another camera must render all the tiles");
+    }
+
+    /**
+     * Test method for {@link Camera#renderImage()} with a crop window: the window
+     * pixels match the render of the whole frame.
+     */
+    @Test
+    void testRenderImageCropWindow() {
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 100)
+                .setRayTracer(new SimpleRayTracer(sphereScene()));
+        ImageWriter full = new ImageWriter("full", 30, 20);
+        builder.setImageWriter(full).build().renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: crop window rendered into a writer of the whole frame
+        ImageWriter frame = new ImageWriter("frame", 30, 20);
+        builder.setImageWriter(frame).setCropWindow(10, 5, 12, 8).build().renderImage();
+        for (int i = 0; i < 20; i++)
+            for (int j = 0; j < 30; j++)
+                assertEquals(j >= 10 && j < 22 && i >= 5 && i < 13 ? full.getRGB(j, i) : java.awt.Color.BLACK.getRGB(),
+                        frame.getRGB(j, i), "wrong pixel in the whole frame writer");
+
+        // TC02: crop window rendered into a writer of the window size
+        ImageWriter cropped = new ImageWriter("cropped", 12, 8);
+        builder.setImageWriter(cropped).setResolution(30, 20).build().renderImage();
+        for (int i = 0; i < 8; i++)
+            for (int j = 0; j < 12; j++)
+                assertEquals(full.getRGB(j + 10, i + 5), cropped.getRGB(j, i), "wrong pixel in the cropped writer");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: crop window out of the frame
+        Camera camera = builder.setImageWriter(new ImageWriter("out", 30, 20)).setCropWindow(25, 5, 12, 8).build();
+        assertThrows(IllegalArgumentException.class, camera::renderImage, "crop window out of the frame");
+    }
+
+    /**
+     * Test method for {@link Camera#getPixelCosts()}.
+     */
+    @Test
+    void testPixelCosts() {
+        Camera.Builder builder = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 100)
+                .setRayTracer(new SimpleRayTracer(sphereScene()))
+                .setImageWriter(new ImageWriter("costs", 30, 20));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a background pixel costs its primary ray, a sphere pixel adds a shadow ray
+        long[] costs = builder.setPixelCost(PixelCost.RAYS).build().renderImage().getPixelCosts();
+        assertEquals(600, costs.length, "wrong size of the cost buffer");
+        assertEquals(1, costs[0], "wrong cost of a background pixel");
+        assertEquals(2, costs[10 * 30 + 15], "wrong cost of a sphere pixel");
+
+        // TC02: timed pixels
+        costs = builder.setPixelCost(PixelCost.TIME).build().renderImage().getPixelCosts();
+        long total = 0;
+        for (long cost : costs) {
+            assertTrue(cost >= 0, "a pixel can't take negative time");
+            total += cost;
+        }
+        assertTrue(total > 0, "the render must take time");
+
+        // TC03: a crop window into a writer of the window size
+        costs = builder.setPixelCost(PixelCost.RAYS).setImageWriter(new ImageWriter("cropCosts", 10, 5))
+                .setResolution(30, 20).setCropWindow(0, 8, 10, 5).build().renderImage().getPixelCosts();
+        assertEquals(50, costs.length, "wrong size of the cropped cost buffer");
+        for (long cost : costs)
+            assertTrue(cost >= 1, "every cropped pixel must be traced");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no cost buffer unless enabled
+        assertNull(builder.setPixelCost(null).build().renderImage().getPixelCosts(), "costs must not be recorded");
+    }
 }
@@ -5,6 +5,13 @@ import org.example.primitives.Color;
 import org.example.renderer.ImageWriter;
 import org.junit.jupiter.api.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 
 public class ImageWriterTest {
 
@@ -33,4 +40,23 @@ public class ImageWriterTest {
         }
         imageWriter.writeToImage();
     }
+
+    /**
+     * Test method for {@link ImageWriter#writeHeatmap(long[])}.
+     */
+    @Test
+    public void testWriteHeatmap() throws IOException {
+        ImageWriter imageWriter = new ImageWriter("Heatmap", 100, 1);
+        long[] costs = new long[100];
+        for (int i = 0; i < 100; i++) costs[i] = i * i;
+        imageWriter.writeHeatmap(costs);
+
+        BufferedImage heatmap = ImageIO.read(new File(System.getProperty("user.dir") + "/images/Heatmap_cost.png"));
+        assertEquals(100, heatmap.getWidth(), "wrong heatmap width");
+        assertEquals(0x000000, heatmap.getRGB(0, 0) & 0xFFFFFF, "the cheapest pixel must be black");
+        assertEquals(0xFFFFFF, heatmap.getRGB(99, 0) & 0xFFFFFF, "the most expensive pixel must be white");
+
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.writeHeatmap(new long[10]),
+                "costs must cover the image");
+    }
 }
@@ -117,6 +117,70 @@ public class ReflectionRefractionTests {
                 .writeToImage();
     }
 
+    /**
+     * Produce a picture of a blurry transparent sphere and a solid sphere in
+     * front of a glossy mirror
+     */
+    @Test
+    public void glossyMirrorBlurrySphere() {
+        scene.geometries.add(
+                new Sphere(new Point(-40, -20, -50), 30d).setEmission(new Color(BLUE))
+                        .setMaterial(new Material().setKd(0.2).setKs(0.2).setShininess(30)
+                                .setKt(0.6).setBlurriness(0.08)),
+                new Sphere(new Point(40, -20, -80), 30d).setEmission(new Color(RED))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(60)),
+                new Triangle(new Point(-150, -50, -200), new Point(150, -50, -200), new Point(150, -50, 100))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKd(0.2).setKr(0.6).setGlossiness(0.05)),
+                new Triangle(new Point(-150, -50, -200), new Point(150, -50, 100), new Point(-150, -50, 100))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKd(0.2).setKr(0.6).setGlossiness(0.05)),
+                new Polygon(new Point(-150, -50, -200), new Point(150, -50, -200), new Point(150, 150, -200),
+                        new Point(-150, 150, -200))
+                        .setEmission(new Color(60, 60, 20))
+                        .setMaterial(new Material().setKd(0.5)));
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+        scene.lights.add(
+                new SpotLight(new Color(700, 400, 400), new Point(0, 100, 50), new Vector(0, -1, -1))
+                        .setKl(4E-5).setKq(2E-7));
+
+        cameraBuilder.setLocation(new Point(0, 20, 400)).setVpDistance(400)
+                .setVpSize(200, 200)
+                .setImageWriter(new ImageWriter("glossyMirrorBlurrySphere", 400, 400))
+                .build()
+                .renderImage()
+                .writeToImage();
+    }
+
+    /**
+     * Produce a picture of a row of spheres with depth of field focused on the
+     * middle sphere, using adaptive supersampling of the aperture beam
+     */
+    @Test
+    public void depthOfFieldSpheres() {
+        for (int i = 0; i < 5; i++) {
+            scene.geometries.add(new Sphere(new Point(-120 + 60 * i, 0, -300 * i), 25d)
+                    .setEmission(new Color(40 * i, 50, 200 - 40 * i))
+                    .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(60)));
+        }
+        scene.geometries.add(new Plane(new Point(0, -25, 0), Vector.Y)
+                .setEmission(new Color(30, 30, 30))
+                .setMaterial(new Material().setKd(0.4).setKr(0.2)));
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+        scene.lights.add(new DirectionalLight(new Color(600, 500, 400), new Vector(1, -1, -1)));
+
+        Camera.getBuilder()
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setRayTracer(new SimpleRayTracer(scene).setAdaptiveGrid(true).setMaxLevel(3))
+                .setLocation(new Point(0, 40, 800)).setVpDistance(800)
+                .setVpSize(200, 200)
+                .setAperture(30).setFocalDistance(1400).setApertureRays(8)
+                .setImageWriter(new ImageWriter("depthOfFieldSpheres", 300, 300))
+                .build()
+                .renderImage()
+                .writeToImage();
+    }
+
 
     @Test
     public void generalPicture() {
@@ -0,0 +1,204 @@
+package renderer;
+
+import org.example.geometries.Plane;
+import org.example.geometries.Sphere;
+import org.example.geometries.Triangle;
+import org.example.lighting.AmbientLight;
+import org.example.lighting.RectangleLight;
+import org.example.lighting.SpotLight;
+import org.example.primitives.*;
+import org.example.renderer.Camera;
+import org.example.renderer.ImageWriter;
+import org.example.renderer.RenderCoordinator;
+import org.example.renderer.RenderWorker;
+import org.example.renderer.SimpleRayTracer;
+import org.example.scene.Scene;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the distributed render of RenderCoordinator and RenderWorker on the loopback
+ */
+class RenderCoordinatorTest {
+    /**
+     * Camera builder of a scene with the serialized kinds of geometries and lights
+     */
+    private final Camera.Builder cameraBuilder = Camera.getBuilder()
+            .setLocation(new Point(0, 0, 200))
+            .setDirection(new Vector(0, 0, -1), Vector.Y)
+            .setVpDistance(200).setVpSize(150, 100)
+            .setRayTracer(new SimpleRayTracer(scene()));
+
+    /**
+     * Helper function creating the scene
+     *
+     * @return the scene
+     */
+    private static Scene scene() {
+        Scene scene = new Scene("Farm").setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1));
+        scene.geometries.add(
+                new Sphere(new Point(0, 0, -50), 30d).setEmission(new Color(0, 0, 200))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)),
+                new Triangle(new Point(-60, -40, -80), new Point(60, -40, -80), new Point(0, 40, -90))
+                        .setEmission(new Color(100, 50, 0)).setMaterial(new Material().setKd(0.5)),
+                new Plane(new Point(0, -40, 0), Vector.Y).setMaterial(new Material().setKd(0.5).setKr(0.3)));
+        scene.lights.add(new SpotLight(new Color(400, 300, 300), new Point(60, 50, 50), new Vector(-1, -1, -2))
+                .setKl(0.001));
+        scene.lights.add(new RectangleLight(new Color(300, 300, 300), new Point(-40, 80, 0), Vector.X,
+                new Vector(0, 0, 1), 20, 20).setGridSize(3));
+        return scene;
+    }
+
+    /**
+     * Helper function connecting a broken worker, which takes a tile and then
+     * either disconnects or never answers. A real worker is started once the
+     * tile is taken, so the coordinator must reassign it.
+     *
+     * @param port the coordinator port
+     * @param hang whether the broken worker stops answering instead of disconnecting
+     * @return the thread of the broken worker
+     */
+    private static Thread brokenWorker(int port, boolean hang) {
+        Thread thread = new Thread(() -> {
+            try (Socket socket = new Socket("localhost", port)) {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                out.writeInt(1); // a single thread
+                in.skipNBytes(in.readInt()); // the camera
+                for (int i = 0; i < 5; i++) in.readInt(); // the first tile
+                new Thread(() -> RenderWorker.run("localhost", port, 2)).start();
+                if (hang) in.readInt(); // blocks until the coordinator gives up
+            } catch (IOException ignored) {
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Test method for {@link RenderCoordinator#render()}.
+     */
+    @Test
+    void testRender() throws InterruptedException {
+        ImageWriter local = new ImageWriter("local", 40, 30);
+        cameraBuilder.setImageWriter(local).build().renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: two workers render the same image as a local render
+        ImageWriter farm = new ImageWriter("farm", 40, 30);
+        try (RenderCoordinator coordinator = new RenderCoordinator(cameraBuilder.setImageWriter(farm).build(), 0)) {
+            coordinator.setTileSize(8);
+            for (int i = 0; i < 2; i++) {
+                new Thread(() -> RenderWorker.run("localhost", coordinator.getPort(), 2)).start();
+            }
+            coordinator.render();
+        }
+        for (int i = 0; i < 30; i++)
+            for (int j = 0; j < 40; j++)
+                assertEquals(local.getRGB(j, i), farm.getRGB(j, i), "wrong pixel of the distributed render");
+
+        // TC02: tiles of a disconnected worker and of a stuck worker are reassigned
+        ImageWriter failing = new ImageWriter("failing", 40, 30);
+        try (RenderCoordinator coordinator = new RenderCoordinator(cameraBuilder.setImageWriter(failing).build(), 0)) {
+            coordinator.setTileSize(8).setWorkerTimeout(1000);
+            Thread disconnected = brokenWorker(coordinator.getPort(), false);
+            Thread stuck = brokenWorker(coordinator.getPort(), true);
+            coordinator.render();
+            disconnected.join();
+            stuck.join();
+        }
+        for (int i = 0; i < 30; i++)
+            for (int j = 0; j < 40; j++)
+                assertEquals(local.getRGB(j, i), failing.getRGB(j, i), "wrong pixel after reassigning tiles");
+
+        // TC03: without workers the coordinator renders the tiles itself
+        ImageWriter alone = new ImageWriter("alone", 40, 30);
+        try (RenderCoordinator coordinator = new RenderCoordinator(cameraBuilder.setImageWriter(alone).build(),
+                InetAddress.getLoopbackAddress(), 0)) {
+            coordinator.setTileSize(8).setLocalFallback(0).render();
+        }
+        for (int i = 0; i < 30; i++)
+            for (int j = 0; j < 40; j++)
+                assertEquals(local.getRGB(j, i), alone.getRGB(j, i), "wrong pixel of the local fallback");
+    }
+
+    /**
+     * Test method for {@link RenderCoordinator#render()}: a worker whose tracer
+     * throws drops its connection, so the render ends instead of waiting for
+     * its tiles.
+     */
+    @Test
+    void testRenderFailingTracer() throws InterruptedException {
+        Scene scene = scene();
+        scene.lights.add(null); // every shaded hit fails
+        Camera camera = cameraBuilder.setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(new ImageWriter("failed", 40, 30)).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tile of the worker fails, then the local fallback fails the render
+        RuntimeException[] workerFailure = {null};
+        try (RenderCoordinator coordinator = new RenderCoordinator(camera, 0)) {
+            coordinator.setTileSize(8).setLocalFallback(2000);
+            Thread worker = new Thread(() -> {
+                try {
+                    RenderWorker.run("localhost", coordinator.getPort(), 2);
+                } catch (RuntimeException e) {
+                    workerFailure[0] = e;
+                }
+            });
+            worker.start();
+            assertTimeoutPreemptively(Duration.ofSeconds(30),
+                    () -> assertThrows(NullPointerException.class, coordinator::render, "the render must fail"),
+                    "the render must not wait for the failed tile");
+            worker.join();
+        }
+        assertInstanceOf(IllegalStateException.class, workerFailure[0], "the worker must fail");
+        assertInstanceOf(NullPointerException.class, workerFailure[0].getCause(), "the tracer failure must be kept");
+    }
+
+    /**
+     * Test method for {@link RenderWorker#run(String, int, int)}: a worker
+     * rejects a job that is not a camera without deserializing its classes.
+     */
+    @Test
+    void testRunRejectsJob() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<>());
+        }
+        byte[] job = bytes.toByteArray();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a job of another class fails the worker
+        try (ServerSocket server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            Thread coordinator = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    new DataInputStream(socket.getInputStream()).readInt(); // the worker threads
+                    out.writeInt(job.length);
+                    out.write(job);
+                    out.flush();
+                } catch (IOException ignored) {
+                }
+            });
+            coordinator.start();
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> RenderWorker.run("localhost", server.getLocalPort(), 1), "a job of another class must fail");
+            assertInstanceOf(InvalidClassException.class, e.getCause(), "the class must be rejected by the filter");
+            coordinator.join();
+        }
+    }
+}
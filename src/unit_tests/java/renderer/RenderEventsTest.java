@@ -0,0 +1,103 @@
+package renderer;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.geometries.Sphere;
+import org.example.primitives.*;
+import org.example.renderer.Camera;
+import org.example.renderer.ImageWriter;
+import org.example.renderer.SceneSnapshot;
+import org.example.renderer.SimpleRayTracer;
+import org.example.scene.Scene;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the flight recorder events of the render phases
+ */
+class RenderEventsTest {
+    /**
+     * Helper function creating a scene of a single sphere
+     *
+     * @return the scene
+     */
+    private static Scene scene() {
+        Scene scene = new Scene("Events");
+        scene.geometries.add(new Sphere(new Point(0, 0, -50), 30d).setEmission(new Color(0, 0, 200)));
+        return scene;
+    }
+
+    /**
+     * Helper function counting the recorded events of a type
+     *
+     * @param events the recorded events
+     * @param name   the event type name
+     * @return the amount of events of the type
+     */
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+    }
+
+    /**
+     * Test method for the events of a tiled adaptive render.
+     */
+    @Test
+    void testRenderEvents(@TempDir Path folder) throws IOException {
+        Path recordingFile = folder.resolve("render.jfr");
+        Path snapshot = folder.resolve("events.rtss");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.SceneLoad");
+            recording.enable("org.example.TileRender");
+            recording.enable("org.example.ImageEncode");
+            recording.enable("org.example.AdaptiveSampling");
+            recording.start();
+
+            Camera camera = Camera.getBuilder()
+                    .setLocation(new Point(0, 0, 200))
+                    .setDirection(new Vector(0, 0, -1), Vector.Y)
+                    .setVpDistance(200).setVpSize(150, 100)
+                    .setRayTracer(new SimpleRayTracer(scene()).setAdaptiveGrid(true).setMaxLevel(3))
+                    .ifImprovment(true).setBeamRays(8, 8)
+                    .setImageWriter(new ImageWriter("events", 16, 8))
+                    .setCheckpoint(folder.resolve("events.ckpt").toString(), 4)
+                    .build();
+            camera.renderImage().writeToImage();
+            SceneSnapshot.write(snapshot, scene(), camera);
+            SceneSnapshot.load(snapshot);
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an event for every tile
+        assertEquals(8, count(events, "org.example.TileRender"), "wrong amount of tile events");
+        // TC02: an event for every supersampled pixel
+        assertEquals(128, count(events, "org.example.AdaptiveSampling"), "wrong amount of sampling events");
+        // TC03: the encoded image
+        RecordedEvent encode = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.example.ImageEncode")).findFirst().orElseThrow();
+        assertEquals("events", encode.getString("image"), "wrong encoded image");
+        assertTrue(encode.getLong("bytes") > 0, "the file size must be recorded");
+        // TC04: the loaded snapshot
+        RecordedEvent load = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.example.SceneLoad")).findFirst().orElseThrow();
+        assertEquals("snapshot", load.getString("format"), "wrong scene format");
+        assertEquals(1, load.getInt("geometries"), "wrong amount of geometries");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a uniform pixel is not subdivided
+        assertTrue(events.stream()
+                        .filter(e -> e.getEventType().getName().equals("org.example.AdaptiveSampling"))
+                        .anyMatch(e -> e.getInt("subdivisions") == 0 && e.getInt("cornerRays") == 4),
+                "a uniform pixel must be traced by its corners");
+    }
+}
@@ -0,0 +1,90 @@
+package renderer;
+
+import org.example.geometries.Plane;
+import org.example.geometries.Sphere;
+import org.example.lighting.DirectionalLight;
+import org.example.primitives.*;
+import org.example.renderer.Camera;
+import org.example.renderer.ImageWriter;
+import org.example.renderer.RenderStats;
+import org.example.renderer.SimpleRayTracer;
+import org.example.scene.Scene;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the render statistics
+ */
+class RenderStatsTest {
+    /**
+     * Camera builder of a transparent sphere above a mirror floor
+     */
+    private final Camera.Builder cameraBuilder = Camera.getBuilder()
+            .setLocation(new Point(0, 0, 200))
+            .setDirection(new Vector(0, 0, -1), Vector.Y)
+            .setVpDistance(200).setVpSize(150, 100)
+            .setRayTracer(new SimpleRayTracer(scene()));
+
+    /**
+     * Helper function creating the scene
+     *
+     * @return the scene
+     */
+    private static Scene scene() {
+        Scene scene = new Scene("Stats");
+        scene.geometries.add(
+                new Sphere(new Point(0, 0, -50), 30d).setEmission(new Color(0, 0, 200))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30).setKt(0.5)),
+                new Plane(new Point(0, -30, 0), Vector.Y).setMaterial(new Material().setKd(0.5).setKr(0.5)));
+        scene.lights.add(new DirectionalLight(new Color(300, 300, 300), new Vector(1, -1, -1)));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link Camera#getRenderStats()}.
+     */
+    @Test
+    void testRenderStats() throws Exception {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every ray tests both geometries of the scene
+        RenderStats stats = cameraBuilder.setImageWriter(new ImageWriter("stats", 20, 10)).setRenderStats(true)
+                .build().renderImage().getRenderStats();
+        assertEquals(200, stats.getPrimaryRays(), "wrong amount of primary rays");
+        assertTrue(stats.getShadowRays() > 0, "shadow rays must be counted");
+        assertTrue(stats.getReflectionRays() > 0, "reflection rays must be counted");
+        assertTrue(stats.getRefractionRays() > 0, "refraction rays must be counted");
+        long rays = stats.getPrimaryRays() + stats.getShadowRays() + stats.getReflectionRays()
+                + stats.getRefractionRays();
+        assertEquals(rays, stats.getIntersectionTests().get("Sphere"), "wrong amount of sphere tests");
+        assertEquals(rays, stats.getIntersectionTests().get("Plane"), "wrong amount of plane tests");
+        assertEquals(2 * rays, stats.getIntersectionTestsCount(), "wrong amount of intersection tests");
+        assertTrue(stats.getHits() > 0 && stats.getHits() <= rays - stats.getShadowRays(), "wrong amount of hits");
+        assertTrue(stats.getAverageDepth() > 0, "secondary hits must be deeper than primary");
+
+        // TC02: the counters of several threads are summed
+        RenderStats threaded = cameraBuilder.setMultithreading(3).build().renderImage().getRenderStats();
+        assertEquals(stats.getPrimaryRays(), threaded.getPrimaryRays(), "wrong amount of primary rays");
+        assertEquals(stats.getShadowRays(), threaded.getShadowRays(), "wrong amount of shadow rays");
+        assertEquals(stats.getIntersectionTests(), threaded.getIntersectionTests(), "wrong intersection tests");
+        assertEquals(stats.getAverageDepth(), threaded.getAverageDepth(), 1e-10, "wrong average depth");
+
+        // TC03: concurrent renders count separately
+        Future<Camera> first = cameraBuilder.setMultithreading(2).build().renderAsync();
+        Future<Camera> second = cameraBuilder.setMultithreading(0).build().renderAsync();
+        for (Future<Camera> render : List.of(first, second)) {
+            RenderStats concurrent = render.get().getRenderStats();
+            assertEquals(stats.getPrimaryRays(), concurrent.getPrimaryRays(), "renders mixed their primary rays");
+            assertEquals(stats.getIntersectionTests(), concurrent.getIntersectionTests(),
+                    "renders mixed their intersection tests");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no statistics unless enabled
+        assertNull(cameraBuilder.setRenderStats(false).build().renderImage().getRenderStats(),
+                "statistics must not be collected");
+    }
+}
@@ -0,0 +1,174 @@
+package renderer;
+
+import org.example.geometries.Geometries;
+import org.example.geometries.Instance;
+import org.example.geometries.Intersectable;
+import org.example.geometries.Sphere;
+import org.example.geometries.Triangle;
+import org.example.lighting.AmbientLight;
+import org.example.lighting.SpotLight;
+import org.example.primitives.*;
+import org.example.renderer.Camera;
+import org.example.renderer.ImageWriter;
+import org.example.renderer.SceneDescription;
+import org.example.renderer.SimpleRayTracer;
+import org.example.scene.Scene;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the scene description loader
+ */
+class SceneDescriptionTest {
+    /**
+     * Scene description matching {@link #scene()}
+     */
+    private static final String SCENE = """
+            <scene name="described" background="10 20 30">
+                <ambient color="20 20 20" ka="1"/>
+                <materials>
+                    <material id="shiny" kd="0.5" ks="0.5 0.4 0.3" shininess="30"/>
+                </materials>
+                <geometries>
+                    <sphere center="0 0 -50" radius="30" emission="0 0 200" material="shiny"/>
+                    <group>
+                        <triangle vertices="-60 -40 -80, 60 -40 -80, 0 40 -90" emission="100 50 0"/>
+                    </group>
+                </geometries>
+                <lights>
+                    <spot intensity="400 300 300" position="60 50 50" direction="-1 -1 -2" kl="0.001"/>
+                </lights>
+                <camera position="0 0 200" direction="0 0 -1" up="0 1 0" vp-size="150 100" vp-distance="200"
+                        resolution="40 30"/>
+            </scene>
+            """;
+
+    /**
+     * Helper function creating the described scene
+     *
+     * @return the scene
+     */
+    private static Scene scene() {
+        Scene scene = new Scene("described").setBackground(new Color(10, 20, 30))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1));
+        scene.geometries.add(
+                new Sphere(new Point(0, 0, -50), 30d).setEmission(new Color(0, 0, 200))
+                        .setMaterial(new Material().setKd(0.5).setKs(new Double3(0.5, 0.4, 0.3)).setShininess(30)),
+                new Geometries(new Triangle(new Point(-60, -40, -80), new Point(60, -40, -80), new Point(0, 40, -90))
+                        .setEmission(new Color(100, 50, 0))));
+        scene.lights.add(new SpotLight(new Color(400, 300, 300), new Point(60, 50, 50), new Vector(-1, -1, -2))
+                .setKl(0.001));
+        return scene;
+    }
+
+    /**
+     * Helper function reading a scene description from a string
+     *
+     * @param xml the description
+     * @return the loaded description
+     */
+    private static SceneDescription read(String xml) {
+        return SceneDescription.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Test method for {@link SceneDescription#read(java.io.InputStream)}.
+     */
+    @Test
+    void testRead() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the described scene renders as the scene built in code
+        SceneDescription description = read(SCENE);
+        assertEquals("described", description.getScene().name, "wrong scene name");
+        assertEquals(40, description.getNx(), "wrong image width");
+        assertEquals(30, description.getNy(), "wrong image height");
+
+        ImageWriter expected = new ImageWriter("expected", 40, 30);
+        Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 100)
+                .setRayTracer(new SimpleRayTracer(scene()))
+                .setImageWriter(expected)
+                .build().renderImage();
+        ImageWriter loaded = new ImageWriter("loaded", 40, 30);
+        description.getCameraBuilder().setImageWriter(loaded).build().renderImage();
+        for (int i = 0; i < 30; i++)
+            for (int j = 0; j < 40; j++)
+                assertEquals(expected.getRGB(j, i), loaded.getRGB(j, i), "wrong pixel of the described scene");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: unknown element
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> read(SCENE.replace("<group>", "<cube>").replace("</group>", "</cube>")), "unknown element");
+        assertTrue(e.getMessage().startsWith("Line 8:"), "error must tell the line");
+        // TC11: material used before its definition
+        assertThrows(IllegalArgumentException.class, () -> read(SCENE.replace("\"shiny\"/>", "\"dull\"/>")),
+                "undefined material");
+        // TC12: missing required attribute
+        assertThrows(IllegalArgumentException.class, () -> read(SCENE.replace(" radius=\"30\"", "")),
+                "missing radius");
+        // TC13: malformed XML
+        assertThrows(IllegalArgumentException.class, () -> read("<scene>"), "malformed XML");
+        // TC14: no camera
+        assertThrows(IllegalArgumentException.class, () -> read("<scene/>"), "missing camera");
+        // TC15: an external DTD is neither fetched nor read
+        assertEquals("described", read("""
+                <?xml version="1.0"?>
+                <!DOCTYPE scene [<!ENTITY % external SYSTEM "file:///nonexistent/scene.dtd"> %external;]>
+                """ + SCENE).getScene().name, "a DTD must be ignored");
+    }
+
+    /**
+     * Test method for the shared objects and their instances in {@link SceneDescription#read(java.io.InputStream)}.
+     */
+    @Test
+    void testInstances() {
+        String xml = """
+                <scene name="instanced">
+                    <object id="ball">
+                        <sphere center="0 0 0" radius="10" emission="200 0 0"/>
+                    </object>
+                    <instance object="ball" matrix="1 0 0 -30 0 1 0 0 0 0 1 -50"/>
+                    <instance object="ball" matrix="2 0 0 30 0 2 0 0 0 0 2 -50"/>
+                    <camera position="0 0 200" direction="0 0 -1" up="0 1 0" vp-size="150 100" vp-distance="200"
+                            resolution="40 30"/>
+                </scene>
+                """;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the instances share the object, placed by their matrices
+        List<Intersectable> geometries = read(xml).getScene().geometries.getGeometries();
+        assertEquals(2, geometries.size(), "the object itself must not be in the scene");
+        Instance left = (Instance) geometries.get(0);
+        Instance right = (Instance) geometries.get(1);
+        assertSame(left.getObject(), right.getObject(), "the instances must share the object");
+        assertNotNull(((Geometries) left.getObject()).getBvh(), "the object must have a hierarchy");
+        assertEquals(Transform.scaling(2).then(Transform.translation(new Vector(30, 0, -50))), right.getTransform(),
+                "wrong matrix");
+        List<Point> points = right.findIntersections(new Ray(new Point(30, 0, 100), new Vector(0, 0, -1)));
+        assertEquals(2, points.size(), "wrong intersections of the scaled instance");
+        assertTrue(points.containsAll(List.of(new Point(30, 0, -30), new Point(30, 0, -70))),
+                "wrong intersections of the scaled instance");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an instance without a matrix is in place
+        assertEquals(Transform.IDENTITY, ((Instance) read(xml.replace(" matrix=\"1 0 0 -30 0 1 0 0 0 0 1 -50\"", ""))
+                .getScene().geometries.getGeometries().get(0)).getTransform(), "missing matrix must be the identity");
+        // TC11: instance of an undefined object
+        assertThrows(IllegalArgumentException.class,
+                () -> read(xml.replace("object=\"ball\" matrix=\"2", "object=\"box\" matrix=\"2")), "undefined object");
+        // TC12: an object instancing itself
+        assertThrows(IllegalArgumentException.class,
+                () -> read(xml.replace("</object>", "<instance object=\"ball\"/></object>")), "recursive object");
+        // TC13: a singular matrix
+        assertThrows(IllegalArgumentException.class, () -> read(xml.replace("2 0 0 30", "0 0 0 30")), "singular matrix");
+        // TC14: a matrix of a wrong size
+        assertThrows(IllegalArgumentException.class, () -> read(xml.replace(" 0 0 1 -50", " 0 0 1")), "short matrix");
+    }
+}
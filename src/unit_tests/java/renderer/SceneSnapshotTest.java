@@ -0,0 +1,191 @@
+package renderer;
+
+import org.example.geometries.*;
+import org.example.lighting.*;
+import org.example.primitives.*;
+import org.example.renderer.Camera;
+import org.example.renderer.ImageWriter;
+import org.example.renderer.SceneSnapshot;
+import org.example.renderer.SimpleRayTracer;
+import org.example.scene.Scene;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the binary scene snapshot
+ */
+class SceneSnapshotTest {
+
+    /**
+     * Helper function creating a scene with every stored kind of geometry and light
+     *
+     * @return the scene
+     */
+    private static Scene scene() {
+        Material shiny = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        Scene scene = new Scene("Snapshot").setBackground(new Color(10, 20, 30))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1));
+        scene.geometries.add(
+                new Sphere(new Point(0, 0, -50), 30d).setEmission(new Color(0, 0, 200)).setMaterial(shiny),
+                new Triangle(new Point(-60, -40, -80), new Point(60, -40, -80), new Point(0, 40, -90))
+                        .setEmission(new Color(100, 50, 0)).setMaterial(shiny),
+                new Geometries(
+                        new Polygon(new Point(40, 10, -60), new Point(60, 10, -60), new Point(60, 30, -60),
+                                new Point(40, 30, -60)).setEmission(new Color(0, 80, 0)),
+                        new Cylinder(new Ray(new Point(-50, -40, -40), Vector.Y), 30, 8)
+                                .setEmission(new Color(80, 0, 0)).setMaterial(shiny)),
+                new Plane(new Point(0, -40, 0), Vector.Y).setMaterial(new Material().setKd(0.5).setKr(0.3)));
+        scene.lights.add(new DirectionalLight(new Color(100, 100, 100), new Vector(0, 0, -1)));
+        scene.lights.add(new SpotLight(new Color(400, 300, 300), new Point(60, 50, 50), new Vector(-1, -1, -2))
+                .setKl(0.001).setIntensityThreshold(1));
+        scene.lights.add(new RectangleLight(new Color(300, 300, 300), new Point(-40, 80, 0), Vector.X,
+                new Vector(0, 0, 1), 20, 20).setGridSize(3));
+        scene.lights.add(new DiskLight(new Color(200, 200, 200), new Point(40, 80, 0), Vector.Y, 10)
+                .setGridSize(2));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link SceneSnapshot#write(Path, Scene, Camera)} and {@link SceneSnapshot#load(Path)}.
+     */
+    @Test
+    void testWriteLoad(@TempDir Path folder) throws Exception {
+        Path file = folder.resolve("scene.rtss");
+        Scene scene = scene();
+        Camera camera = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(200).setVpSize(150, 100)
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(new ImageWriter("original", 40, 30))
+                .build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the loaded scene and camera render the same image
+        SceneSnapshot.write(file, scene, camera);
+        SceneSnapshot snapshot = SceneSnapshot.load(file);
+        assertEquals("Snapshot", snapshot.getScene().name, "wrong scene name");
+        assertEquals(5, snapshot.getScene().geometries.getGeometries().size(), "nested geometries must be flattened");
+        assertEquals(4, snapshot.getScene().lights.size(), "wrong amount of lights");
+
+        ImageWriter original = new ImageWriter("original", 40, 30);
+        new Camera.Builder(camera).setImageWriter(original).build().renderImage();
+        ImageWriter loaded = new ImageWriter("loaded", 40, 30);
+        snapshot.getCameraBuilder()
+                .setRayTracer(new SimpleRayTracer(snapshot.getScene()))
+                .setImageWriter(loaded)
+                .build().renderImage();
+        for (int i = 0; i < 30; i++)
+            for (int j = 0; j < 40; j++)
+                assertEquals(original.getRGB(j, i), loaded.getRGB(j, i), "wrong pixel of the loaded scene");
+
+        // TC02: a snapshot without a camera
+        SceneSnapshot.write(file, scene, null);
+        assertNull(SceneSnapshot.load(file).getCameraBuilder(), "snapshot must have no camera");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a file which isn't a snapshot
+        Files.write(file, new byte[100]);
+        assertThrows(IllegalArgumentException.class, () -> SceneSnapshot.load(file), "not a snapshot");
+    }
+
+    /**
+     * Test method for {@link SceneSnapshot#write(Path, Scene, Camera)} and {@link SceneSnapshot#load(Path)}
+     * with a bounding volume hierarchy.
+     */
+    @Test
+    void testWriteLoadBvh(@TempDir Path folder) {
+        Path file = folder.resolve("bvh.rtss");
+        Scene scene = new Scene("Bvh");
+        for (int i = 0; i < 50; i++)
+            scene.geometries.add(new Sphere(new Point(i % 10 * 10 - 45, i / 10 * 10 - 25, -50), 4d)
+                    .setEmission(new Color(i * 5, 100, 0)));
+        scene.geometries.add(new Plane(new Point(0, -40, 0), Vector.Y).setEmission(new Color(0, 0, 100)));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hierarchy is stored and finds the same intersections
+        BvhStats stats = scene.geometries.buildBvh().getStats();
+        SceneSnapshot.write(file, scene, null);
+        Geometries loaded = SceneSnapshot.load(file).getScene().geometries;
+        assertNotNull(loaded.getBvh(), "the hierarchy must be loaded");
+        assertEquals(stats.getNodes(), loaded.getBvh().getStats().getNodes(), "wrong amount of nodes");
+        assertEquals(stats.getSahCost(), loaded.getBvh().getStats().getSahCost(), "wrong SAH cost");
+        for (int i = 0; i < 50; i++) {
+            Ray ray = new Ray(new Point(0, 0, 100), new Vector(i % 10 - 4.5, i / 10 - 2.5, -15));
+            Intersectable.GeoPoint expected = scene.geometries.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint actual = loaded.findClosestGeoIntersection(ray);
+            assertEquals(expected.point, actual.point, "wrong intersection of the loaded hierarchy");
+            assertEquals(expected.geometry.getEmission(), actual.geometry.getEmission(), "wrong geometry");
+        }
+        // TC02: the clip box of the infinite geometries is stored with the hierarchy
+        BoundingBox room = new BoundingBox(-60, -50, -60, 60, 50, 10);
+        scene.geometries.getBvh().setClipBox(room);
+        SceneSnapshot.write(file, scene, null);
+        assertEquals(room, SceneSnapshot.load(file).getScene().geometries.getBvh().getClipBox(), "wrong clip box");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a changed collection drops its hierarchy
+        scene.geometries.add(new Sphere(new Point(0, 100, 0), 1d));
+        assertNull(scene.geometries.getBvh(), "a change must drop the hierarchy");
+        SceneSnapshot.write(file, scene, null);
+        assertNull(SceneSnapshot.load(file).getScene().geometries.getBvh(), "no hierarchy must be stored");
+    }
+
+    /**
+     * Test method for {@link SceneSnapshot#write(Path, Scene, Camera)} and {@link SceneSnapshot#load(Path)}
+     * with instances of shared objects.
+     */
+    @Test
+    void testWriteLoadInstances(@TempDir Path folder) {
+        Path file = folder.resolve("instances.rtss");
+        Material shiny = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        Bvh column = new BvhBuilder().build(
+                new Cylinder(new Ray(new Point(0, 0, 0), Vector.Y), 10, 1).setEmission(new Color(80, 0, 0))
+                        .setMaterial(shiny),
+                new Sphere(new Point(0, 11, 0), 1.5).setEmission(new Color(0, 80, 0)));
+        Geometries pair = new Geometries(new Instance(column, Transform.translation(new Vector(-3, 0, 0))),
+                new Instance(column, Transform.translation(new Vector(3, 0, 0))),
+                new Triangle(new Point(-4, 0, 0), new Point(4, 0, 0), new Point(0, 0, 4)));
+        Scene scene = new Scene("Instances");
+        for (int i = 0; i < 10; i++)
+            scene.geometries.add(new Instance(column, Transform.rotation(Vector.Y, i * 10)
+                    .then(Transform.translation(new Vector(i * 6 - 27, -10, -40)))));
+        scene.geometries.add(new Instance(pair, Transform.scaling(2).then(Transform.translation(new Vector(0, 5, -60)))),
+                new Plane(new Point(0, -10, 0), Vector.Y).setEmission(new Color(0, 0, 100)));
+        scene.geometries.buildBvh();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the instances share their stored objects and find the same intersections
+        SceneSnapshot.write(file, scene, null);
+        Geometries loaded = SceneSnapshot.load(file).getScene().geometries;
+        assertEquals(12, loaded.getGeometries().size(), "wrong amount of geometries");
+        assertNotNull(loaded.getBvh(), "the hierarchy over the instances must be loaded");
+        Intersectable shared = ((Instance) loaded.getGeometries().get(1)).getObject();
+        for (int i = 1; i < 11; i++)
+            assertSame(shared, ((Instance) loaded.getGeometries().get(i)).getObject(), "the object must be shared");
+        assertNotNull(((Geometries) shared).getBvh(), "the object must keep its hierarchy");
+        for (int i = 0; i < 200; i++) {
+            Ray ray = new Ray(new Point(0, 10, 100), new Vector(i % 20 - 9.5, i / 20 - 10.5, -40));
+            Intersectable.GeoPoint expected = scene.geometries.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint actual = loaded.findClosestGeoIntersection(ray);
+            // the inverse of a loaded matrix is computed anew, so the points differ by rounding
+            assertEquals(0, expected.point.distance(actual.point), 1e-9, "wrong intersection of the loaded instances");
+            assertEquals(expected.geometry.getEmission(), actual.geometry.getEmission(), "wrong geometry");
+            assertEquals(1, expected.geometry.getNormal(expected.point)
+                    .dotProduct(actual.geometry.getNormal(actual.point)), 1e-9, "wrong normal");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an object without a hierarchy is stored without one
+        scene = new Scene("Plain");
+        scene.geometries.add(new Instance(new Sphere(Point.ZERO, 1d), Transform.IDENTITY));
+        SceneSnapshot.write(file, scene, null);
+        Instance instance = (Instance) SceneSnapshot.load(file).getScene().geometries.getGeometries().getFirst();
+        assertNull(((Geometries) instance.getObject()).getBvh(), "no hierarchy must be built");
+    }
+}
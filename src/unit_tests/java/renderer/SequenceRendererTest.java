@@ -0,0 +1,119 @@
+package renderer;
+
+import org.example.geometries.Instance;
+import org.example.geometries.Sphere;
+import org.example.primitives.*;
+import org.example.renderer.Camera;
+import org.example.renderer.SequenceRenderer;
+import org.example.renderer.SimpleRayTracer;
+import org.example.scene.Scene;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the animation renderer
+ */
+class SequenceRendererTest {
+    /**
+     * Helper function creating a scene of a moving sphere
+     *
+     * @param ball the instance of the moving sphere
+     * @return the scene, with a hierarchy over the sphere
+     */
+    private static Scene scene(Instance ball) {
+        Scene scene = new Scene("Animation");
+        scene.geometries.add(ball);
+        scene.geometries.buildBvh();
+        return scene;
+    }
+
+    /**
+     * Helper function creating a camera over a scene
+     *
+     * @param scene the scene
+     * @return the camera builder
+     */
+    private static Camera.Builder camera(Scene scene) {
+        return Camera.getBuilder()
+                .setLocation(new Point(0, 0, 100))
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(100).setVpSize(40, 30)
+                .setRayTracer(new SimpleRayTracer(scene));
+    }
+
+    /**
+     * Test method for {@link SequenceRenderer#render()} into a YUV4MPEG2 stream.
+     */
+    @Test
+    void testRenderY4m() {
+        Instance ball = new Instance(new Sphere(Point.ZERO, 5d).setEmission(new Color(255, 255, 255)),
+                Transform.IDENTITY);
+        Scene scene = scene(ball);
+        List<Integer> placed = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SequenceRenderer(camera(scene), 3, 16, 12)
+                .setSceneUpdate(frame -> {
+                    ball.setTransform(Transform.translation(new Vector(frame * 10 - 9.5, 0, 0)));
+                    scene.geometries.refitBvh();
+                })
+                .setCameraPath((frame, camera) -> placed.add(frame))
+                .setY4mOutput(out, 25)
+                .render();
+        byte[] stream = out.toByteArray();
+        String header = "YUV4MPEG2 W16 H12 F25:1 Ip A1:1 C444\n";
+        int frameSize = 6 + 3 * 16 * 12;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the header and three frames
+        assertEquals(header, new String(stream, 0, header.length(), StandardCharsets.US_ASCII), "wrong header");
+        assertEquals(header.length() + 3 * frameSize, stream.length, "wrong stream length");
+        assertEquals(List.of(0, 1, 2), placed, "the camera must be placed for each frame in order");
+        // TC02: the ball moves from left to right, the background is studio black
+        int[] brightest = new int[3];
+        for (int frame = 0; frame < 3; frame++) {
+            int start = header.length() + frame * frameSize;
+            assertEquals("FRAME\n", new String(stream, start, 6, StandardCharsets.US_ASCII), "wrong frame marker");
+            assertEquals(16, stream[start + 6] & 0xFF, "the background must be black");
+            int best = 0;
+            for (int j = 0; j < 16; j++)
+                if ((stream[start + 6 + 6 * 16 + j] & 0xFF) > (stream[start + 6 + 6 * 16 + best] & 0xFF)) best = j;
+            brightest[frame] = best;
+        }
+        assertTrue(brightest[0] < brightest[1] && brightest[1] < brightest[2], "the ball must move right");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no output
+        assertThrows(IllegalStateException.class, () -> new SequenceRenderer(camera(scene), 1, 4, 4).render(),
+                "an animation needs an output");
+        // TC11: no frames
+        assertThrows(IllegalArgumentException.class, () -> new SequenceRenderer(camera(scene), 0, 4, 4),
+                "an animation needs frames");
+    }
+
+    /**
+     * Test method for {@link SequenceRenderer#render()} into numbered png images.
+     */
+    @Test
+    void testRenderPng() {
+        Instance ball = new Instance(new Sphere(Point.ZERO, 5d).setEmission(new Color(0, 255, 0)), Transform.IDENTITY);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an image per frame, numbered from 0
+        File first = new File(System.getProperty("user.dir") + "/images/sequence test_0000.png");
+        File second = new File(System.getProperty("user.dir") + "/images/sequence test_0001.png");
+        first.delete();
+        second.delete();
+        new SequenceRenderer(camera(scene(ball)), 2, 8, 6)
+                .setCameraPath((frame, camera) -> camera.setLocation(new Point(0, 0, 100 + frame * 50)))
+                .setPngOutput("sequence test")
+                .render();
+        assertTrue(first.isFile() && second.isFile(), "an image must be written per frame");
+    }
+}
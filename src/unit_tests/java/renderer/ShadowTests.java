@@ -4,6 +4,7 @@ import org.example.geometries.Intersectable;
 import org.example.geometries.Sphere;
 import org.example.geometries.Triangle;
 import org.example.lighting.AmbientLight;
+import org.example.lighting.DiskLight;
 import org.example.lighting.SpotLight;
 import org.example.primitives.Color;
 import org.example.primitives.Material;
@@ -142,4 +143,32 @@ public class ShadowTests {
                 .renderImage()
                 .writeToImage();
     }
+
+    /**
+     * Produce a picture of two triangles and a sphere casting a soft shadow from
+     * a disk area light with adaptive shadow rays
+     */
+    @Test
+    public void trianglesSphereSoftShadow() {
+        scene.geometries.add(
+                new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135),
+                        new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)), //
+                new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)), //
+                new Sphere(new Point(0, 0, -11), 30d) //
+                        .setEmission(new Color(BLUE)) //
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)) //
+        );
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+        scene.lights.add(
+                new DiskLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4), 15) //
+                        .setGridSize(8).setAdaptiveDepth(3) //
+                        .setKl(4E-4).setKq(2E-5));
+
+        camera.setImageWriter(new ImageWriter("shadowTrianglesSphereSoft", 600, 600))
+                .build()
+                .renderImage()
+                .writeToImage();
+    }
 }